@@ -1,6 +1,13 @@
 package airport_terminal;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
 
 /**
  * A central database ("model" class): It is intended that there will be only
@@ -12,6 +19,43 @@ import java.util.*;
  * ManagementRecord must remain fixed once it is allocated. Many classes
  * register as observers of this class, and are notified whenever any aircraft's
  * (MR's) state changes.
+ * 
+ * The array grows when every MR is in use, and FREE mCodes are kept on a
+ * free-list so that allocating and releasing an MR never scans the array.
+ * 
+ * The database can be used from several threads at once (the radar feed, the
+ * gate consoles and the Swing event thread). Each MR has its own StampedLock:
+ * operations that change an MR hold its write lock, so changes to different
+ * aircraft never wait for each other, and getStatus, getFlightCode and
+ * getGateNumber use optimistic reads so that they do not block. Status changes
+ * made through setStatus and transition are a compare-and-set on the record's
+ * status and take no lock at all. The free-list
+ * is guarded by its own lock, the status index and record views share a lock
+ * that is held only while they are being updated, and the flight code index is
+ * a ConcurrentHashMap. An MR's lock is always released before the status index
+ * is updated, so the locks cannot deadlock.
+ * 
+ * Every change to an MR increases the database's version. snapshot returns an
+ * unchangeable view of every MR at the current version, which screens can read
+ * without locking and without seeing a change half way through. Snapshots are
+ * copy on write (see RecordViewTable), so taking one does not copy the records.
+ * 
+ * Observers are notified once for every operation that changes an MR. Several
+ * operations can be grouped with batch so that observers are notified only
+ * once, after all of them. The notification carries a ChangeSet with one
+ * ChangeEvent per MR that changed, saying which fields changed and the status
+ * before and after, so that views can update just the affected rows. An
+ * operation that turns out to change nothing (for example because its
+ * precondition did not hold) does not notify the observers at all.
+ * 
+ * Observers added with addObserver are told about every change. Screens that
+ * only care about some statuses should use subscribe instead, so that they are
+ * only woken by changes to aircraft in those statuses (see ChangeDispatcher).
+ * Once setNotificationQueue has been called, subscribers are told about
+ * changes on the queue's thread instead of the thread that made them, so a
+ * change does not wait for every screen to redraw (see NotificationQueue).
+ * Once setEventRing has been called, changes are published on an EventRing,
+ * and the observers and subscribers are notified from one of its consumers.
  */
 @SuppressWarnings("deprecation")
 public class AircraftManagementDatabase extends Observable {
@@ -21,12 +65,21 @@ public class AircraftManagementDatabase extends Observable {
 	 */
 	public AircraftManagementDatabase() {
         MRs = new ManagementRecord[maxMRs];//Set the management record array to have the number of positions as specified by the MaxMRs variable
+        locks = new StampedLock[maxMRs];//One lock per management record
+        freeCodes = new int[maxMRs];//Set the free-list to be able to hold every mCode in the array
         
         //For every management record in the array
         for (int i = 0; i < maxMRs; i++) {
-			MRs[i] = new ManagementRecord();//Create a new management record
-			MRs[i].setStatus(0);//Set the status of the management record to be free initially
+			MRs[i] = new ManagementRecord();//Create a new management record - FREE to begin with
+			locks[i] = new StampedLock();//Create the lock for the management record
 		}
+		statusIndex = new StatusIndex(maxMRs);//Set up the status index to have room for every mCode
+		views = new RecordViewTable();
+		views.grow(maxMRs);//Set up the record views to have room for every mCode - all FREE
+		for (int i = 0; i < maxMRs; i++) {//For every management record in the array
+			statusIndex.update(i, ManagementRecord.FREE);//Index it as free
+		}
+		pushFreeCodes(0, maxMRs);//Every management record starts off free
 		
     }
 	
@@ -43,14 +96,128 @@ public class AircraftManagementDatabase extends Observable {
 	 * @shapeType AggregationLink
 	 * @supplierCardinality 0..*
 	 */
-	private ManagementRecord[] MRs;//The array of management records
-	private int[] code;//This array of integers is used in the getWithStatus method to hold all of the mCodes who have the matching status
+	private volatile ManagementRecord[] MRs;//The array of management records - replaced by a larger copy when the database grows
+	private volatile StampedLock[] locks;//The lock for each management record, at the same position as the record
+	private final Object allocationLock = new Object();//Guards the free-list and growing the arrays
+	private int[] freeCodes;//A stack of the mCodes whose management record is currently FREE - the next one to be used is on top
+	private int freeCount;//The number of mCodes currently held on the free-list
+	private final Object indexLock = new Object();//Guards the status index and the record views
+	private StatusIndex statusIndex;//Keeps track of which mCodes have each status, for the getWithStatus method
+	private RecordViewTable views;//An unchangeable copy of every management record, for the snapshot method
+	private long version;//Increased by every change to the database
+	private DatabaseSnapshot lastSnapshot;//The most recent snapshot - handed out again if nothing has changed since
+	private ConcurrentHashMap<String, Integer> flightCodes = new ConcurrentHashMap<String, Integer>();//Maps the flight code of every aircraft currently being managed to its mCode
+	private final ThreadLocal<Batch> batches = new ThreadLocal<Batch>();//The batch each thread is currently running, if any
+	private final ChangeDispatcher dispatcher = new ChangeDispatcher(this);//Routes changes to the subscribers interested in them
+	private volatile NotificationQueue queue;//Delivers changes to the subscribers, or null to tell them straight away
+	private volatile EventRing ring;//Carries changes to the observers and other consumers, or null to notify the observers straight away
+	private final AtomicLong illegalTransitions = new AtomicLong();//The number of status changes refused because the MRState diagram does not allow them
+
+	/**
+	 * The changes made so far by a call to batch. Belongs to the thread running
+	 * the batch.
+	 */
+	private static class Batch {
+		int depth;//The number of calls to batch that have not yet returned - batches can be nested
+		int changes;//The number of changes made so far
+		TreeMap<Integer, ChangeEvent> changed = new TreeMap<Integer, ChangeEvent>();//One event for each MR that has changed, in order of mCode
+	}
+
+	/**
+	 * The size of the array MRs holding ManagementRecords. Starts at 10 and is
+	 * doubled by radarDetect whenever there is no FREE management record left, so
+	 * screens should treat it as the current number of mCodes rather than a fixed limit.
+	 */
+	public volatile int maxMRs = 10;
+
+	/**
+	 * Return the lock for the MR with the given mCode.
+	 * @param mCode The position of the management record
+	 * @return The lock guarding that management record
+	 */
+	private StampedLock lockFor(int mCode) {
+		return locks[mCode];
+	}
+
+	/**
+	 * Reads an int from the MR with the given mCode without blocking. An optimistic
+	 * read is tried first; only if a writer changed the record at the same time is
+	 * the read repeated while holding the read lock.
+	 * @param mCode The position of the management record to be read
+	 * @param field The field of the management record to be read
+	 * @return The value of the field
+	 */
+	private int readInt(int mCode, ToIntFunction<ManagementRecord> field) {
+		ManagementRecord record = MRs[mCode];//The management record to be read
+		StampedLock lock = lockFor(mCode);
+		long stamp = lock.tryOptimisticRead();//Note the lock's version without locking it
+		int value = field.applyAsInt(record);//Read the field
+		if (!lock.validate(stamp)) {//If a writer got in while the field was being read THEN
+			stamp = lock.readLock();//Wait for the writer and read again
+			try {
+				value = field.applyAsInt(record);
+			} finally {
+				lock.unlockRead(stamp);
+			}
+		}
+		return value;//Return the value to the caller
+	}
 
 	/**
-	 * The size of the array MRs holding ManagementRecords.
-	 * In this simple system 10 will do!
+	 * Reads an object from the MR with the given mCode without blocking, in the
+	 * same way as readInt.
+	 * @param mCode The position of the management record to be read
+	 * @param field The field of the management record to be read
+	 * @return The value of the field
 	 */
-	public int maxMRs = 10;
+	private <T> T read(int mCode, Function<ManagementRecord, T> field) {
+		ManagementRecord record = MRs[mCode];//The management record to be read
+		StampedLock lock = lockFor(mCode);
+		long stamp = lock.tryOptimisticRead();//Note the lock's version without locking it
+		T value = field.apply(record);//Read the field
+		if (!lock.validate(stamp)) {//If a writer got in while the field was being read THEN
+			stamp = lock.readLock();//Wait for the writer and read again
+			try {
+				value = field.apply(record);
+			} finally {
+				lock.unlockRead(stamp);
+			}
+		}
+		return value;//Return the value to the caller
+	}
+
+	/**
+	 * Makes a change to the MR with the given mCode while holding its write lock.
+	 * Other management records can be changed at the same time.
+	 * @param mCode The position of the management record to be changed
+	 * @param change The change to make
+	 */
+	private void modify(int mCode, Consumer<ManagementRecord> change) {
+		StampedLock lock = lockFor(mCode);
+		long stamp = lock.writeLock();//Only blocks writers and readers of this management record
+		try {
+			change.accept(MRs[mCode]);//Make the change
+		} finally {
+			lock.unlockWrite(stamp);
+		}
+	}
+
+	/**
+	 * Makes a change to the MR with the given mCode while holding its write lock,
+	 * as modify does, and returns whether the change was made.
+	 * @param mCode The position of the management record to be changed
+	 * @param change The change to make, returning true if it was made
+	 * @return The change's result
+	 */
+	private boolean modifyIf(int mCode, Predicate<ManagementRecord> change) {
+		StampedLock lock = lockFor(mCode);
+		long stamp = lock.writeLock();//Only blocks writers and readers of this management record
+		try {
+			return change.test(MRs[mCode]);//Make the change
+		} finally {
+			lock.unlockWrite(stamp);
+		}
+	}
 
 	/**
 	 * Return the status of the MR with the given mCode supplied as a parameter.
@@ -58,7 +225,7 @@ public class AircraftManagementDatabase extends Observable {
 	 * @return The status of the management record as an integer
 	 */
 	public int getStatus(int mCode) {
-		return MRs[mCode].getStatus();//Call the getStatus() method in the management record class for the management record at the position of the mCode
+		return readInt(mCode, ManagementRecord::getStatus);//Call the getStatus() method in the management record class for the management record at the position of the mCode
 	}
 
 	/**
@@ -68,7 +235,7 @@ public class AircraftManagementDatabase extends Observable {
 	 * @return The status of the management record as a string/text
 	 */
 	public String getStatusString(int mCode) {
-		return MRs[mCode].getStatusString();//return the status string using the getStatusString method in the management record class
+		return read(mCode, ManagementRecord::getStatusString);//return the status string using the getStatusString method in the management record class
 	}
 
 	/**
@@ -78,13 +245,85 @@ public class AircraftManagementDatabase extends Observable {
 	 * operation is appropriate when the status change does not need any additional
 	 * information to be noted. It is present instead of a large collection of
 	 * public operations for requesting specific status changes.
+	 * 
+	 * A record can only become FREE through radarLostContact and can only leave
+	 * FREE through radarDetect, so requests into or out of FREE are ignored here -
+	 * otherwise the free-list would no longer match the array. Any other change
+	 * the MRState diagram does not allow (see ManagementRecord.Status) is ignored
+	 * and counted.
 	 * @param mCode The position of the management record whos status is to be modified
 	 * @param newStatus The status that the variable will be updated to hold
 	 */
 	public void setStatus(int mCode, int newStatus) {
-		MRs[mCode].setStatus(newStatus);//Call the setStatus() method in the management record, passing in the newStatus
-		setChanged();
-        notifyObservers();// Note: notifies ALL Observing views
+		if (newStatus == ManagementRecord.FREE) {//If the record would be moved into FREE THEN
+			return;//Ignore the request - release goes through radarLostContact
+		}
+		ManagementRecord record = MRs[mCode];
+		int current;//The status the record has now
+		do {
+			current = record.getStatus();
+			if (current == ManagementRecord.FREE) {//If the record would be moved out of FREE THEN
+				return;//Ignore the request - allocation goes through radarDetect
+			}
+			if (!ManagementRecord.Status.isLegal(current, newStatus)) {//If the MRState diagram does not allow it THEN
+				illegalTransitions.incrementAndGet();
+				return;//Ignore the request
+			}
+		} while (!record.compareAndSetStatus(current, newStatus));//Try again if another thread changed the status in between
+		recordChanged(mCode);// Note: notifies ALL Observing views
+	}
+
+	/**
+	 * Atomically moves the MR given by mCode from the expected status to the next
+	 * status, and reports whether it did. Nothing changes if the MR does not have
+	 * the expected status at the moment of the change - so when two operators act
+	 * on the same aircraft at once, exactly one of them succeeds. Screens should
+	 * use this rather than calling getStatus and then setStatus.
+	 * 
+	 * The change is a compare-and-set on the record's status, so the record is
+	 * not locked. As with setStatus, FREE cannot be the expected or next status,
+	 * and a change the MRState diagram does not allow is refused and counted.
+	 * @param mCode The position of the management record whos status is to be modified
+	 * @param expected The status the management record must have now
+	 * @param next The status the management record will have afterwards
+	 * @return True if the status was changed, false if the record did not have the expected status
+	 */
+	public boolean transition(int mCode, int expected, int next) {
+		if (expected == ManagementRecord.FREE || next == ManagementRecord.FREE) {//If the record would be moved into or out of FREE THEN
+			return false;//Refuse - allocation and release go through radarDetect and radarLostContact
+		}
+		if (!ManagementRecord.Status.isLegal(expected, next)) {//If the MRState diagram does not allow it THEN
+			illegalTransitions.incrementAndGet();
+			return false;//Refuse
+		}
+		if (!MRs[mCode].compareAndSetStatus(expected, next)) {//If the status was not the expected one THEN
+			return false;//Nothing has changed
+		}
+		recordChanged(mCode);//Update the status index and notify all of the observers that something has changed
+		return true;
+	}
+
+	/**
+	 * Return the mCode of the aircraft with the given flight code. The flight code
+	 * is looked up in an index kept up to date by radarDetect and radarLostContact,
+	 * so no records have to be searched. If two aircraft with the same flight code
+	 * are being managed at once, the one detected most recently is returned.
+	 * @param flightCode The flight code of the aircraft, e.g. BA127
+	 * @return The mCode of the aircraft's management record, or -1 if no aircraft with that flight code is being managed
+	 */
+	public int getmCode(String flightCode) {
+		Integer mCode = flightCode == null ? null : flightCodes.get(flightCode);//Look the flight code up in the index
+		return mCode == null ? -1 : mCode;//Return -1 to represent no aircraft, the same as an unallocated gate
+	}
+
+	/**
+	 * Return whether an aircraft with the given flight code is currently being
+	 * managed.
+	 * @param flightCode The flight code of the aircraft, e.g. BA127
+	 * @return True if an aircraft with that flight code is being managed
+	 */
+	public boolean hasFlightCode(String flightCode) {
+		return flightCode != null && flightCodes.containsKey(flightCode);//Check the index for the flight code
 	}
 
 	/**
@@ -94,64 +333,382 @@ public class AircraftManagementDatabase extends Observable {
 	 * @return The flight code for the specified management record
 	 */
 	public String getFlightCode(int mCode) {
-		return MRs[mCode].getFlightCode();//Call the getFlightCode method in the management record class for the management record at the specified position in the array
+		return read(mCode, ManagementRecord::getFlightCode);//Call the getFlightCode method in the management record class for the management record at the specified position in the array
 	}
 
 	/**
 	 * Returns an array of mCodes: Just the mCodes of those MRs with the given
 	 * status supplied as a parameter. Principally for call by the various interface
 	 * screens.
+	 * 
+	 * The mCodes come from an index that is updated every time a record changes,
+	 * so the cost is in proportion to the number of matching records rather than
+	 * the size of the database. Each call returns a new array that belongs to the
+	 * caller, in no particular order.
 	 * @param statusCode The status code for the management records that will be returned
 	 * @return An array of all of the mCodes/ position in the MRs array with matching status code
 	 */
 	public int[] getWithStatus(int statusCode) {
-		//try {
-			int nextFreePosition = 0;//Declare an integer variable to hold the position of the next free index in the array
-			for (int i = 0; i < MRs.length; i++) {//For every management record in the array
-				if (MRs[i].getStatus() == statusCode) {//If the status of the management record is equal to the status code passed in THEN
-					code[nextFreePosition] = i;//Set the next position in the array to i to allow the management record to be identified
-					nextFreePosition++;//Increment the variable that holds the next free position in the array as something has been put in the array
+		synchronized (indexLock) {
+			return statusIndex.get(statusCode);//Return a copy of the mCodes indexed under the status code
+		}
+	}
+
+	/**
+	 * Returns an unchangeable view of every MR as it is now. The snapshot is
+	 * consistent - it reflects every change made up to its version and none made
+	 * after - and it never changes, so it can be read from any thread without
+	 * locking. Taking a snapshot is cheap: records that have not changed are
+	 * shared with earlier snapshots, and if nothing has changed since the last
+	 * snapshot the same one is returned again.
+	 * @return The snapshot
+	 */
+	public DatabaseSnapshot snapshot() {
+		synchronized (indexLock) {
+			if (lastSnapshot == null || lastSnapshot.getVersion() != version) {//If the database has changed since the last snapshot THEN
+				lastSnapshot = views.snapshot(version);//Take a new one
+			}
+			return lastSnapshot;
+		}
+	}
+
+	/**
+	 * Return the current version of the database. Every change to a management
+	 * record increases the version.
+	 * @return The version
+	 */
+	public long getVersion() {
+		synchronized (indexLock) {
+			return version;
+		}
+	}
+
+	/**
+	 * Return the number of status changes refused because the MRState diagram
+	 * does not allow them - whether requested through setStatus or transition, or
+	 * through taxiTo, faultsFound or radarLostContact on a record whose status
+	 * they cannot change.
+	 */
+	public long getIllegalTransitionCount() {
+		return illegalTransitions.get();
+	}
+
+	/**
+	 * Called by every operation that may have changed a management record. If
+	 * it has changed, increases the version, brings the status index and record
+	 * views up to date for the record and then notifies all of
+	 * the observers. Must be called after the record's lock has been released.
+	 * 
+	 * The record is read again while the index is locked, so if two threads change
+	 * the same record the index always ends up with whichever change came last.
+	 * @param mCode The position of the management record that has changed
+	 */
+	private void recordChanged(int mCode) {
+		ChangeEvent event;
+		synchronized (indexLock) {
+			long changeVersion = version + 1;
+			RecordView view = read(mCode, record -> new RecordView(mCode, changeVersion, record));//Copy the whole record
+			event = ChangeEvent.aircraft(views.get(mCode), view);//Compare it with the record as it was
+			if (event == null) {//If nothing has actually changed THEN
+				return;//There is nothing to update or notify
+			}
+			version = changeVersion;
+			statusIndex.update(mCode, view.getStatus());//Move the mCode to its current status in the index
+			views.set(mCode, view);//Later snapshots will see the new view
+		}
+		Batch batch = batches.get();
+		if (batch != null) {//If the change is part of a batch THEN
+			batch.changes++;
+			batch.changed.merge(mCode, event, ChangeEvent::merge);//Notify the observers when the batch finishes, combining changes to the same MR
+		} else {
+			publish(ChangeSet.of(event));//Notify all of the observers that something has changed
+		}
+	}
+
+	/**
+	 * Notifies all of the observers of the given changes, or publishes them on
+	 * the event ring if there is one. Never called while holding any of the
+	 * database's locks.
+	 * @param changes The changes to the management records
+	 */
+	private void publish(ChangeSet changes) {
+		EventRing current = ring;
+		if (current != null) {//If the changes go through the ring THEN
+			current.publish(changes);//The observers are notified by the ring's consumer
+		} else {
+			notifyChanges(changes);
+		}
+	}
+
+	/**
+	 * Notifies all of the observers and subscribers of the given changes.
+	 * @param changes The changes to the management records
+	 */
+	private void notifyChanges(ChangeSet changes) {
+		setChanged();
+		notifyObservers(changes);
+		dispatcher.dispatch(changes);//Then the subscribers, each with just the changes it is interested in
+	}
+
+	/**
+	 * Subscribes the given observer to changes to aircraft in any of the given
+	 * statuses: it is told whenever a record moves into or out of one of them, or
+	 * changes while it has one of them. Its update method is passed this database
+	 * and a ChangeSet holding just those changes, and is not called for changes
+	 * to aircraft in other statuses.
+	 * @param observer The observer to be told about the changes
+	 * @param statuses The ManagementRecord status codes it is interested in
+	 * @return The subscription, which can be cancelled
+	 */
+	public Subscription subscribe(Observer observer, int... statuses) {
+		return dispatcher.subscribe(deliverThrough(observer), statuses);
+	}
+
+	/**
+	 * Subscribes the given observer to the changes that match the given
+	 * predicate. Its update method is passed this database and a ChangeSet
+	 * holding just the matching changes. The predicate is tried against every
+	 * change, so a status subscription should be preferred where one will do.
+	 * @param observer The observer to be told about the changes
+	 * @param filter Picks the changes the observer is interested in
+	 * @return The subscription, which can be cancelled
+	 */
+	public Subscription subscribe(Observer observer, Predicate<ChangeEvent> filter) {
+		return dispatcher.subscribe(deliverThrough(observer), filter);
+	}
+
+	/**
+	 * Makes subscribers that subscribe from now on be told about changes through
+	 * the given queue, so that the thread making a change only has to queue it.
+	 * Bursts of changes are combined into one update per subscriber. Should be
+	 * called before the screens subscribe.
+	 * @param queue The queue, or null to tell subscribers straight away
+	 */
+	public void setNotificationQueue(NotificationQueue queue) {
+		this.queue = queue;
+	}
+
+	/**
+	 * Publishes every change from now on on the given ring, and adds a consumer
+	 * to it that notifies the observers and subscribers. The consumer combines
+	 * the changes it finds waiting into one ChangeSet, so a burst of changes
+	 * notifies the observers once.
+	 * @param ring The ring the changes are published on
+	 * @param waitStrategy How the consumer waits for changes
+	 * @return The consumer that notifies the observers
+	 */
+	public EventRing.Consumer setEventRing(EventRing ring, EventRing.WaitStrategy waitStrategy) {
+		EventRing.Consumer consumer = ring.addConsumer("AircraftManagementDatabase observers", new ChangeSetFeed(ChangeEvent.Source.AIRCRAFT, this::notifyChanges), waitStrategy);
+		this.ring = ring;//Only once the consumer is there to take the changes
+		return consumer;
+	}
+
+	/**
+	 * Returns the observer that should be registered for the given subscriber:
+	 * either the subscriber itself, or one that queues changes for it.
+	 */
+	private Observer deliverThrough(Observer observer) {
+		NotificationQueue current = queue;
+		return current == null ? observer : current.wrap(observer);
+	}
+
+	/**
+	 * Runs the given work against this database as a single unit, so that the
+	 * observers are notified once when it has finished rather than once for every
+	 * change it makes. For example, closing a flight at a gate:
+	 * 
+	 * <pre>
+	 * amd.batch(b -> {
+	 * 	if (b.transition(mCode, ManagementRecord.READY_PASSENGERS, ManagementRecord.READY_DEPART)) {
+	 * 		b.setPassengerList(mCode, passengers);
+	 * 	}
+	 * });
+	 * </pre>
+	 * 
+	 * Each change is still made, and can be seen by other threads, as soon as it
+	 * happens - only the notification is held back. Changes made by other threads
+	 * while the batch runs are notified as usual. A batch inside a batch joins the
+	 * outer one. If the work throws an exception the observers are still told
+	 * about the changes made before it.
+	 * @param work The changes to make - it is passed this database
+	 * @return True if any management record was changed by the work
+	 */
+	public boolean batch(Consumer<AircraftManagementDatabase> work) {
+		Batch batch = batches.get();
+		if (batch == null) {//If this is not already part of a batch THEN
+			batch = new Batch();//Start a new one
+			batches.set(batch);
+		}
+		batch.depth++;
+		int changesBefore = batch.changes;//So a nested batch can tell whether it changed anything
+		try {
+			work.accept(this);//Make the changes - notifications are held back
+		} finally {
+			if (--batch.depth == 0) {//If this is the outermost batch THEN
+				batches.remove();
+				if (!batch.changed.isEmpty()) {//If anything changed THEN
+					publish(new ChangeSet(new ArrayList<ChangeEvent>(batch.changed.values())));//Notify the observers once, for all of the changes
 				}
-			//}
-		} //catch (IndexOutOfBoundsException ex) {
-			//ex.printStackTrace();
-		//}
-		return code;//Return the array of codes
+			}
+		}
+		return batch.changes > changesBefore;
 	}
 
 	/**
 	 * The radar has detected a new aircraft, and has obtained flight descriptor fd
 	 * from it.
 	 *
-	 * This operation finds a currently FREE MR and forwards the radarDetect request
-	 * to it for recording.
+	 * This operation takes a FREE MR from the top of the free-list and forwards the
+	 * radarDetect request to it for recording. If there are no FREE MRs left the
+	 * array is grown first, so a detected aircraft is never dropped.
 	 * @param fd The flight descriptor object for the flight that is to be added
+	 * @return The mCode of the management record now holding the flight - this stays fixed until radarLostContact
 	 */
-	public void radarDetect(FlightDescriptor fd) {
+	public int radarDetect(FlightDescriptor fd) {
+		int mCode;
+		synchronized (allocationLock) {
+			if (freeCount == 0) {//If every management record is in use THEN
+				grow();//Make room for more aircraft
+			}
+			mCode = freeCodes[--freeCount];//Take the next free mCode off the top of the free-list - no other thread can now be given it
+		}
+		modify(mCode, record -> record.radarDetect(fd));//Call the radar detect method on that management record
+		if (fd.getFlightCode() != null) {//If the flight has a code THEN
+			flightCodes.put(fd.getFlightCode(), mCode);//Index the flight code so the aircraft can be found by getmCode
+		}
+		recordChanged(mCode);//Update the status index and notify all of the observers that something has changed
+		return mCode;//Return the mCode to the caller
+	}
 
-		for (int i = 0; i< maxMRs; i++) {//For every management record
-			if (MRs[i].getStatus() == 0) {//If the status of the management record is 0(free) THEN
-				MRs[i].radarDetect(fd);//Call the radar detect method on that management record
-				setChanged();
-				notifyObservers(); //Notify all of the observers that something has changed
-				return;//Return to the caller
-			}  
+	/**
+	 * Puts back a record as recorded in a snapshot or journal entry, growing the
+	 * database if the entry's mCode is past its end. The observers are notified
+	 * as for any other change. Entries for different records can be put back on
+	 * different threads at the same time; entries for the same record must be put
+	 * back in order of version.
+	 * 
+	 * The free-list and flight codes are not kept up to date, so no aircraft can
+	 * be detected until finishRestore has been called.
+	 * @param entry The entry for the record
+	 */
+	void restore(JournalEntry entry) {
+		int mCode = entry.getCode();
+		ensureCapacity(mCode + 1);
+		modify(mCode, record -> record.restore(entry));
+		recordChanged(mCode);
+	}
+
+	/**
+	 * Grows the database until it has at least the given number of mCodes.
+	 * @param size The number of mCodes needed
+	 */
+	void ensureCapacity(int size) {
+		synchronized (allocationLock) {
+			while (maxMRs < size) {
+				grow();
+			}
+		}
+	}
+
+	/**
+	 * Finishes putting back records with restore: rebuilds the free-list and the
+	 * flight code index from the records, and makes sure the version is at least
+	 * the version of the last entry put back, so that later changes are newer than
+	 * anything in the journal.
+	 * @param restoredVersion The highest version of any entry put back
+	 */
+	void finishRestore(long restoredVersion) {
+		synchronized (allocationLock) {
+			freeCount = 0;
+			flightCodes.clear();
+			for (int mCode = maxMRs - 1; mCode >= 0; mCode--) {//Highest first, so the lowest mCode is used first
+				if (getStatus(mCode) == ManagementRecord.FREE) {
+					freeCodes[freeCount++] = mCode;
+				} else if (getFlightCode(mCode) != null) {
+					flightCodes.put(getFlightCode(mCode), mCode);
+				}
+			}
+		}
+		synchronized (indexLock) {
+			version = Math.max(version, restoredVersion);
+		}
+	}
+
+	/**
+	 * Doubles the size of the MRs array, filling the new positions with FREE
+	 * management records and adding their mCodes to the free-list. Existing
+	 * records keep their position, so their mCodes do not change.
+	 * 
+	 * Called while holding the allocation lock. The larger arrays are filled in
+	 * before they replace the old ones, so other threads only ever see complete arrays.
+	 */
+	private void grow() {
+		int oldSize = maxMRs;//Remember where the new positions will start
+		int newSize = Math.max(1, oldSize * 2);//Double the size of the array
+		ManagementRecord[] newMRs = Arrays.copyOf(MRs, newSize);//Copy the existing records into a larger array
+		StampedLock[] newLocks = Arrays.copyOf(locks, newSize);//Copy the existing locks into a larger array
+		for (int i = oldSize; i < newSize; i++) {//For every new position in the array
+			newMRs[i] = new ManagementRecord();//Create a new management record - status is FREE by default
+			newLocks[i] = new StampedLock();//Create the lock for the management record
+		}
+		freeCodes = Arrays.copyOf(freeCodes, newSize);//Make sure the free-list can hold every mCode
+		synchronized (indexLock) {
+			statusIndex.grow(newSize);//Make sure the status index can hold every mCode
+			for (int i = oldSize; i < newSize; i++) {//For every new management record
+				statusIndex.update(i, ManagementRecord.FREE);//Index it as free
+			}
+			views.grow(newSize);//Make sure the record views can hold every mCode
+			version++;//Growing changes the size of later snapshots
+		}
+		locks = newLocks;//Publish the new arrays - locks first so a record never appears without its lock
+		MRs = newMRs;
+		maxMRs = newSize;//Record the new size of the array
+		pushFreeCodes(oldSize, newSize);//All of the new management records are free
+	}
+
+	/**
+	 * Pushes the mCodes from first (inclusive) to last (exclusive) onto the
+	 * free-list. They are pushed in reverse so that the lowest mCode is used first.
+	 * @param first The first mCode to be added
+	 * @param last One past the last mCode to be added
+	 */
+	private void pushFreeCodes(int first, int last) {
+		for (int i = last - 1; i >= first; i--) {//For every mCode, highest first
+			freeCodes[freeCount++] = i;//Put it on top of the free-list
 		}
-		setChanged();
-		notifyObservers(); //Notify all of the observers that something has changed
-		
 	}
 
 	/**
 	 * The aircraft in the MR given by mCode supplied as a parameter has departed
 	 * from the local airspace. The message is forwarded to the MR, which can then
-	 * delete/archive its contents and become FREE.
+	 * delete/archive its contents and become FREE. A record that has become FREE
+	 * goes back on top of the free-list ready to be reused - but only once its
+	 * flight code is no longer indexed and the change has been recorded, so an
+	 * aircraft detected on another thread can never be given the mCode first.
 	 * @param mCode The position of the management record that is to be cleared from the system
 	 */
 	public void radarLostContact(int mCode) {
-		MRs[mCode].radarLostContact();//Call the radarLostContact() method in the management record class against the management record at the specified position in the array
-		setChanged();
-		notifyObservers();//Notify all of the observers that something has changed
+		boolean freed;//Whether the record became free
+		String flightCode;//The flight code the record had before it was cleared
+		StampedLock lock = lockFor(mCode);
+		long stamp = lock.writeLock();//Lock the management record while it is cleared
+		try {
+			flightCode = MRs[mCode].getFlightCode();//Remember the flight code before the record is cleared
+			freed = MRs[mCode].radarLostContact();//Call the radarLostContact() method in the management record class against the management record at the specified position in the array
+		} finally {
+			lock.unlockWrite(stamp);
+		}
+		if (!freed) {//If the record's status cannot become FREE THEN
+			illegalTransitions.incrementAndGet();
+			return;//Nothing has changed
+		}
+		if (flightCode != null) {
+			flightCodes.remove(flightCode, mCode);//Stop indexing the flight code - unless it now belongs to a different aircraft
+		}
+		recordChanged(mCode);//Update the status index and notify all of the observers that something has changed
+		synchronized (allocationLock) {
+			freeCodes[freeCount++] = mCode;//Return its mCode to the free-list, last
+		}
 	}
 
 	/**
@@ -160,12 +717,15 @@ public class AircraftManagementDatabase extends Observable {
 	 * the given MR for status update.
 	 * @param mCode The position of the management record for the aircraft who is being set to taxiing
 	 * @param gateNumber
+	 * @return True if the aircraft was LANDED and is now TAXIING to the gate, false if it was not LANDED at the moment of the change
 	 */
-	public void taxiTo(int mCode, int gateNumber) {
-		MRs[mCode].taxiTo(gateNumber);//Call the taxiTo method method in the management record class against the management record at the specified position in the array
-		setChanged();
-		notifyObservers();//Notify all of the observers that something has changed
-
+	public boolean taxiTo(int mCode, int gateNumber) {
+		if (!modifyIf(mCode, record -> record.taxiTo(gateNumber))) {//Call the taxiTo method method in the management record class against the management record at the specified position in the array
+			illegalTransitions.incrementAndGet();//Only a LANDED aircraft can taxi to a gate
+			return false;//Nothing has changed
+		}
+		recordChanged(mCode);//Update the status index and notify all of the observers that something has changed
+		return true;
 	}
 	
 	/**
@@ -174,7 +734,7 @@ public class AircraftManagementDatabase extends Observable {
 	 * @return The gate number requested
 	 */
 	public int getGateNumber(int mCode) {
-		return MRs[mCode].getGateNumber();//Return the result from call to the getGateNumber in the management record class
+		return readInt(mCode, ManagementRecord::getGateNumber);//Return the result from call to the getGateNumber in the management record class
 	}
 	
 	/**
@@ -185,9 +745,11 @@ public class AircraftManagementDatabase extends Observable {
 	 * @param description The string textual description of the fault that the aircraft has
 	 */
 	public void faultsFound(int mCode, String description) {
-		MRs[mCode].faultsFound(description);//Call the faults found method in the management record class, for the specified management record
-		setChanged();
-		notifyObservers();//Notify all of the observers that something has changed
+		if (!modifyIf(mCode, record -> record.faultsFound(description))) {//Call the faults found method in the management record class, for the specified management record
+			illegalTransitions.incrementAndGet();
+			return;//Nothing has changed
+		}
+		recordChanged(mCode);//Update the status index and notify all of the observers that something has changed
 	}
 
 	/**
@@ -197,9 +759,8 @@ public class AircraftManagementDatabase extends Observable {
 	 * @param details The name of the passenger who is going to be added to the list
 	 */
 	public void addPassenger(int mCode, PassengerDetails details) {
-		MRs[mCode].addPassenger(details);//Call the add passenger method in the management record class, for the specified management record 
-		setChanged();
-		notifyObservers();//Notify all of the observers that something has changed
+		modify(mCode, record -> record.addPassenger(details));//Call the add passenger method in the management record class, for the specified management record 
+		recordChanged(mCode);//Update the status index and notify all of the observers that something has changed
 	}
 	
 	/**
@@ -210,9 +771,8 @@ public class AircraftManagementDatabase extends Observable {
 	 * @param next The new next field for the itinerary
 	 */
 	public void setItinerary(int mCode, String from, String to, String next) {
-		MRs[mCode].setItinerary(from, to, next);//Call the set itinerary method in the management record class, for the specified management record
-		setChanged();
-		notifyObservers();//Notify all of the observers that something has changed
+		modify(mCode, record -> record.setItinerary(from, to, next));//Call the set itinerary method in the management record class, for the specified management record
+		recordChanged(mCode);//Update the status index and notify all of the observers that something has changed
 	}
 	
 	/**
@@ -221,9 +781,8 @@ public class AircraftManagementDatabase extends Observable {
 	 * @param itin The new itinerary that the management record will take on
 	 */
 	public void setPassengerList(int mCode, PassengerList list) {
-		MRs[mCode].setPassengerList(list);//Call the set passenger list method in the management record class, for the specified management record
-		setChanged();
-		notifyObservers();//Notify all of the observers that something has changed
+		modify(mCode, record -> record.setPassengerList(list));//Call the set passenger list method in the management record class, for the specified management record
+		recordChanged(mCode);//Update the status index and notify all of the observers that something has changed
 	}
 
 	/**
@@ -232,7 +791,7 @@ public class AircraftManagementDatabase extends Observable {
 	 * @return The passenger list object for the given management record
 	 */
 	public PassengerList getPassengerList(int mCode) {
-		return MRs[mCode].getPassengerList(); //Call the get passenger list method in the management record class, for the specified management record
+		return read(mCode, ManagementRecord::getPassengerList); //Call the get passenger list method in the management record class, for the specified management record
 	}
 
 	/**
@@ -241,12 +800,14 @@ public class AircraftManagementDatabase extends Observable {
 	 * @return The itinerary for the given management record mCode
 	 */
 	public Itinerary getItinerary(int mCode) {
-		return MRs[mCode].getItinerary();//Call the get itinerary method in the management record class, for the specified management record
+		return read(mCode, ManagementRecord::getItinerary);//Call the get itinerary method in the management record class, for the specified management record
 
 	}
 
 	/**
-	 * 
+	 * Return the management record itself. The record is not locked, so a thread
+	 * reading it while another thread changes it may see a mix of old and new
+	 * values - the get methods above are safe to use from any thread.
 	 * @param mCode The position of the management record that is to be returned
 	 * @return The management record requested 
 	 */
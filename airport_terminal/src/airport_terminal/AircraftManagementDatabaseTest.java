@@ -0,0 +1,541 @@
+package airport_terminal;
+
+//Allow assertions to be used
+import static org.junit.jupiter.api.Assertions.*;
+import static airport_terminal.TestFlights.*;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.swing.table.TableModel;
+
+//Imports for allowing test and the before each test method
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+
+
+class AircraftManagementDatabaseTest {
+	AircraftManagementDatabase amd;
+
+	/**
+	 * This method runs before each individual test is run
+	 */
+	@BeforeEach
+	void setup() {
+		//Set up a new database to be used so that information is not left over from previous tests
+		amd = new AircraftManagementDatabase();
+	}
+
+	/**
+	 * Tests that the database grows rather than dropping aircraft once every management record is in use
+	 */
+	@Test
+	void testRadarDetectGrowsDatabase() {
+		int initialSize = amd.maxMRs;//Remember the starting size of the database
+
+		//Detect more flights than the database can initially hold
+		for (int i = 0; i < initialSize * 3; i++) {
+			int mCode = amd.radarDetect(flight("BA" + i, "Stirling"));
+			assertEquals(i, mCode, "radarDetect() did not use the lowest free mCode");//Free records are used in order
+		}
+
+		assertTrue(amd.maxMRs >= initialSize * 3, "The database did not grow");
+
+		//Every flight should still be held, at the mCode it was given when it was detected
+		for (int i = 0; i < initialSize * 3; i++) {
+			assertEquals("BA" + i, amd.getFlightCode(i), "Flight at mCode " + i + " was lost");
+			assertEquals(ManagementRecord.WANTING_TO_LAND, amd.getStatus(i), "Status at mCode " + i + " was not as expected");
+		}
+	}
+
+	/**
+	 * Tests that an mCode released by radarLostContact is reused, and that other aircraft keep their mCodes
+	 */
+	@Test
+	void testRadarLostContactReusesMCode() {
+		int first = amd.radarDetect(flight("BA1", "Paris"));//IN_TRANSIT, so it can lose contact
+		int second = amd.radarDetect(flight("BA2", "Paris"));
+		int third = amd.radarDetect(flight("BA3", "Paris"));
+
+		amd.radarLostContact(second);//The second aircraft leaves local airspace
+		assertEquals(ManagementRecord.FREE, amd.getStatus(second), "Record was not freed");
+
+		int fourth = amd.radarDetect(flight("BA4", "Paris"));
+		assertEquals(second, fourth, "The freed mCode was not reused");
+
+		//The other aircraft should not have moved
+		assertEquals("BA1", amd.getFlightCode(first), "First flight moved");
+		assertEquals("BA3", amd.getFlightCode(third), "Third flight moved");
+	}
+
+	/**
+	 * Tests that losing contact with a record that is not in the air, or is already free, does not free it twice
+	 */
+	@Test
+	void testRadarLostContactPreconditions() {
+		int landing = amd.radarDetect(flight("BA1", "Stirling"));//WANTING_TO_LAND cannot lose contact
+
+		amd.radarLostContact(landing);
+		assertEquals(ManagementRecord.WANTING_TO_LAND, amd.getStatus(landing), "A landing aircraft was freed");
+
+		amd.radarLostContact(5);//Record 5 is already free
+		amd.radarLostContact(5);
+
+		//Only one FREE record should be handed out for mCode 5, so the next ten detections must all be different
+		Set<Integer> used = new HashSet<Integer>();
+		used.add(landing);
+		for (int i = 0; i < 10; i++) {
+			assertTrue(used.add(amd.radarDetect(flight("LH" + i, "Paris"))), "An mCode was handed out twice");
+		}
+	}
+
+	/**
+	 * Tests that setStatus cannot move a record into or out of FREE - that is only done by radarDetect and radarLostContact
+	 */
+	@Test
+	void testSetStatusDoesNotBypassFreeList() {
+		amd.setStatus(0, ManagementRecord.LANDED);//Record 0 is FREE
+		assertEquals(ManagementRecord.FREE, amd.getStatus(0), "A FREE record was taken out of FREE by setStatus");
+
+		int mCode = amd.radarDetect(flight("BA1", "Stirling"));
+		amd.setStatus(mCode, ManagementRecord.FREE);
+		assertEquals(ManagementRecord.WANTING_TO_LAND, amd.getStatus(mCode), "A record was freed by setStatus");
+	}
+
+	/**
+	 * Tests that getWithStatus follows records as their status changes
+	 */
+	@Test
+	void testGetWithStatusTracksTransitions() {
+		int first = amd.radarDetect(flight("BA1", "Stirling"));//WANTING_TO_LAND
+		int second = amd.radarDetect(flight("BA2", "Stirling"));//WANTING_TO_LAND
+		int third = amd.radarDetect(flight("BA3", "Paris"));//IN_TRANSIT
+
+		assertEquals(2, amd.getWithStatus(ManagementRecord.WANTING_TO_LAND).length, "Wrong number of aircraft wanting to land");
+		assertArrayEquals(new int[] { third }, amd.getWithStatus(ManagementRecord.IN_TRANSIT), "Wrong aircraft in transit");
+
+		amd.setStatus(first, ManagementRecord.GROUND_CLEARANCE_GRANTED);//Move the first aircraft on
+		assertArrayEquals(new int[] { second }, amd.getWithStatus(ManagementRecord.WANTING_TO_LAND), "First aircraft still wanting to land");
+		assertArrayEquals(new int[] { first }, amd.getWithStatus(ManagementRecord.GROUND_CLEARANCE_GRANTED), "First aircraft not granted clearance");
+
+		amd.radarLostContact(third);//The aircraft in transit leaves
+		assertEquals(0, amd.getWithStatus(ManagementRecord.IN_TRANSIT).length, "Departed aircraft still in transit");
+		assertEquals(amd.maxMRs - 2, amd.getWithStatus(ManagementRecord.FREE).length, "Wrong number of free records");
+	}
+
+	/**
+	 * Tests that each call to getWithStatus returns a new array, so callers cannot see each other's results
+	 */
+	@Test
+	void testGetWithStatusReturnsFreshArray() {
+		amd.radarDetect(flight("BA1", "Paris"));
+
+		int[] before = amd.getWithStatus(ManagementRecord.IN_TRANSIT);
+		before[0] = 99;//Scribble over the caller's copy
+		int[] after = amd.getWithStatus(ManagementRecord.IN_TRANSIT);
+
+		assertNotSame(before, after, "The same array was returned twice");
+		assertEquals(0, after[0], "A caller's copy changed the database");
+		assertEquals(0, amd.getWithStatus(99).length, "An unknown status code matched a record");
+	}
+
+	/**
+	 * Tests that aircraft can be found by flight code while they are being managed, and not after they leave
+	 */
+	@Test
+	void testGetmCodeByFlightCode() {
+		int first = amd.radarDetect(flight("BA1", "Paris"));
+		int second = amd.radarDetect(flight("LH2", "Stirling"));
+
+		assertEquals(first, amd.getmCode("BA1"), "BA1 was not found");
+		assertEquals(second, amd.getmCode("LH2"), "LH2 was not found");
+		assertTrue(amd.hasFlightCode("LH2"), "LH2 should be managed");
+		assertEquals(-1, amd.getmCode("XX9"), "An unknown flight was found");
+
+		amd.radarLostContact(first);//BA1 leaves local airspace
+		assertEquals(-1, amd.getmCode("BA1"), "BA1 was still found after leaving");
+		assertFalse(amd.hasFlightCode("BA1"), "BA1 should no longer be managed");
+
+		int third = amd.radarDetect(flight("BA1", "Paris"));//A new BA1 arrives later and reuses the free mCode
+		assertEquals(third, amd.getmCode("BA1"), "The new BA1 was not found");
+	}
+
+	/**
+	 * Tests that aircraft detected and moved on by several threads at once all get their own mCode and end up correctly indexed
+	 */
+	@Test
+	void testConcurrentUpdates() throws InterruptedException {
+		int threadCount = 8;//The number of threads changing the database at once
+		int flightsPerThread = 250;//The number of flights each thread detects
+		Thread[] threads = new Thread[threadCount];
+
+		for (int t = 0; t < threadCount; t++) {
+			int thread = t;
+			threads[t] = new Thread(() -> {
+				for (int i = 0; i < flightsPerThread; i++) {
+					int mCode = amd.radarDetect(flight("T" + thread + "F" + i, "Stirling"));//WANTING_TO_LAND
+					amd.setStatus(mCode, ManagementRecord.GROUND_CLEARANCE_GRANTED);//Move it on straight away
+				}
+			});
+			threads[t].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();//Wait for every thread to finish
+		}
+
+		int total = threadCount * flightsPerThread;
+		Set<Integer> mCodes = new HashSet<Integer>();
+		for (int t = 0; t < threadCount; t++) {
+			for (int i = 0; i < flightsPerThread; i++) {
+				int mCode = amd.getmCode("T" + t + "F" + i);
+				assertTrue(mCodes.add(mCode), "Two flights were given the same mCode");
+				assertEquals(ManagementRecord.GROUND_CLEARANCE_GRANTED, amd.getStatus(mCode), "A status change was lost");
+			}
+		}
+		assertEquals(total, amd.getWithStatus(ManagementRecord.GROUND_CLEARANCE_GRANTED).length, "The status index is out of step");
+		assertEquals(0, amd.getWithStatus(ManagementRecord.WANTING_TO_LAND).length, "The status index is out of step");
+	}
+
+	/**
+	 * Tests that transition only changes the status when it is still the expected one, and never moves a record into or out of FREE
+	 */
+	@Test
+	void testTransition() {
+		int mCode = amd.radarDetect(flight("BA1", "Stirling"));//WANTING_TO_LAND
+
+		assertTrue(amd.transition(mCode, ManagementRecord.WANTING_TO_LAND, ManagementRecord.GROUND_CLEARANCE_GRANTED), "A valid transition was refused");
+		assertEquals(ManagementRecord.GROUND_CLEARANCE_GRANTED, amd.getStatus(mCode), "Status was not changed");
+		assertArrayEquals(new int[] { mCode }, amd.getWithStatus(ManagementRecord.GROUND_CLEARANCE_GRANTED), "The status index was not updated");
+
+		assertFalse(amd.transition(mCode, ManagementRecord.WANTING_TO_LAND, ManagementRecord.LANDING), "A transition from a stale status was allowed");
+		assertEquals(ManagementRecord.GROUND_CLEARANCE_GRANTED, amd.getStatus(mCode), "A refused transition changed the status");
+
+		assertFalse(amd.transition(mCode, ManagementRecord.GROUND_CLEARANCE_GRANTED, ManagementRecord.FREE), "A record was freed by transition");
+		assertFalse(amd.transition(5, ManagementRecord.FREE, ManagementRecord.LANDED), "A FREE record was taken by transition");
+		assertEquals(ManagementRecord.FREE, amd.getStatus(5), "A FREE record was changed");
+	}
+
+	/**
+	 * Tests that when several operators try to make the same transition at once, exactly one of them succeeds
+	 */
+	@Test
+	void testConcurrentTransitionHasOneWinner() throws InterruptedException {
+		int threadCount = 8;//The number of operators pressing the button at once
+		for (int round = 0; round < 200; round++) {
+			int mCode = amd.radarDetect(flight("R" + round, "Stirling"));//WANTING_TO_LAND
+			AtomicInteger winners = new AtomicInteger();
+			CountDownLatch start = new CountDownLatch(1);
+			Thread[] threads = new Thread[threadCount];
+			for (int t = 0; t < threadCount; t++) {
+				threads[t] = new Thread(() -> {
+					try {
+						start.await();//Wait so that every thread tries at the same moment
+					} catch (InterruptedException e) {
+						return;
+					}
+					if (amd.transition(mCode, ManagementRecord.WANTING_TO_LAND, ManagementRecord.GROUND_CLEARANCE_GRANTED)) {
+						winners.incrementAndGet();
+					}
+				});
+				threads[t].start();
+			}
+			start.countDown();
+			for (Thread thread : threads) {
+				thread.join();//Wait for every thread to finish
+			}
+			assertEquals(1, winners.get(), "The same transition was made more than once");
+		}
+	}
+
+	/**
+	 * Tests that a batch of changes notifies the observers once, naming every record that changed
+	 */
+	@Test
+	@SuppressWarnings("deprecation")
+	void testBatchNotifiesOnce() {
+		int first = amd.radarDetect(flight("BA1", "Stirling"));//WANTING_TO_LAND
+		int second = amd.radarDetect(flight("BA2", "Stirling"));
+		List<ChangeSet> notifications = new ArrayList<ChangeSet>();
+		amd.addObserver((o, arg) -> notifications.add((ChangeSet) arg));//Record every notification
+
+		boolean changed = amd.batch(b -> {
+			b.setStatus(second, ManagementRecord.GROUND_CLEARANCE_GRANTED);
+			b.transition(first, ManagementRecord.WANTING_TO_LAND, ManagementRecord.GROUND_CLEARANCE_GRANTED);
+			b.batch(inner -> inner.setStatus(first, ManagementRecord.LANDING));//A nested batch joins the outer one
+			assertTrue(notifications.isEmpty(), "Observers were notified before the batch finished");
+		});
+
+		assertTrue(changed, "The batch did not report its changes");
+		assertEquals(1, notifications.size(), "Observers were not notified exactly once");
+		assertArrayEquals(new int[] { first, second }, notifications.get(0).getmCodes(), "The notification did not name the changed records");
+		assertEquals(ManagementRecord.LANDING, amd.getStatus(first), "A change in the batch was lost");
+
+		notifications.clear();
+		assertFalse(amd.batch(b -> b.transition(first, ManagementRecord.WANTING_TO_LAND, ManagementRecord.LANDING)), "A batch that changed nothing reported a change");
+		assertTrue(notifications.isEmpty(), "Observers were notified of a batch that changed nothing");
+
+		amd.setStatus(second, ManagementRecord.LANDING);//Outside a batch, each change is notified straight away
+		assertArrayEquals(new int[] { second }, notifications.get(0).getmCodes(), "A single change was not notified");
+	}
+
+	/**
+	 * Tests that the changes made by a batch are still notified if the batch fails part way through
+	 */
+	@Test
+	@SuppressWarnings("deprecation")
+	void testBatchNotifiesAfterException() {
+		int mCode = amd.radarDetect(flight("BA1", "Stirling"));
+		List<ChangeSet> notifications = new ArrayList<ChangeSet>();
+		amd.addObserver((o, arg) -> notifications.add((ChangeSet) arg));
+
+		assertThrows(IllegalStateException.class, () -> amd.batch(b -> {
+			b.setStatus(mCode, ManagementRecord.GROUND_CLEARANCE_GRANTED);
+			throw new IllegalStateException("Operator cancelled");
+		}));
+		assertEquals(1, notifications.size(), "The change made before the failure was not notified");
+
+		amd.setStatus(mCode, ManagementRecord.LANDING);//The failed batch must not be left open
+		assertEquals(2, notifications.size(), "Changes after a failed batch were held back");
+	}
+
+	/**
+	 * Tests that a snapshot keeps showing the database as it was when it was taken, while later snapshots see the changes
+	 */
+	@Test
+	void testSnapshotDoesNotChange() {
+		int mCode = amd.radarDetect(flight("BA1", "Stirling"));//WANTING_TO_LAND
+		DatabaseSnapshot before = amd.snapshot();
+
+		amd.setStatus(mCode, ManagementRecord.GROUND_CLEARANCE_GRANTED);
+		amd.setItinerary(mCode, "Glasgow", "Stirling", "Paris");
+		DatabaseSnapshot after = amd.snapshot();
+
+		assertTrue(after.getVersion() > before.getVersion(), "The version did not increase");
+		assertEquals(ManagementRecord.WANTING_TO_LAND, before.getStatus(mCode), "An earlier snapshot saw a later change");
+		assertEquals("London", before.getRecord(mCode).getItinerary().getNext(), "An earlier snapshot saw a later itinerary");
+		assertEquals(ManagementRecord.GROUND_CLEARANCE_GRANTED, after.getStatus(mCode), "A later snapshot missed a change");
+		assertEquals("Paris", after.getRecord(mCode).getItinerary().getNext(), "A later snapshot missed the new itinerary");
+		assertEquals("BA1", after.getRecord(mCode).getFlightCode(), "The flight code was not copied");
+		assertEquals(1, after.getRecord(mCode).getPassengerCount(), "The passenger list was not copied");
+
+		assertSame(after, amd.snapshot(), "A new snapshot was taken when nothing had changed");
+		assertSame(before.getRecord(5), after.getRecord(5), "An unchanged record was not shared between snapshots");
+		assertArrayEquals(new int[] { mCode }, after.getWithStatus(ManagementRecord.GROUND_CLEARANCE_GRANTED), "getWithStatus did not match the snapshot");
+	}
+
+	/**
+	 * Tests that snapshots stay correct across many chunks of records and while the database grows
+	 */
+	@Test
+	void testSnapshotAcrossGrowth() {
+		DatabaseSnapshot empty = amd.snapshot();
+		List<DatabaseSnapshot> snapshots = new ArrayList<DatabaseSnapshot>();
+		for (int i = 0; i < 300; i++) {//Enough records to fill several chunks and grow the database several times
+			amd.radarDetect(flight("BA" + i, "Stirling"));
+			snapshots.add(amd.snapshot());
+		}
+
+		assertEquals(10, empty.size(), "The first snapshot changed size");
+		assertEquals(ManagementRecord.FREE, empty.getStatus(0), "The first snapshot saw a later detection");
+		for (int i = 0; i < snapshots.size(); i++) {//Each snapshot must hold exactly the flights detected before it
+			DatabaseSnapshot snapshot = snapshots.get(i);
+			assertEquals(i + 1, snapshot.getWithStatus(ManagementRecord.WANTING_TO_LAND).length, "Snapshot " + i + " holds the wrong flights");
+			assertEquals("BA" + i, snapshot.getRecord(i).getFlightCode(), "Snapshot " + i + " is missing its latest flight");
+		}
+		assertThrows(IndexOutOfBoundsException.class, () -> empty.getRecord(10), "A record beyond the snapshot was returned");
+	}
+
+	/**
+	 * Tests that observers are told which record changed, its old and new status and which fields changed
+	 */
+	@Test
+	@SuppressWarnings("deprecation")
+	void testChangeEvents() {
+		int mCode = amd.radarDetect(flight("BA1", "Stirling"));//WANTING_TO_LAND
+		moveTo(amd, mCode, ManagementRecord.LANDED);
+		List<ChangeSet> notifications = new ArrayList<ChangeSet>();
+		amd.addObserver((o, arg) -> notifications.add((ChangeSet) arg));
+
+		amd.taxiTo(mCode, 1);
+		ChangeEvent event = notifications.get(0).getEvents().get(0);
+		assertEquals(ChangeEvent.Source.AIRCRAFT, event.getSource(), "The event came from the wrong database");
+		assertEquals(mCode, event.getmCode(), "The event named the wrong record");
+		assertEquals(ManagementRecord.LANDED, event.getOldStatus(), "Wrong old status");
+		assertEquals(ManagementRecord.TAXIING, event.getNewStatus(), "Wrong new status");
+		assertEquals(EnumSet.of(ChangeEvent.Field.STATUS, ChangeEvent.Field.GATE), event.getFields(), "Wrong fields changed");
+		assertEquals(1, event.getRecord().getGateNumber(), "The event did not carry the record after the change");
+		assertEquals(amd.getVersion(), event.getVersion(), "The event did not carry the new version");
+
+		amd.setItinerary(mCode, "Glasgow", "Stirling", "Paris");
+		assertEquals(EnumSet.of(ChangeEvent.Field.ITINERARY), notifications.get(1).getEvents().get(0).getFields(), "An itinerary change was not described");
+
+		long version = amd.getVersion();
+		amd.taxiTo(mCode, 2);//The aircraft is no longer LANDED, so nothing happens
+		amd.setStatus(mCode, ManagementRecord.TAXIING);//Already TAXIING
+		assertEquals(2, notifications.size(), "Observers were notified of operations that changed nothing");
+		assertEquals(version, amd.getVersion(), "The version changed when nothing did");
+	}
+
+	/**
+	 * Tests that several changes to the same record in a batch are combined into one event
+	 */
+	@Test
+	@SuppressWarnings("deprecation")
+	void testBatchCombinesEvents() {
+		int mCode = amd.radarDetect(flight("BA1", "Stirling"));//WANTING_TO_LAND
+		List<ChangeSet> notifications = new ArrayList<ChangeSet>();
+		amd.addObserver((o, arg) -> notifications.add((ChangeSet) arg));
+
+		amd.batch(b -> {
+			moveTo(b, mCode, ManagementRecord.LANDED);
+			b.taxiTo(mCode, 2);
+		});
+
+		assertEquals(1, notifications.get(0).size(), "The changes to one record were not combined");
+		ChangeEvent event = notifications.get(0).getEvents().get(0);
+		assertEquals(ManagementRecord.WANTING_TO_LAND, event.getOldStatus(), "The combined event lost the first old status");
+		assertEquals(ManagementRecord.TAXIING, event.getNewStatus(), "The combined event lost the last new status");
+		assertTrue(event.changed(ChangeEvent.Field.GATE), "The combined event lost a field");
+	}
+
+	/**
+	 * Tests that a status subscriber is only told about records moving into, out of or within its statuses
+	 */
+	@Test
+	@SuppressWarnings("deprecation")
+	void testStatusSubscription() {
+		int refuel = amd.radarDetect(flight("BA1", "Stirling"));
+		int boarding = amd.radarDetect(flight("BA2", "Stirling"));
+		int cleaned = amd.radarDetect(flight("BA3", "Stirling"));
+		moveTo(amd, cleaned, ManagementRecord.OK_AWAIT_CLEAN);
+		moveTo(amd, refuel, ManagementRecord.READY_REFUEL);
+		moveTo(amd, boarding, ManagementRecord.READY_PASSENGERS);
+		List<ChangeSet> notifications = new ArrayList<ChangeSet>();
+		Subscription subscription = amd.subscribe((o, arg) -> notifications.add((ChangeSet) arg), ManagementRecord.READY_REFUEL, ManagementRecord.READY_REFUEL);
+
+		amd.addPassenger(boarding, new PassengerDetails("Someone"));//Nothing to do with refuelling
+		amd.setStatus(boarding, ManagementRecord.READY_DEPART);
+		assertTrue(notifications.isEmpty(), "A refuelling subscriber was told about a boarding aircraft");
+
+		amd.batch(b -> {
+			b.setStatus(refuel, ManagementRecord.READY_PASSENGERS);//Leaves READY_REFUEL
+			b.setStatus(boarding, ManagementRecord.AWAITING_TAXI);
+		});
+		assertEquals(1, notifications.size(), "The subscriber was not told once");
+		assertArrayEquals(new int[] { refuel }, notifications.get(0).getmCodes(), "The subscriber was told about the wrong aircraft");
+
+		subscription.cancel();
+		amd.transition(cleaned, ManagementRecord.OK_AWAIT_CLEAN, ManagementRecord.READY_REFUEL);
+		assertEquals(1, notifications.size(), "A cancelled subscriber was still told about changes");
+		assertThrows(IllegalArgumentException.class, () -> amd.subscribe((o, arg) -> { }, 99), "An unknown status was accepted");
+	}
+
+	/**
+	 * Tests that a predicate subscriber is only told about the changes that match
+	 */
+	@Test
+	@SuppressWarnings("deprecation")
+	void testPredicateSubscription() {
+		int mCode = amd.radarDetect(flight("BA1", "Stirling"));
+		List<ChangeSet> notifications = new ArrayList<ChangeSet>();
+		amd.subscribe((o, arg) -> notifications.add((ChangeSet) arg), event -> event.changed(ChangeEvent.Field.ITINERARY));
+
+		amd.setStatus(mCode, ManagementRecord.GROUND_CLEARANCE_GRANTED);
+		assertTrue(notifications.isEmpty(), "The subscriber was told about a status change");
+
+		amd.setItinerary(mCode, "Glasgow", "Stirling", "Paris");
+		assertEquals(1, notifications.size(), "The subscriber was not told about an itinerary change");
+	}
+
+	@Test
+	void testStatusTransitionsFollowTheDiagram() {
+		assertEquals(StatusIndex.STATUS_COUNT, ManagementRecord.Status.values().length, "The wrong number of statuses");
+		for (ManagementRecord.Status status : ManagementRecord.Status.values()) {
+			assertSame(status, ManagementRecord.Status.of(status.getCode()), "A status is not found by its code");
+			assertSame(ManagementRecord.getStatusString(status.getCode()), ManagementRecord.getStatusString(status.getCode()), "A status name was built again");
+		}
+		assertEquals("OK_AWAIT_CLEAN", ManagementRecord.getStatusString(ManagementRecord.OK_AWAIT_CLEAN), "A status has the wrong name");
+		assertEquals("UNKNOWN", ManagementRecord.getStatusString(99), "An unknown status has a name");
+		assertTrue(ManagementRecord.Status.isLegal(ManagementRecord.CLEAN_AWAIT_MAINT, ManagementRecord.AWAIT_REPAIR), "A legal transition was refused");
+		assertFalse(ManagementRecord.Status.isLegal(ManagementRecord.LANDED, ManagementRecord.LANDING), "A transition backwards was allowed");
+		assertFalse(ManagementRecord.Status.isLegal(-1, ManagementRecord.LANDING), "A transition from an unknown status was allowed");
+
+		int mCode = amd.radarDetect(flight("BA1", "Stirling"));
+		amd.setStatus(mCode, ManagementRecord.LANDED);//Skips ground clearance and landing
+		assertEquals(ManagementRecord.WANTING_TO_LAND, amd.getStatus(mCode), "An illegal setStatus was made");
+		assertFalse(amd.transition(mCode, ManagementRecord.WANTING_TO_LAND, ManagementRecord.TAXIING), "An illegal transition was made");
+		assertEquals(2, amd.getIllegalTransitionCount(), "The illegal transitions were not counted");
+		assertTrue(amd.transition(mCode, ManagementRecord.WANTING_TO_LAND, ManagementRecord.GROUND_CLEARANCE_GRANTED), "A legal transition was refused");
+		assertFalse(amd.transition(mCode, ManagementRecord.WANTING_TO_LAND, ManagementRecord.GROUND_CLEARANCE_GRANTED), "A transition from the wrong status was made");
+		assertEquals(2, amd.getIllegalTransitionCount(), "A transition from the wrong status was counted as illegal");
+
+		assertFalse(amd.taxiTo(mCode, 1), "An aircraft that has not landed was sent to a gate");
+		amd.faultsFound(mCode, "Flat tyre");
+		amd.radarLostContact(mCode);
+		assertEquals(ManagementRecord.GROUND_CLEARANCE_GRANTED, amd.getStatus(mCode), "A refused change was made");
+		assertEquals(5, amd.getIllegalTransitionCount(), "Changes refused by taxiTo, faultsFound or radarLostContact were not counted");
+	}
+
+	/**
+	 * Tests that an aircraft that has never been given a gate has no gate, in the Gate column, on the board and when sorting by gate
+	 */
+	@Test
+	void testNoGateUntilOneIsAllocated() {
+		int gated = amd.radarDetect(flight("BA1", "Stirling"));
+		int waiting = amd.radarDetect(flight("BA2", "Stirling"));
+		moveTo(amd, gated, ManagementRecord.LANDED);
+		amd.taxiTo(gated, 0);
+		assertEquals(-1, amd.getGateNumber(waiting), "An aircraft that has not been given a gate has one");
+
+		FlightListModel list = new FlightListModel(status -> status != ManagementRecord.FREE);
+		list.refresh(amd.snapshot());
+		list.sortBy(FlightListModel.SortKey.GATE);
+		assertEquals(waiting, list.getmCode(0), "An aircraft with no gate is sorted as if it had gate 1");
+		TableModel table = list.asTableModel();
+		assertEquals("", table.getValueAt(0, 2), "An aircraft with no gate shows one");
+		assertEquals("1", table.getValueAt(1, 2), "The allocated gate is not shown");
+
+		moveTo(amd, gated, ManagementRecord.DEPARTING_THROUGH_LOCAL_AIRSPACE);
+		amd.radarLostContact(gated);
+		int reused = amd.radarDetect(flight("BA3", "Stirling"));
+		assertEquals(gated, reused, "The record was not reused");
+		assertEquals(-1, amd.getGateNumber(reused), "A reused record kept the last aircraft's gate");
+		moveTo(amd, reused, ManagementRecord.READY_DEPART);
+		assertEquals("Flight Code: BA3     Flight Status: BOARDING COMPLETE", FlightBoard.text(amd.snapshot().getRecord(reused)), "A gate is shown for an aircraft that has none");
+	}
+
+	/**
+	 * Tests that a freed mCode is not reused until the aircraft that had it has been fully removed, and that a flight with no code can be detected
+	 */
+	@Test
+	@SuppressWarnings("deprecation")
+	void testFreedRecordReusedOnlyOnceRemoved() {
+		int leaving = amd.radarDetect(flight("BA1", "Paris"));//IN_TRANSIT
+		int[] arriving = { -1 };
+		List<Integer> freed = new ArrayList<Integer>();
+		amd.addObserver((o, arg) -> {
+			for (ChangeEvent event : ((ChangeSet) arg).getEvents()) {
+				if (event.getmCode() == leaving && event.getNewStatus() == ManagementRecord.FREE && arriving[0] < 0) {//While the FREE change is being told about
+					freed.add(event.getmCode());
+					arriving[0] = amd.radarDetect(flight("BA1", "Stirling"));//The same flight code comes back straight away
+				}
+			}
+		});
+		amd.radarLostContact(leaving);
+		assertEquals(1, freed.size(), "The record becoming FREE was not told about");
+		assertNotEquals(leaving, arriving[0], "The mCode was reused before the last aircraft was removed");
+		assertEquals(arriving[0], amd.getmCode("BA1"), "The new aircraft's flight code is not indexed");
+		assertEquals(ManagementRecord.FREE, amd.getStatus(leaving), "The freed record was reused");
+
+		int unnamed = amd.radarDetect(new FlightDescriptor(null, new Itinerary("Glasgow", "Paris", "London"), new PassengerList()));
+		assertEquals(ManagementRecord.IN_TRANSIT, amd.getStatus(unnamed), "A flight with no code was not detected");
+		assertEquals(-1, amd.getmCode(null), "A missing flight code found an aircraft");
+		amd.radarLostContact(unnamed);
+		assertEquals(ManagementRecord.FREE, amd.getStatus(unnamed), "A flight with no code was not released");
+	}
+}
@@ -0,0 +1,412 @@
+package airport_terminal;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.regex.Pattern;
+
+import javax.swing.SwingUtilities;
+
+/**
+ * The airport without its screens: the two databases, the notification queue,
+ * the event ring with its metrics and journal consumers, the snapshot writer,
+ * and the programmatic controllers (RadarFeed, GroundOperations and one
+ * GateOperations per gate) that do the jobs of the radar, GOC and gate
+ * screens.
+ *
+ * Main runs it headless with -headless, or attaches the Frames straight away.
+ * The Frames can also be attached to a running server later, with
+ * attachViews. A server can stream its changes to hot-standby followers with
+ * startReplication; a follower's server is kept up to date by a Replica and
+ * shows only the PublicInfo until it is promoted. Remote flight information
+ * displays are served by startDisplayServer. Every PublicInfo shows the same
+ * PublicBoard, so the board is worked out once however many are shown.
+ *
+ * @stereotype control
+ */
+public class AirportServer {
+
+	/** The number of archived runs kept beside the snapshots and journal - older ones are deleted. */
+	static final int ARCHIVES_KEPT = 3;
+
+	private final long started = System.nanoTime();
+	private final AircraftManagementDatabase amd = new AircraftManagementDatabase();
+	private final GateInfoDatabase gid = new GateInfoDatabase();
+	private final NotificationQueue queue;
+	private final EventRing ring;
+	private final ChangeMetrics metrics = new ChangeMetrics();
+	private Journal journal;//null if there is no journal
+	private EventRing.Consumer journalConsumer;//null if there is no journal
+	private SnapshotWriter snapshots;//null if there is no journal
+	private final Recovery recovery;//null if the databases were not recovered
+	private final RadarFeed radarFeed;
+	private final GroundOperations groundOperations;
+	private final GateOperations[] gateOperations;
+	private final long startupNanos;
+	private final CountDownLatch stopped = new CountDownLatch(1);
+	private ReplicationSource replication;//null until startReplication is called
+	private DisplayServer displays;//null until startDisplayServer is called
+	private PublicBoard publicBoard;//null until a PublicInfo is shown
+	private boolean publicInfoAttached;
+	private boolean viewsAttached;
+
+	/**
+	 * Starts the databases and controllers.
+	 * @param snapshotDirectory Where the snapshots are kept, or null to keep no snapshots or journal
+	 * @param journalDirectory Where the journal segments are kept, or null to keep no snapshots or journal
+	 * @param recover Whether to put the databases back as they were when the application last stopped - if not, the snapshots and journal of the last run are archived, so a later recovery never mixes the two runs, and only the last ARCHIVES_KEPT archives are kept
+	 */
+	public AirportServer(File snapshotDirectory, File journalDirectory, boolean recover) {
+		boolean persistent = snapshotDirectory != null && journalDirectory != null;
+
+		// Starting afresh, the versions start again from 0, so move the last run's
+		// snapshots and journal out of the way rather than add to them
+		if (persistent && !recover) {
+			try {
+				archive(snapshotDirectory);
+				archive(journalDirectory);
+			} catch (IOException e) {
+				System.err.println("Cannot archive the last run, changes will not be recorded: " + e.getMessage());
+				persistent = false;
+			}
+		}
+
+		// Put back the state from the last run, before anything is journalled
+		Recovery recovered = null;
+		if (persistent && recover) {
+			try {
+				recovered = Recovery.recover(snapshotDirectory, journalDirectory, amd, gid, Runtime.getRuntime().availableProcessors());
+			} catch (IOException e) {
+				System.err.println("Cannot recover fully: " + e.getMessage());
+			}
+		}
+		this.recovery = recovered;
+
+		// Deliver changes to the observers once per frame on the queue's own thread
+		queue = new NotificationQueue(16, Runnable::run);
+		amd.setNotificationQueue(queue);
+		gid.setNotificationQueue(queue);
+
+		// Carry every change on one ring, with separate consumers notifying the
+		// observers, counting the changes and journalling them
+		ring = new EventRing(1024);
+		amd.setEventRing(ring, EventRing.WaitStrategy.BLOCKING);
+		gid.setEventRing(ring, EventRing.WaitStrategy.BLOCKING);
+		ring.addConsumer("ChangeMetrics", metrics, EventRing.WaitStrategy.SLEEPING);
+
+		if (persistent) {
+			openJournal(snapshotDirectory, journalDirectory);
+		}
+
+		radarFeed = new RadarFeed(amd);
+		groundOperations = new GroundOperations(amd, gid);
+		gateOperations = new GateOperations[gid.maxGateNumber];
+		for (int i = 0; i < gateOperations.length; i++) {
+			gateOperations[i] = new GateOperations(amd, gid, i);
+		}
+		startupNanos = System.nanoTime() - started;
+	}
+
+	/**
+	 * Opens the journal as a consumer of the ring, and the snapshot writer.
+	 * Without a journal the snapshots are still written.
+	 */
+	private void openJournal(File snapshotDirectory, File journalDirectory) {
+		try {
+			journal = new Journal(journalDirectory, 1 << 20, false);
+			journal.setFailureHandler(e -> System.err.println("The journal has failed, changes are no longer recorded and a recovery will only get back to the last snapshot: " + e.getMessage()));
+			journalConsumer = ring.addConsumer("Journal", journal, EventRing.WaitStrategy.BLOCKING);
+		} catch (IOException e) {
+			System.err.println("Cannot open the journal, changes will not be recorded: " + e.getMessage());
+		}
+		snapshots = new SnapshotWriter(amd, gid, snapshotDirectory, journal, 2);
+	}
+
+	/**
+	 * Starts keeping a journal and snapshots on a server started without them -
+	 * a follower that has just been promoted, say. The snapshots and journal
+	 * already in the directories are archived, as on a fresh start, then a
+	 * snapshot of the databases as they are is written, so a later recovery
+	 * gets back everything up to now. Does nothing if there is already a
+	 * journal.
+	 * @param snapshotDirectory Where the snapshots are kept
+	 * @param journalDirectory Where the journal segments are kept
+	 * @throws IOException If the directories cannot be archived or the snapshot cannot be written
+	 */
+	public synchronized void startJournal(File snapshotDirectory, File journalDirectory) throws IOException {
+		if (snapshots != null || stopped.getCount() == 0) {
+			return;
+		}
+		archive(snapshotDirectory);
+		archive(journalDirectory);
+		openJournal(snapshotDirectory, journalDirectory);//Any change from now on is journalled
+		snapshots.writeNow();//Every change before then is in the snapshot
+	}
+
+	/**
+	 * Renames a directory, if it exists, to its name followed by the time, so
+	 * the directory can be started again empty. Then deletes all but the newest
+	 * ARCHIVES_KEPT archives of it, so restarting never fills the disk.
+	 * @param directory The directory
+	 * @throws IOException If it exists and cannot be renamed
+	 */
+	private static void archive(File directory) throws IOException {
+		if (!directory.exists()) {
+			return;
+		}
+		File parent = directory.getAbsoluteFile().getParentFile();
+		long time = System.currentTimeMillis();
+		while (new File(parent, directory.getName() + "-" + time).exists()) {//Two runs archived in the same millisecond
+			time++;
+		}
+		File archived = new File(parent, directory.getName() + "-" + time);
+		if (!directory.renameTo(archived)) {
+			throw new IOException("Cannot rename " + directory + " to " + archived);
+		}
+		String[] names = parent.list((dir, name) -> name.matches(Pattern.quote(directory.getName()) + "-\\d+"));
+		long[] times = Arrays.stream(names).mapToLong(name -> Long.parseLong(name.substring(directory.getName().length() + 1))).sorted().toArray();
+		for (int i = 0; i < times.length - ARCHIVES_KEPT; i++) {//The oldest first
+			deleteAll(new File(parent, directory.getName() + "-" + times[i]));
+		}
+	}
+
+	/**
+	 * Deletes a directory and everything in it, as far as it can.
+	 */
+	private static void deleteAll(File file) {
+		File[] children = file.listFiles();
+		if (children != null) {
+			for (File child : children) {
+				deleteAll(child);
+			}
+		}
+		file.delete();
+	}
+
+	/**
+	 * Starts taking a snapshot periodically, if there is a journal.
+	 * @param periodMillis The time between snapshots
+	 */
+	public synchronized void startSnapshots(long periodMillis) {
+		if (snapshots != null) {
+			snapshots.start(periodMillis);
+		}
+	}
+
+	/**
+	 * Starts streaming every change to followers that connect on the loopback
+	 * address. Does nothing the second time.
+	 * @param port The port to listen on, or 0 for any free port
+	 * @return The source the followers connect to
+	 * @throws IOException If the port cannot be listened on
+	 */
+	public synchronized ReplicationSource startReplication(int port) throws IOException {
+		if (replication == null) {
+			replication = new ReplicationSource(amd, gid, port);
+			ring.addConsumer("ReplicationSource", replication, EventRing.WaitStrategy.BLOCKING);
+		}
+		return replication;
+	}
+
+	/**
+	 * Starts pushing the public flight board to remote displays that connect on
+	 * the loopback address. Does nothing the second time.
+	 * @param port The port to listen on, or 0 for any free port
+	 * @return The server the displays connect to
+	 * @throws IOException If the port cannot be listened on
+	 */
+	public synchronized DisplayServer startDisplayServer(int port) throws IOException {
+		if (displays == null) {
+			displays = new DisplayServer(amd, port, 1 << 20);
+			ring.addConsumer("DisplayServer", displays, EventRing.WaitStrategy.BLOCKING);
+		}
+		return displays;
+	}
+
+	/**
+	 * Builds and shows the PublicInfo Frame, which only reads the databases, on
+	 * the Swing event thread. Does nothing if it has already been attached.
+	 */
+	public synchronized void attachPublicInfo() {
+		if (!publicInfoAttached) {
+			publicInfoAttached = true;
+			openPublicInfo(FlightBoard.LANDING, FlightBoard.LANDED, FlightBoard.DEPARTING);
+		}
+	}
+
+	/**
+	 * Builds and shows another PublicInfo Frame, on the Swing event thread,
+	 * showing some sections of the shared board - one for each terminal zone,
+	 * say.
+	 * @param sections The sections shown - FlightBoard.LANDING, LANDED or DEPARTING
+	 */
+	public synchronized void openPublicInfo(int... sections) {
+		PublicBoard board = getPublicBoard();
+		onEventThread(() -> new PublicInfo(board, sections));
+	}
+
+	/**
+	 * Return the public board shared by every PublicInfo, creating it the first
+	 * time.
+	 */
+	public synchronized PublicBoard getPublicBoard() {
+		if (publicBoard == null) {
+			publicBoard = new PublicBoard(amd);
+		}
+		return publicBoard;
+	}
+
+	/**
+	 * Builds and shows all the system interfaces as Frames, on the Swing event
+	 * thread. Does nothing if they have already been attached.
+	 */
+	public synchronized void attachViews() {
+		if (viewsAttached) {
+			return;
+		}
+		viewsAttached = true;
+		onEventThread(() -> {
+			new MaintenanceInspector(amd);
+			new RefuellingSupervisor(amd);
+			new RadarTransceiver(amd);
+			new CleaningSupervisor(amd);
+			new LATC(amd);
+			new GOC(amd, gid);
+			for (int i = 0; i < gateOperations.length; i++) {
+				new GateConsole(i, amd, gid);
+			}
+		});
+		attachPublicInfo();
+	}
+
+	/**
+	 * Runs the given job on the Swing event thread and waits for it.
+	 */
+	private static void onEventThread(Runnable build) {
+		if (SwingUtilities.isEventDispatchThread()) {
+			build.run();
+			return;
+		}
+		try {
+			SwingUtilities.invokeAndWait(build);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (InvocationTargetException e) {
+			throw new IllegalStateException("Cannot build the Frames", e.getCause());
+		}
+	}
+
+	/**
+	 * Stops the server: waits for the journal to catch up with the ring, takes a
+	 * final snapshot and closes the journal. Does nothing the second time.
+	 */
+	public synchronized void shutdown() {
+		if (stopped.getCount() == 0) {
+			return;
+		}
+		if (snapshots != null) {
+			snapshots.stop();
+		}
+		if (replication != null) {
+			replication.close();
+		}
+		if (displays != null) {
+			displays.close();
+		}
+		if (journal != null) {
+			long deadline = System.currentTimeMillis() + 1000;
+			while (journalConsumer.getSequence() < ring.getCursor() && System.currentTimeMillis() < deadline) {//Let the journal record what is on the ring
+				Thread.yield();
+			}
+			try {
+				snapshots.writeNow();
+			} catch (IOException e) {
+				System.err.println("Cannot write the final snapshot: " + e.getMessage());
+			}
+			journal.close();
+		}
+		queue.shutdown();
+		stopped.countDown();
+	}
+
+	/**
+	 * Waits until shutdown has been called.
+	 * @throws InterruptedException If interrupted while waiting
+	 */
+	public void awaitShutdown() throws InterruptedException {
+		stopped.await();
+	}
+
+	/** Return the aircraft database. */
+	public AircraftManagementDatabase getAircraftDatabase() {
+		return amd;
+	}
+
+	/** Return the gate database. */
+	public GateInfoDatabase getGateDatabase() {
+		return gid;
+	}
+
+	/** Return the controller that reports radar contacts. */
+	public RadarFeed getRadarFeed() {
+		return radarFeed;
+	}
+
+	/** Return the controller that does the job of the GOC screen. */
+	public GroundOperations getGroundOperations() {
+		return groundOperations;
+	}
+
+	/**
+	 * Return the controller that does the job of one gate's GateConsole.
+	 * @param gateNumber The gate
+	 */
+	public GateOperations getGateOperations(int gateNumber) {
+		return gateOperations[gateNumber];
+	}
+
+	/** Return the counts of the changes made. */
+	public ChangeMetrics getMetrics() {
+		return metrics;
+	}
+
+	/** Return why the journal failed, or null if it has not or there is no journal. */
+	public synchronized IOException getJournalFailure() {
+		return journal == null ? null : journal.getFailure();
+	}
+
+	/** Return what was recovered, or null if the databases were not recovered. */
+	public Recovery getRecovery() {
+		return recovery;
+	}
+
+	/** Return how long starting the server took, in milliseconds. */
+	public double getStartupMillis() {
+		return startupNanos / 1e6;
+	}
+
+	/**
+	 * Return the resident memory of the process in kilobytes, read from
+	 * /proc/self/status, or -1 where that is not available.
+	 */
+	public static long getResidentKilobytes() {
+		try {
+			for (String line : java.nio.file.Files.readAllLines(new File("/proc/self/status").toPath())) {
+				if (line.startsWith("VmRSS:")) {
+					return Long.parseLong(line.replaceAll("[^0-9]", ""));
+				}
+			}
+		} catch (IOException | NumberFormatException e) {
+			//Not Linux - fall through
+		}
+		return -1;
+	}
+
+	/** Return the heap in use in kilobytes. */
+	public static long getUsedHeapKilobytes() {
+		Runtime runtime = Runtime.getRuntime();
+		return (runtime.totalMemory() - runtime.freeMemory()) / 1024;
+	}
+}
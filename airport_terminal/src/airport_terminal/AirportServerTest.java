@@ -0,0 +1,103 @@
+package airport_terminal;
+
+//Allow assertions to be used
+import static org.junit.jupiter.api.Assertions.*;
+import static airport_terminal.TestFlights.*;
+
+import java.io.File;
+import java.nio.file.Files;
+
+//Imports for allowing test and the before each test method
+import org.junit.jupiter.api.Test;
+
+
+class AirportServerTest {
+	@Test
+	void testHeadlessServerControllers() {
+		AirportServer server = new AirportServer(null, null, false);
+		try {
+			AircraftManagementDatabase amd = server.getAircraftDatabase();
+			GateInfoDatabase gid = server.getGateDatabase();
+			int mCode = server.getRadarFeed().detect("BA1", "Glasgow", "Stirling", "Rome", "Jo");
+			assertTrue(server.getGroundOperations().grantGroundClearance(mCode), "Ground clearance was not granted");
+			amd.setStatus(mCode, ManagementRecord.LANDING);//The LATC's job
+			amd.setStatus(mCode, ManagementRecord.LANDED);
+			assertTrue(server.getGroundOperations().allocateGate(mCode, 2), "The gate was not allocated");
+			assertFalse(server.getGroundOperations().allocateGate(mCode, 1), "A second gate was allocated");
+			GateOperations gate = server.getGateOperations(2);
+			assertEquals(mCode, gate.getmCode(), "The gate does not know its aircraft");
+			assertTrue(gate.dock(mCode), "The aircraft did not dock");
+			assertEquals(Gate.OCCUPIED, gid.getStatus(2), "The gate is not occupied");
+			assertTrue(gate.unloaded(mCode), "The aircraft was not unloaded");
+			assertFalse(gate.unloaded(mCode), "The aircraft was unloaded twice");
+			moveTo(amd, mCode, ManagementRecord.READY_PASSENGERS);//The cleaning, maintenance and refuelling jobs
+			PassengerList passengers = new PassengerList();
+			passengers.addPassenger(new PassengerDetails("Sam"));
+			assertTrue(gate.closeFlight(mCode, passengers), "The flight was not closed");
+			assertEquals(ManagementRecord.READY_DEPART, amd.getStatus(mCode), "The flight is not ready to depart");
+			amd.setStatus(mCode, ManagementRecord.AWAITING_TAXI);
+			assertTrue(server.getGroundOperations().permitTaxi(mCode), "The aircraft was not permitted to taxi");
+			assertEquals(Gate.FREE, gid.getStatus(2), "The gate was not freed");
+			assertEquals(-1, gate.getmCode(), "The freed gate still has an aircraft");
+			assertTrue(server.getStartupMillis() > 0, "The startup time was not measured");
+		} finally {
+			server.shutdown();
+		}
+	}
+
+	@Test
+	void testFreshStartArchivesTheLastRun() throws Exception {
+		File directory = Files.createTempDirectory("runs").toFile();
+		File snapshots = new File(directory, "snapshots");
+		File journal = new File(directory, "journal");
+		AirportServer first = new AirportServer(snapshots, journal, false);
+		for (int i = 0; i < 3; i++) {
+			first.getAircraftDatabase().radarDetect(flight("BA" + i, "Stirling"));
+		}
+		first.getAircraftDatabase().setStatus(1, ManagementRecord.GROUND_CLEARANCE_GRANTED);
+		first.shutdown();
+
+		AirportServer second = new AirportServer(snapshots, journal, false);//Not recovered, so its versions start again from 0
+		assertEquals(ManagementRecord.FREE, second.getAircraftDatabase().getStatus(0), "A fresh start did not start empty");
+		second.getAircraftDatabase().radarDetect(flight("BA9", "Stirling"));
+		second.shutdown();
+
+		AirportServer recovered = new AirportServer(snapshots, journal, true);
+		try {
+			AircraftManagementDatabase amd = recovered.getAircraftDatabase();
+			assertEquals("BA9", amd.getFlightCode(0), "The last run was not recovered");
+			assertEquals(ManagementRecord.FREE, amd.getStatus(1), "A record from the run before was recovered");
+			assertEquals(ManagementRecord.FREE, amd.getStatus(2), "A record from the run before was recovered");
+			assertEquals(1, directory.listFiles((dir, name) -> name.startsWith("journal-")).length, "The run before was not archived");
+		} finally {
+			recovered.shutdown();
+		}
+
+		for (int i = 0; i < AirportServer.ARCHIVES_KEPT + 2; i++) {//More fresh starts than archives are kept
+			new AirportServer(snapshots, journal, false).shutdown();
+		}
+		assertEquals(AirportServer.ARCHIVES_KEPT, directory.listFiles((dir, name) -> name.startsWith("journal-")).length, "Old journals were not deleted");
+		assertEquals(AirportServer.ARCHIVES_KEPT, directory.listFiles((dir, name) -> name.startsWith("snapshots-")).length, "Old snapshots were not deleted");
+		assertTrue(journal.exists(), "The current journal was deleted");
+	}
+
+	@Test
+	void testJournalStartedAfterPromotion() throws Exception {
+		File directory = Files.createTempDirectory("promoted").toFile();
+		File snapshots = new File(directory, "snapshots");
+		File journal = new File(directory, "journal");
+		AirportServer server = new AirportServer(null, null, false);//As a follower is started
+		server.getAircraftDatabase().radarDetect(flight("BA1", "Stirling"));//Replicated before the promotion
+		server.startJournal(snapshots, journal);
+		server.getAircraftDatabase().radarDetect(flight("BA2", "Stirling"));//Made as primary
+		server.shutdown();
+
+		AirportServer recovered = new AirportServer(snapshots, journal, true);
+		try {
+			assertEquals("BA1", recovered.getAircraftDatabase().getFlightCode(0), "The state before the journal started was lost");
+			assertEquals("BA2", recovered.getAircraftDatabase().getFlightCode(1), "A change after the journal started was lost");
+		} finally {
+			recovered.shutdown();
+		}
+	}
+}
@@ -0,0 +1,271 @@
+package airport_terminal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * A TCP server that sends the same bytes to every client connected, from one
+ * selector thread, without ever blocking the thread that hands it the bytes.
+ * Used by the DisplayServer to push the public board and by the
+ * ReplicationSource to stream changes to followers.
+ *
+ * send copies the bytes once, into one read-only direct buffer, and hands it
+ * to the selector thread. That thread writes the buffer to every client, each
+ * through its own view of it, so nothing is copied again per client. It only
+ * writes what each socket will take without blocking, keeping the rest queued
+ * for that client. A client that falls more than maxBacklog bytes behind - one
+ * that has stopped reading, say - is disconnected, so it cannot hold on to
+ * every buffer sent.
+ *
+ * A client that connects is first sent a welcome, made on the selector thread
+ * once the client has been counted, so anything sent after it was made is
+ * also sent to the client. What clients send is read and ignored.
+ */
+class Broadcaster implements Closeable {
+
+	/**
+	 * A connected client, and the buffers still to be written to it. Only used
+	 * on the selector thread.
+	 */
+	private static final class Client {
+		private final SocketChannel channel;
+		private final ArrayDeque<ByteBuffer> queue = new ArrayDeque<ByteBuffer>();
+		private long queued;//The number of bytes in the queue
+		private SelectionKey key;
+
+		Client(SocketChannel channel) {
+			this.channel = channel;
+		}
+	}
+
+	private final long maxBacklog;
+	private final Supplier<ByteBuffer> welcome;//Makes what a client is sent first
+	private final ServerSocketChannel server;
+	private final Selector selector;
+	private final List<Client> clients = new ArrayList<Client>();//Only used on the selector thread
+	private final ConcurrentLinkedQueue<ByteBuffer> pending = new ConcurrentLinkedQueue<ByteBuffer>();//Buffers for the selector thread to send
+	private final ByteBuffer discard = ByteBuffer.allocate(256);//What clients send is read into here and ignored
+	private volatile int clientCount;
+	private final AtomicLong written = new AtomicLong();//The number of bytes written to all clients
+	private final AtomicLong slow = new AtomicLong();//The number of clients disconnected for falling behind
+	private final AtomicLong failed = new AtomicLong();//The number of clients disconnected because they could not be written to or read
+
+	/**
+	 * The constructor for this class. Starts accepting clients on the given
+	 * address.
+	 * @param name The name of the selector thread
+	 * @param address The address to listen on
+	 * @param maxBacklog The most bytes that can be waiting for one client before it is disconnected
+	 * @param welcome Makes what each client is sent first, on the selector thread
+	 * @throws IOException If the address cannot be listened on
+	 */
+	Broadcaster(String name, InetSocketAddress address, long maxBacklog, Supplier<ByteBuffer> welcome) throws IOException {
+		this.maxBacklog = maxBacklog;
+		this.welcome = welcome;
+		this.selector = Selector.open();
+		this.server = ServerSocketChannel.open();
+		server.bind(address);
+		server.configureBlocking(false);
+		server.register(selector, SelectionKey.OP_ACCEPT);
+		Thread thread = new Thread(this::run, name);
+		thread.setDaemon(true);//Do not keep the application running
+		thread.start();
+	}
+
+	/**
+	 * Sends the bytes remaining in the buffer to every client connected. The
+	 * bytes are copied, so the buffer can be reused as soon as this returns.
+	 * @param bytes The bytes to send
+	 * @return The number of bytes sent
+	 */
+	int send(ByteBuffer bytes) {
+		int length = bytes.remaining();
+		if (length > 0) {
+			ByteBuffer shared = ByteBuffer.allocateDirect(length);//Direct, so the socket writes need no copy
+			shared.put(bytes).flip();
+			pending.add(shared.asReadOnlyBuffer());
+			selector.wakeup();
+		}
+		return length;
+	}
+
+	/**
+	 * The selector thread: accepts clients and writes the queued buffers to
+	 * them, until the server is closed.
+	 */
+	private void run() {
+		try {
+			while (server.isOpen()) {
+				selector.select();
+				ByteBuffer shared;
+				while ((shared = pending.poll()) != null) {//For every buffer sent since the last time
+					for (Client client : new ArrayList<Client>(clients)) {
+						enqueue(client, shared.duplicate());//Each client has its own position in the same bytes
+					}
+				}
+				for (Iterator<SelectionKey> i = selector.selectedKeys().iterator(); i.hasNext();) {
+					SelectionKey key = i.next();
+					i.remove();
+					if (!key.isValid()) {
+						continue;
+					}
+					if (key.isAcceptable()) {
+						accept();
+					} else {
+						Client client = (Client) key.attachment();
+						if (key.isReadable()) {
+							read(client);
+						}
+						if (key.isValid() && key.isWritable()) {
+							flush(client);
+						}
+					}
+				}
+			}
+		} catch (IOException | ClosedSelectorException e) {
+			//Closed
+		} finally {
+			for (Client client : new ArrayList<Client>(clients)) {
+				closeQuietly(client);
+			}
+			try {
+				selector.close();
+			} catch (IOException e) {
+				//Already closed
+			}
+		}
+	}
+
+	/**
+	 * Accepts a client and queues its welcome. The client is counted before the
+	 * welcome is made, so nothing sent after the welcome is missed.
+	 */
+	private void accept() throws IOException {
+		SocketChannel channel = server.accept();
+		if (channel == null) {
+			return;
+		}
+		channel.configureBlocking(false);
+		channel.socket().setTcpNoDelay(true);
+		Client client = new Client(channel);
+		client.key = channel.register(selector, SelectionKey.OP_READ, client);
+		clients.add(client);
+		clientCount = clients.size();//From now on the bytes sent are queued for it
+		enqueue(client, welcome.get());
+	}
+
+	/**
+	 * Queues a buffer for a client and writes what the socket will take,
+	 * disconnecting the client if it has fallen too far behind.
+	 */
+	private void enqueue(Client client, ByteBuffer buffer) {
+		if (!buffer.hasRemaining()) {
+			return;
+		}
+		if (client.queued + buffer.remaining() > maxBacklog && client.queued > 0) {//If it is not keeping up THEN
+			slow.incrementAndGet();
+			closeQuietly(client);//Disconnect it, so it cannot hold on to every buffer
+			return;
+		}
+		client.queue.add(buffer);
+		client.queued += buffer.remaining();
+		flush(client);
+	}
+
+	/**
+	 * Writes as much of the queue as the client's socket will take without
+	 * blocking, and asks to be told when it will take more if any is left.
+	 */
+	private void flush(Client client) {
+		try {
+			long n = client.channel.write(client.queue.toArray(new ByteBuffer[client.queue.size()]));//One gathering write for every queued buffer
+			client.queued -= n;
+			written.addAndGet(n);
+			while (!client.queue.isEmpty() && !client.queue.peek().hasRemaining()) {
+				client.queue.poll();
+			}
+			client.key.interestOps(client.queue.isEmpty() ? SelectionKey.OP_READ : SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+		} catch (IOException e) {
+			failed.incrementAndGet();
+			closeQuietly(client);
+		}
+	}
+
+	/**
+	 * Reads and ignores anything a client sends, noticing when it disconnects.
+	 */
+	private void read(Client client) {
+		try {
+			discard.clear();
+			if (client.channel.read(discard) < 0) {
+				closeQuietly(client);
+			}
+		} catch (IOException e) {
+			failed.incrementAndGet();
+			closeQuietly(client);
+		}
+	}
+
+	private void closeQuietly(Client client) {
+		clients.remove(client);
+		clientCount = clients.size();
+		client.queue.clear();
+		try {
+			client.channel.close();
+		} catch (IOException e) {
+			//Already closed
+		}
+	}
+
+	/**
+	 * Stops accepting clients and disconnects those connected.
+	 */
+	@Override
+	public void close() {
+		try {
+			server.close();
+		} catch (IOException e) {
+			//Already closed
+		}
+		selector.wakeup();//The selector thread disconnects the clients
+	}
+
+	/** Return the port clients connect to. */
+	int getPort() {
+		return server.socket().getLocalPort();
+	}
+
+	/** Return the number of clients connected. */
+	int getClientCount() {
+		return clientCount;
+	}
+
+	/** Return the number of bytes written to all clients, including welcomes. */
+	long getBytesWritten() {
+		return written.get();
+	}
+
+	/** Return the number of clients disconnected for falling too far behind. */
+	long getSlowCount() {
+		return slow.get();
+	}
+
+	/** Return the number of clients disconnected because they could not be written to or read. */
+	long getFailedCount() {
+		return failed.get();
+	}
+}
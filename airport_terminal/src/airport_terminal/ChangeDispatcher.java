@@ -0,0 +1,150 @@
+package airport_terminal;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Observable;
+import java.util.Observer;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Predicate;
+
+/**
+ * Routes the changes made to the AircraftManagementDatabase to the subscribers
+ * that are interested in them, rather than waking every observer for every
+ * change.
+ *
+ * A subscriber either names a set of statuses, and is told about any record
+ * moving into, out of or within one of them, or gives a predicate that is
+ * tried against every change. Status subscribers are kept in a table indexed
+ * by status, so routing a change only looks at the subscribers for its old and
+ * new status. Each subscriber is passed a ChangeSet holding just the events it
+ * is interested in, and is not called at all if there are none.
+ *
+ * Subscribing and cancelling can be done from any thread, including from
+ * inside a subscriber.
+ */
+@SuppressWarnings("deprecation")
+class ChangeDispatcher {
+
+	/**
+	 * One subscriber, with what it is interested in.
+	 */
+	private final class Subscriber implements Subscription {
+		final Observer observer;
+		final Predicate<ChangeEvent> filter;//Null for a status subscriber
+		final int[] statuses;//The statuses a status subscriber is interested in
+
+		Subscriber(Observer observer, Predicate<ChangeEvent> filter, int[] statuses) {
+			this.observer = observer;
+			this.filter = filter;
+			this.statuses = statuses;
+		}
+
+		@Override
+		public void cancel() {
+			if (filter != null) {
+				filtered.remove(this);
+			} else {
+				for (int status : statuses) {
+					byStatus.get(status).remove(this);
+				}
+			}
+		}
+	}
+
+	private final Observable source;//The database the changes come from - passed to the subscribers
+	private final List<CopyOnWriteArrayList<Subscriber>> byStatus = new ArrayList<CopyOnWriteArrayList<Subscriber>>();//The status subscribers for each status
+	private final CopyOnWriteArrayList<Subscriber> filtered = new CopyOnWriteArrayList<Subscriber>();//The predicate subscribers
+
+	/**
+	 * The constructor for this class.
+	 * @param source The database the changes come from
+	 */
+	ChangeDispatcher(Observable source) {
+		this.source = source;
+		for (int status = 0; status < StatusIndex.STATUS_COUNT; status++) {//For every status
+			byStatus.add(new CopyOnWriteArrayList<Subscriber>());
+		}
+	}
+
+	/**
+	 * Adds a subscriber that is told about records whose status moves into, out
+	 * of, or stays within the given statuses.
+	 * @param observer The subscriber
+	 * @param statuses The statuses it is interested in
+	 * @return The subscription, for cancelling it
+	 * @throws IllegalArgumentException If a status is not a ManagementRecord status code
+	 */
+	Subscription subscribe(Observer observer, int... statuses) {
+		int[] unique = java.util.Arrays.stream(statuses).distinct().toArray();//Each status only once, so the subscriber is only told once
+		for (int status : unique) {
+			if (status < 0 || status >= StatusIndex.STATUS_COUNT) {//If the status does not exist THEN
+				throw new IllegalArgumentException("Unknown status code " + status);
+			}
+		}
+		Subscriber subscriber = new Subscriber(observer, null, unique);
+		for (int status : unique) {
+			byStatus.get(status).add(subscriber);
+		}
+		return subscriber;
+	}
+
+	/**
+	 * Adds a subscriber that is told about every change that matches the given
+	 * predicate.
+	 * @param observer The subscriber
+	 * @param filter Picks the changes the subscriber is interested in
+	 * @return The subscription, for cancelling it
+	 */
+	Subscription subscribe(Observer observer, Predicate<ChangeEvent> filter) {
+		Subscriber subscriber = new Subscriber(observer, filter, new int[0]);
+		filtered.add(subscriber);
+		return subscriber;
+	}
+
+	/**
+	 * Passes each subscriber the changes it is interested in. Subscribers are
+	 * called on the current thread, one after another.
+	 * @param changes The changes made to the database
+	 */
+	void dispatch(ChangeSet changes) {
+		Map<Subscriber, List<ChangeEvent>> routed = new LinkedHashMap<Subscriber, List<ChangeEvent>>();//The events for each interested subscriber
+		for (ChangeEvent event : changes) {
+			route(event, event.getOldStatus(), routed);
+			if (event.getNewStatus() != event.getOldStatus()) {//A subscriber to both statuses is only given the event once
+				route(event, event.getNewStatus(), routed);
+			}
+			for (Subscriber subscriber : filtered) {
+				if (subscriber.filter.test(event)) {
+					add(routed, subscriber, event);
+				}
+			}
+		}
+		for (Map.Entry<Subscriber, List<ChangeEvent>> entry : routed.entrySet()) {//For every interested subscriber
+			entry.getKey().observer.update(source, new ChangeSet(entry.getValue()));//Tell it about just its events
+		}
+	}
+
+	/**
+	 * Adds the event to the list for every subscriber to the given status.
+	 */
+	private void route(ChangeEvent event, int status, Map<Subscriber, List<ChangeEvent>> routed) {
+		if (status < 0 || status >= StatusIndex.STATUS_COUNT) {//If nobody can be subscribed to the status THEN
+			return;
+		}
+		for (Subscriber subscriber : byStatus.get(status)) {
+			add(routed, subscriber, event);
+		}
+	}
+
+	/**
+	 * Adds the event to the subscriber's list, unless it is already there.
+	 */
+	private static void add(Map<Subscriber, List<ChangeEvent>> routed, Subscriber subscriber, ChangeEvent event) {
+		List<ChangeEvent> events = routed.computeIfAbsent(subscriber, s -> new ArrayList<ChangeEvent>());
+		if (events.isEmpty() || events.get(events.size() - 1) != event) {//A subscriber to the old and new status only gets the event once
+			events.add(event);
+		}
+	}
+}
@@ -0,0 +1,166 @@
+package airport_terminal;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Describes one change to one management record in the
+ * AircraftManagementDatabase, or to one gate in the GateInfoDatabase: which
+ * record or gate it was, its status before and after, and which of its fields
+ * changed. Observers of the databases are passed a ChangeSet of these events,
+ * so that they can update just the rows that have changed instead of
+ * redrawing everything.
+ */
+public final class ChangeEvent {
+
+	/**
+	 * The database that changed.
+	 */
+	public enum Source {
+		AIRCRAFT, GATE
+	}
+
+	/**
+	 * The fields that can change. A GATE event only ever has STATUS and AIRCRAFT.
+	 */
+	public enum Field {
+		STATUS, //The status of the record or gate
+		FLIGHT_CODE, //The flight code of the aircraft - only changes when a record is reused
+		GATE, //The gate the aircraft has been told to taxi to
+		ITINERARY, //Where the aircraft is coming from and going to
+		PASSENGERS, //The aircraft's passenger list
+		FAULTS, //The faults found by the Maintenance Supervisor
+		AIRCRAFT //Which aircraft a gate is allocated to
+	}
+
+	private final Source source;
+	private final int mCode;//The mCode of the record - for a gate, the aircraft allocated to it (or that has just left it), or -1
+	private final int gateNumber;//The number of the gate, or -1 for a record
+	private final int oldStatus;
+	private final int newStatus;
+	private final Set<Field> fields;//The fields that changed - never empty
+	private final long version;//The version of the database after the change
+	private final RecordView record;//The record after the change, or null for a gate
+
+	private ChangeEvent(Source source, int mCode, int gateNumber, int oldStatus, int newStatus, Set<Field> fields, long version, RecordView record) {
+		this.source = source;
+		this.mCode = mCode;
+		this.gateNumber = gateNumber;
+		this.oldStatus = oldStatus;
+		this.newStatus = newStatus;
+		this.fields = Collections.unmodifiableSet(fields);
+		this.version = version;
+		this.record = record;
+	}
+
+	/**
+	 * Makes the event for a management record that has changed from before to
+	 * after.
+	 * @param before The record before the change
+	 * @param after The record after the change
+	 * @return The event, or null if nothing that is recorded has changed
+	 */
+	static ChangeEvent aircraft(RecordView before, RecordView after) {
+		EnumSet<Field> fields = before.differences(after);
+		if (fields.isEmpty()) {//If nothing has changed THEN
+			return null;//There is nothing to tell the observers
+		}
+		return new ChangeEvent(Source.AIRCRAFT, after.getmCode(), -1, before.getStatus(), after.getStatus(), fields, after.getVersion(), after);
+	}
+
+	/**
+	 * Makes the event for a gate that has changed.
+	 * @param gateNumber The number of the gate
+	 * @param oldStatus The gate's status before the change
+	 * @param newStatus The gate's status after the change
+	 * @param oldmCode The aircraft allocated to the gate before the change, or -1
+	 * @param newmCode The aircraft allocated to the gate after the change, or -1
+	 * @param version The version of the gate database after the change
+	 * @return The event, or null if the gate has not changed
+	 */
+	static ChangeEvent gate(int gateNumber, int oldStatus, int newStatus, int oldmCode, int newmCode, long version) {
+		EnumSet<Field> fields = EnumSet.noneOf(Field.class);
+		if (oldStatus != newStatus) {
+			fields.add(Field.STATUS);
+		}
+		if (oldmCode != newmCode) {
+			fields.add(Field.AIRCRAFT);
+		}
+		if (fields.isEmpty()) {//If nothing has changed THEN
+			return null;//There is nothing to tell the observers
+		}
+		int mCode = newmCode != -1 ? newmCode : oldmCode;//The aircraft the change concerns
+		return new ChangeEvent(Source.GATE, mCode, gateNumber, oldStatus, newStatus, fields, version, null);
+	}
+
+	/**
+	 * Combines this event with a later event for the same record or gate, as if
+	 * both changes had been made at once.
+	 * @param later The later event
+	 * @return The combined event
+	 */
+	ChangeEvent merge(ChangeEvent later) {
+		EnumSet<Field> merged = EnumSet.copyOf(fields);
+		merged.addAll(later.fields);
+		return new ChangeEvent(source, later.mCode, later.gateNumber, oldStatus, later.newStatus, merged, later.version, later.record);
+	}
+
+	/** Return which database changed. */
+	public Source getSource() {
+		return source;
+	}
+
+	/**
+	 * Return the mCode of the management record that changed. For a gate, the
+	 * mCode of the aircraft allocated to it, or of the aircraft that has just left
+	 * it, or -1 if there is none.
+	 */
+	public int getmCode() {
+		return mCode;
+	}
+
+	/** Return the number of the gate that changed, or -1 if a management record changed. */
+	public int getGateNumber() {
+		return gateNumber;
+	}
+
+	/** Return the status before the change. */
+	public int getOldStatus() {
+		return oldStatus;
+	}
+
+	/** Return the status after the change. */
+	public int getNewStatus() {
+		return newStatus;
+	}
+
+	/** Return the fields that changed. */
+	public Set<Field> getFields() {
+		return fields;
+	}
+
+	/**
+	 * Return whether the given field changed.
+	 * @param field The field to check
+	 * @return True if it changed
+	 */
+	public boolean changed(Field field) {
+		return fields.contains(field);
+	}
+
+	/** Return the version of the database after the change. */
+	public long getVersion() {
+		return version;
+	}
+
+	/** Return the management record after the change, or null if a gate changed. */
+	public RecordView getRecord() {
+		return record;
+	}
+
+	@Override
+	public String toString() {
+		return source + " " + (source == Source.AIRCRAFT ? mCode : gateNumber) + " " + fields + " " + oldStatus + "->" + newStatus + " v" + version;
+	}
+}
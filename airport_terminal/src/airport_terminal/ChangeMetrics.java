@@ -0,0 +1,63 @@
+package airport_terminal;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * An EventRing handler that counts the changes made to the databases: how
+ * many there have been from each database, and how many times aircraft have
+ * entered each status. Runs on its own consumer, so counting never slows down
+ * the thread making the change.
+ */
+public class ChangeMetrics implements EventRing.Handler {
+
+	private final AtomicLongArray bySource = new AtomicLongArray(ChangeEvent.Source.values().length);//The number of events from each database
+	private final AtomicLongArray entered = new AtomicLongArray(StatusIndex.STATUS_COUNT);//The number of times aircraft have entered each status
+	private final AtomicLong batches = new AtomicLong();//The number of batches the events arrived in
+	private volatile long lastSequence = -1;//The sequence number of the last event counted
+
+	@Override
+	public void onEvent(ChangeEvent event, long sequence, boolean endOfBatch) {
+		bySource.incrementAndGet(event.getSource().ordinal());
+		int status = event.getNewStatus();
+		if (event.getSource() == ChangeEvent.Source.AIRCRAFT && status != event.getOldStatus() && status >= 0 && status < StatusIndex.STATUS_COUNT) {
+			entered.incrementAndGet(status);
+		}
+		if (endOfBatch) {
+			batches.incrementAndGet();
+		}
+		lastSequence = sequence;
+	}
+
+	/**
+	 * Return the number of changes counted from the given database.
+	 * @param source The database
+	 * @return The number of changes
+	 */
+	public long getEventCount(ChangeEvent.Source source) {
+		return bySource.get(source.ordinal());
+	}
+
+	/**
+	 * Return the number of times an aircraft has entered the given status.
+	 * @param status A ManagementRecord status code
+	 * @return The number of times
+	 */
+	public long getEnteredCount(int status) {
+		return entered.get(status);
+	}
+
+	/**
+	 * Return the average number of changes taken from the ring at once - higher
+	 * when the changes are arriving faster than they are being counted.
+	 */
+	public double getAverageBatchSize() {
+		long count = batches.get();
+		return count == 0 ? 0 : (double) (bySource.get(0) + bySource.get(1)) / count;
+	}
+
+	/** Return the sequence number of the last change counted, or -1 if none. */
+	public long getLastSequence() {
+		return lastSequence;
+	}
+}
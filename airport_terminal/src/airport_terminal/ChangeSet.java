@@ -0,0 +1,79 @@
+package airport_terminal;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * The changes made to a database by one operation, or by one batch of
+ * operations. This is the argument passed to every observer of the
+ * AircraftManagementDatabase and the GateInfoDatabase. There is at most one
+ * event per management record or gate, in ascending order of mCode or gate
+ * number.
+ */
+public final class ChangeSet implements Iterable<ChangeEvent> {
+
+	private final List<ChangeEvent> events;
+
+	/**
+	 * The constructor for this class.
+	 * @param events The events, at most one per record or gate, in order
+	 */
+	ChangeSet(List<ChangeEvent> events) {
+		this.events = Collections.unmodifiableList(new ArrayList<ChangeEvent>(events));
+	}
+
+	/**
+	 * Makes a change set holding a single event.
+	 * @param event The event
+	 * @return The change set
+	 */
+	static ChangeSet of(ChangeEvent event) {
+		return new ChangeSet(Collections.singletonList(event));
+	}
+
+	/** Return the events, in ascending order of mCode or gate number. */
+	public List<ChangeEvent> getEvents() {
+		return events;
+	}
+
+	@Override
+	public Iterator<ChangeEvent> iterator() {
+		return events.iterator();
+	}
+
+	/** Return the number of records or gates that changed. */
+	public int size() {
+		return events.size();
+	}
+
+	/** Return whether nothing changed. */
+	public boolean isEmpty() {
+		return events.isEmpty();
+	}
+
+	/** Return the mCodes of the management records that changed, in ascending order. */
+	public int[] getmCodes() {
+		return events.stream().filter(e -> e.getSource() == ChangeEvent.Source.AIRCRAFT).mapToInt(ChangeEvent::getmCode).toArray();
+	}
+
+	/** Return the numbers of the gates that changed, in ascending order. */
+	public int[] getGateNumbers() {
+		return events.stream().filter(e -> e.getSource() == ChangeEvent.Source.GATE).mapToInt(ChangeEvent::getGateNumber).toArray();
+	}
+
+	/** Return the version of the database after the last of the changes. */
+	public long getVersion() {
+		long version = 0;
+		for (ChangeEvent event : events) {
+			version = Math.max(version, event.getVersion());
+		}
+		return version;
+	}
+
+	@Override
+	public String toString() {
+		return events.toString();
+	}
+}
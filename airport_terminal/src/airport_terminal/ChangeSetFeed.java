@@ -0,0 +1,43 @@
+package airport_terminal;
+
+import java.util.ArrayList;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * An EventRing handler that gathers the events from one database into a
+ * ChangeSet, and passes it on at the end of each batch of events taken from the
+ * ring. Used by the databases to notify their observers from the ring's
+ * consumer thread: the longer the observers take, the more events each
+ * ChangeSet covers.
+ */
+class ChangeSetFeed implements EventRing.Handler {
+
+	private final ChangeEvent.Source source;//The database whose events are gathered
+	private final Consumer<ChangeSet> sink;//Given each ChangeSet
+	private final TreeMap<Integer, ChangeEvent> gathered = new TreeMap<Integer, ChangeEvent>();//One combined event per record or gate
+
+	/**
+	 * The constructor for this class.
+	 * @param source The database whose events are gathered - events from the other are ignored
+	 * @param sink Given each ChangeSet, on the consumer's thread
+	 */
+	ChangeSetFeed(ChangeEvent.Source source, Consumer<ChangeSet> sink) {
+		this.source = source;
+		this.sink = sink;
+	}
+
+	@Override
+	public void onEvent(ChangeEvent event, long sequence, boolean endOfBatch) {
+		if (event.getSource() == source) {
+			int key = source == ChangeEvent.Source.AIRCRAFT ? event.getmCode() : event.getGateNumber();
+			//Producers on different threads can publish changes to the same record out of order, so combine by version
+			gathered.merge(key, event, (a, b) -> a.getVersion() <= b.getVersion() ? a.merge(b) : b.merge(a));
+		}
+		if (endOfBatch && !gathered.isEmpty()) {//If this is the last event available for now THEN
+			ChangeSet changes = new ChangeSet(new ArrayList<ChangeEvent>(gathered.values()));
+			gathered.clear();
+			sink.accept(changes);
+		}
+	}
+}
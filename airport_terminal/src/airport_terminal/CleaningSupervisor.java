@@ -49,14 +49,18 @@ public class CleaningSupervisor extends JFrame implements ActionListener, Observ
 	private JPanel panel;
 
 	private DefaultListModel<String> list; // The list of items that will be displayed to the refuelling
+	private final ListModelBridge rows = ListModelBridge.swing(); // Applies changes to the list on the Swing event thread, once per frame
 
 	private JList<String> outputList;
+	private ArrayList<Integer> shown = new ArrayList<Integer>(); // The mCodes currently displayed in the list, so only those have to be cleared
 
 	public CleaningSupervisor(AircraftManagementDatabase amd) {
 
 		this.aircraftManagementDatabase = amd; // Set the instance of the aircraft management database in the current
 		// object to be the one that is passed into the above parameters
-		amd.addObserver(this);
+		// Only be told about aircraft waiting to be cleaned
+		amd.subscribe(this, ManagementRecord.OK_AWAIT_CLEAN, ManagementRecord.FAULTY_AWAIT_CLEAN,
+				ManagementRecord.READY_FOR_CLEAN_MAINT);
 
 		// Code to initialise the GUI
 		setTitle("Cleaning Supervisor"); // Set the title text that will appear on the window
@@ -91,28 +95,54 @@ public class CleaningSupervisor extends JFrame implements ActionListener, Observ
 	 * Method to update the list of aircrafts
 	 * 
 	 * Setting a list item as null if the corresponding aircraft index is empty, this keeps indexing the same for 
-	 * both an aircraft list and the management record database
+	 * both an aircraft list and the management record database. Only the records with a matching status are
+	 * looked at, using getWithStatus, rather than every record in the database
 	 */
 	private void aircraftListUpdate() {
-		for (int i = 0; i < aircraftManagementDatabase.maxMRs; i++) { // For each record in database
-			ManagementRecord managementRecord = aircraftManagementDatabase.getManagementRecord(i);// Create local instance of that MR
-
-			if (managementRecord == null) {// If record is empty
-				list.set(i, null);// Set the same position (i) in list to be empty
-			} else {// If record is not empty
-				list.set(i, null);// Set the same position (i) in list to be empty
-				// If the status of the management record matches any of the following: 11, 9, 8
-				if (managementRecord.getStatus() == 11 || managementRecord.getStatus() == 9 || managementRecord.getStatus() == 8) {
-					// Create String record and assign it with the flight code and flight status from the current record
-					String record = "Flight Code: " + managementRecord.getFlightCode() + "     " + "Flight Status: "
-							+ managementRecord.getStatusString();
-
-					list.set(i, record); // Add to list of landing aircrafts
+		rows.setSize(list, aircraftManagementDatabase.maxMRs); // Grow the list in line with the database so every mCode is a valid index
+		for (int mCode : shown) { // For each record that was displayed last time
+			rows.set(list, mCode, null); // Set the same position in list to be empty
+		}
+		shown.clear();
+		// Only the records whose status is one of the following: 11, 9, 8
+		for (int status : new int[] { ManagementRecord.OK_AWAIT_CLEAN, ManagementRecord.FAULTY_AWAIT_CLEAN,
+				ManagementRecord.READY_FOR_CLEAN_MAINT }) {
+			for (int mCode : aircraftManagementDatabase.getWithStatus(status)) { // For each record with that status
+				rows.set(list, mCode, flightRecord(aircraftManagementDatabase.snapshot().getRecord(mCode))); // Add to list of aircrafts waiting to be cleaned
+				shown.add(mCode); // Remember that this position is in use
+			}
+		}
+	}
+
+	/*
+	 * Method to update just the aircrafts that have changed
+	 */
+	private void aircraftListUpdate(ChangeSet changes) {
+		DatabaseSnapshot snapshot = aircraftManagementDatabase.snapshot(); // The latest state of the changed records
+		rows.setSize(list, snapshot.size()); // Grow the list in line with the database so every mCode is a valid index
+		for (int mCode : changes.getmCodes()) { // For each record that has changed
+			RecordView aircraft = snapshot.getRecord(mCode);
+			int status = aircraft.getStatus();
+			// If the status of the record is one of the following: 11, 9, 8
+			if (status == ManagementRecord.OK_AWAIT_CLEAN || status == ManagementRecord.FAULTY_AWAIT_CLEAN
+					|| status == ManagementRecord.READY_FOR_CLEAN_MAINT) {
+				rows.set(list, mCode, flightRecord(aircraft)); // Add to list of aircrafts waiting to be cleaned
+				if (!shown.contains(mCode)) {
+					shown.add(mCode); // Remember that this position is in use
 				}
+			} else if (shown.remove(Integer.valueOf(mCode))) { // If the record was displayed but no longer should be
+				rows.set(list, mCode, null); // Set the same position in list to be empty
 			}
 		}
 	}
 
+	/*
+	 * Returns the text shown in the list for the given record: its flight code and status, rendered once for this version and shared by every screen
+	 */
+	private String flightRecord(RecordView aircraft) {
+		return aircraft.getRow();
+	}
+
 	/*
 	 * Method to change view depending if an aircraft has been selected
 	 */
@@ -157,16 +187,16 @@ public class CleaningSupervisor extends JFrame implements ActionListener, Observ
 		if (e.getSource() == cleaningComplete) { // If cleaning complete button is clicked
 
 			if (list.elementAt(selectedFlight).contains("OK_AWAIT_CLEAN")) { // If status is OK_AWAIT_CLEAN
-				aircraftManagementDatabase.setStatus(MRIndex, 13); // Change status
+				aircraftManagementDatabase.transition(MRIndex, ManagementRecord.OK_AWAIT_CLEAN, ManagementRecord.READY_REFUEL); // Change status, unless it has changed since the list was drawn
 				aircraftListUpdate();
 				aircraftSelected();
 			}
 			else if (list.elementAt(selectedFlight).contains("FAULTY_AWAIT_CLEAN")) { // If status is FAULTY_AWAIT_CLEAN
-				aircraftManagementDatabase.setStatus(MRIndex, 12); // Change status
+				aircraftManagementDatabase.transition(MRIndex, ManagementRecord.FAULTY_AWAIT_CLEAN, ManagementRecord.AWAIT_REPAIR); // Change status, unless it has changed since the list was drawn
 				aircraftListUpdate();
 				aircraftSelected();
 			} else if (list.elementAt(selectedFlight).contains("READY_FOR_CLEAN_MAINT")) { // If status is READY_FOR_CLEAN_MAINT
-				aircraftManagementDatabase.setStatus(MRIndex, 10); // Change status
+				aircraftManagementDatabase.transition(MRIndex, ManagementRecord.READY_FOR_CLEAN_MAINT, ManagementRecord.CLEAN_AWAIT_MAINT); // Change status, unless it has changed since the list was drawn
 				aircraftListUpdate();
 				aircraftSelected();
 			}
@@ -177,8 +207,12 @@ public class CleaningSupervisor extends JFrame implements ActionListener, Observ
 	@Override
 	public void update(Observable o, Object arg) {
 
-		aircraftSelected();
-		aircraftListUpdate();
+		rows.later(this, this::aircraftSelected); // On the Swing event thread
+		if (arg instanceof ChangeSet) { // If the database says what has changed, only update those rows
+			aircraftListUpdate((ChangeSet) arg);
+		} else {
+			aircraftListUpdate();
+		}
 	}
 
 }
@@ -0,0 +1,86 @@
+package airport_terminal;
+
+/**
+ * An unchangeable, consistent view of every ManagementRecord in the
+ * AircraftManagementDatabase at one version. Returned by
+ * AircraftManagementDatabase.snapshot().
+ *
+ * A snapshot never changes once it has been taken, however the database
+ * changes afterwards, so a screen can read as much of it as it likes without
+ * locking and will never see a flight half way through a change or listed
+ * under two statuses at once. Snapshots share the RecordViews of records that
+ * have not changed between them, so taking one is cheap.
+ */
+public final class DatabaseSnapshot {
+
+	private final long version;//The version of the database the snapshot was taken at
+	private final int size;//The number of mCodes in the database at that version
+	private final RecordView[][] chunks;//The view of every record, in fixed-size chunks shared with the database
+
+	/**
+	 * The constructor for this class. Only the database makes snapshots.
+	 * @param version The version of the database
+	 * @param size The number of mCodes
+	 * @param chunks The chunks of record views - none of them may change afterwards
+	 */
+	DatabaseSnapshot(long version, int size, RecordView[][] chunks) {
+		this.version = version;
+		this.size = size;
+		this.chunks = chunks;
+	}
+
+	/**
+	 * Return the version of the database this snapshot was taken at. Every change
+	 * to the database increases its version, so a later snapshot has a higher
+	 * version, and two snapshots with the same version hold the same records.
+	 */
+	public long getVersion() {
+		return version;
+	}
+
+	/**
+	 * Return the number of mCodes in the database when the snapshot was taken -
+	 * the maxMRs of that version.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Return the view of the management record with the given mCode.
+	 * @param mCode The position of the management record
+	 * @return The record as it was at this snapshot's version
+	 */
+	public RecordView getRecord(int mCode) {
+		if (mCode < 0 || mCode >= size) {//If there was no such record THEN
+			throw new IndexOutOfBoundsException("mCode " + mCode + " is not in a snapshot of " + size + " records");
+		}
+		return chunks[mCode >> RecordViewTable.CHUNK_BITS][mCode & RecordViewTable.CHUNK_MASK];
+	}
+
+	/**
+	 * Return the status of the management record with the given mCode.
+	 * @param mCode The position of the management record
+	 * @return The status code at this snapshot's version
+	 */
+	public int getStatus(int mCode) {
+		return getRecord(mCode).getStatus();
+	}
+
+	/**
+	 * Returns the mCodes of the records that had the given status when the
+	 * snapshot was taken, in ascending order.
+	 * @param statusCode The status code to look for
+	 * @return A new array of the matching mCodes
+	 */
+	public int[] getWithStatus(int statusCode) {
+		int[] matches = new int[size];
+		int count = 0;//The number of matching records found so far
+		for (int mCode = 0; mCode < size; mCode++) {//For every record in the snapshot
+			if (getRecord(mCode).getStatus() == statusCode) {
+				matches[count++] = mCode;
+			}
+		}
+		return java.util.Arrays.copyOf(matches, count);//Return just the matching mCodes
+	}
+}
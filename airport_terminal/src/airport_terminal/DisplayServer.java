@@ -0,0 +1,175 @@
+package airport_terminal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pushes the rows of the public flight board - the flights landing, landed and
+ * departing, as PublicInfo shows them - to any number of remote flight
+ * information displays connected over TCP.
+ *
+ * The server is an EventRing consumer. It keeps its own FlightBoard, and for
+ * every change to a record that shows on the board it encodes the
+ * FlightBoard.Delta - the row inserted, moved, with new text, or removed.
+ * Changes that do not show on the board are not sent at all. The deltas for a
+ * whole batch taken from the ring are encoded once, into one buffer, which a
+ * Broadcaster sends to every display, so nothing is encoded again per display.
+ *
+ * The database is never held up by a display: the ring consumer only hands
+ * the buffer over, and a display that falls more than maxBacklog bytes behind
+ * is disconnected, and can reconnect to be sent the whole board again.
+ *
+ * A display that connects is first sent an INSERT for every row on the board.
+ * Deltas are in order for each mCode, and a display should ignore one whose
+ * version is not newer than the row it has, as it may already have been sent
+ * the row in the whole board.
+ */
+public class DisplayServer implements EventRing.Handler, Closeable {
+
+	private final AircraftManagementDatabase amd;
+	private final Broadcaster displays;
+	private final FlightBoard board = new FlightBoard();//Only used by the ring consumer
+	private boolean boardFilled;//True once the board has been filled from the database
+	private ByteBuffer batch = ByteBuffer.allocate(16 * 1024);//The deltas of the batch being taken from the ring
+	private final AtomicLong deltas = new AtomicLong();//The number of deltas encoded
+	private final AtomicLong batches = new AtomicLong();//The number of buffers encoded
+	private final AtomicLong encoded = new AtomicLong();//The number of bytes encoded
+
+	/**
+	 * The constructor for this class. Starts accepting displays on the loopback
+	 * address. The server must also be added to the EventRing the database
+	 * publishes on.
+	 * @param amd The aircraft database
+	 * @param port The port to listen on, or 0 for any free port
+	 * @param maxBacklog The most bytes that can be waiting for one display before it is disconnected
+	 * @throws IOException If the port cannot be listened on
+	 */
+	public DisplayServer(AircraftManagementDatabase amd, int port, long maxBacklog) throws IOException {
+		this(amd, new InetSocketAddress(InetAddress.getLoopbackAddress(), port), maxBacklog);
+	}
+
+	/**
+	 * The constructor for this class. Starts accepting displays on the given
+	 * address.
+	 * @param amd The aircraft database
+	 * @param address The address to listen on
+	 * @param maxBacklog The most bytes that can be waiting for one display before it is disconnected
+	 * @throws IOException If the address cannot be listened on
+	 */
+	public DisplayServer(AircraftManagementDatabase amd, InetSocketAddress address, long maxBacklog) throws IOException {
+		this.amd = amd;
+		this.displays = new Broadcaster("DisplayServer", address, maxBacklog, this::wholeBoard);
+	}
+
+	@Override
+	public void onEvent(ChangeEvent event, long sequence, boolean endOfBatch) {
+		if (!boardFilled) {//The first time, start from every record - anything older is then ignored
+			board.update(amd.snapshot());
+			boardFilled = true;
+		}
+		FlightBoard.Delta delta = event.getSource() == ChangeEvent.Source.AIRCRAFT ? board.update(event.getRecord()) : null;
+		if (delta != null && displays.getClientCount() > 0) {//No need to encode anything if nobody is watching
+			while (true) {//Until the delta fits in the batch
+				int start = batch.position();
+				try {
+					delta.encode(batch);
+					deltas.incrementAndGet();
+					break;
+				} catch (BufferOverflowException e) {
+					batch.position(start);
+					if (start > 0) {//If there are other deltas waiting THEN
+						hand();//Send them, to make room
+					} else {
+						batch = ByteBuffer.allocate(batch.capacity() * 2);
+					}
+				}
+			}
+		}
+		if (endOfBatch) {//If no more changes are waiting THEN
+			hand();//Send the whole batch at once
+		}
+	}
+
+	/**
+	 * Hands the deltas encoded so far to the displays, as one buffer.
+	 */
+	private void hand() {
+		batch.flip();
+		if (batch.hasRemaining()) {
+			encoded.addAndGet(displays.send(batch));
+			batches.incrementAndGet();
+		}
+		batch.clear();
+	}
+
+	/**
+	 * Encodes an INSERT for every row on the board, for a display that has
+	 * just connected. Any delta encoded before this is older than the board.
+	 */
+	private ByteBuffer wholeBoard() {
+		List<FlightBoard.Delta> rows = new FlightBoard().update(amd.snapshot());
+		ByteBuffer whole = ByteBuffer.allocate(4096);
+		while (true) {//Until the board fits in the buffer
+			try {
+				whole.clear();
+				for (FlightBoard.Delta row : rows) {
+					row.encode(whole);
+				}
+				break;
+			} catch (BufferOverflowException e) {
+				whole = ByteBuffer.allocate(whole.capacity() * 2);
+			}
+		}
+		whole.flip();
+		return whole;
+	}
+
+	/**
+	 * Stops accepting displays and disconnects those connected.
+	 */
+	@Override
+	public void close() {
+		displays.close();
+	}
+
+	/** Return the port displays connect to. */
+	public int getPort() {
+		return displays.getPort();
+	}
+
+	/** Return the number of displays connected. */
+	public int getDisplayCount() {
+		return displays.getClientCount();
+	}
+
+	/** Return the number of deltas encoded - each once, however many displays there are. */
+	public long getDeltaCount() {
+		return deltas.get();
+	}
+
+	/** Return the number of buffers of deltas encoded. */
+	public long getBatchCount() {
+		return batches.get();
+	}
+
+	/** Return the number of bytes of deltas encoded. */
+	public long getBytesEncoded() {
+		return encoded.get();
+	}
+
+	/** Return the number of bytes written to all displays, including whole boards. */
+	public long getBytesWritten() {
+		return displays.getBytesWritten();
+	}
+
+	/** Return the number of displays disconnected for falling too far behind. */
+	public long getSlowDisplayCount() {
+		return displays.getSlowCount();
+	}
+}
@@ -0,0 +1,68 @@
+package airport_terminal;
+
+//Allow assertions to be used
+import static org.junit.jupiter.api.Assertions.*;
+import static airport_terminal.TestFlights.*;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+
+//Imports for allowing test and the before each test method
+import org.junit.jupiter.api.Test;
+
+
+class DisplayServerTest {
+	@Test
+	void testDisplayServerPushesBoardToEveryDisplay() throws Exception {
+		AirportServer airport = new AirportServer(null, null, false);
+		try {
+			AircraftManagementDatabase amd = airport.getAircraftDatabase();
+			DisplayServer server = airport.startDisplayServer(0);
+			int mCode = amd.radarDetect(flight("BA1", "Stirling"));
+			Socket[] displays = new Socket[2];
+			for (int i = 0; i < displays.length; i++) {
+				displays[i] = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+				displays[i].setSoTimeout(5000);
+			}
+			long deadline = System.currentTimeMillis() + 5000;
+			while (server.getDisplayCount() < displays.length && System.currentTimeMillis() < deadline) {
+				Thread.sleep(5);
+			}
+			for (Socket display : displays) {//Each is sent the whole board first
+				FlightBoard.Delta row = readUpdate(display);
+				assertEquals(mCode, row.getmCode(), "The board sent the wrong flight");
+				assertEquals(FlightBoard.LANDING, row.getTo(), "The board has the flight in the wrong section");
+				assertEquals("Flight Code: BA1     Flight Status: LANDING", row.getText(), "The board row has the wrong text");
+			}
+			moveTo(amd, mCode, ManagementRecord.LANDED);
+			for (Socket display : displays) {
+				FlightBoard.Delta row;
+				do {//Skip any update older than the board
+					row = readUpdate(display);
+				} while (row.getTo() != FlightBoard.LANDED);
+				assertEquals(mCode, row.getmCode(), "The update is for the wrong flight");
+				assertEquals("Flight Code: BA1     Flight Status: LANDED", row.getText(), "The update has the wrong text");
+			}
+			assertTrue(server.getDeltaCount() <= 2, "Deltas were encoded once per display");
+			displays[0].close();
+			amd.setStatus(mCode, ManagementRecord.TAXIING);//A display going away does not stop the others
+			FlightBoard.Delta row;
+			do {
+				row = readUpdate(displays[1]);
+			} while (row.getText() == null || !row.getText().contains("TAXIING"));
+			displays[1].close();
+		} finally {
+			airport.shutdown();
+		}
+	}
+
+	private FlightBoard.Delta readUpdate(Socket display) throws IOException {
+		DataInputStream in = new DataInputStream(display.getInputStream());
+		byte[] bytes = new byte[in.readInt()];
+		in.readFully(bytes);
+		return FlightBoard.Delta.decode(ByteBuffer.wrap(bytes));
+	}
+}
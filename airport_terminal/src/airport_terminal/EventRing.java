@@ -0,0 +1,310 @@
+package airport_terminal;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A fixed-size ring of slots that carries the ChangeEvents of the
+ * AircraftManagementDatabase and the GateInfoDatabase to any number of
+ * independent consumers, such as the screens, a journal and metrics.
+ *
+ * Every event is given the next sequence number and is stored in the slot at
+ * that number modulo the capacity. Each consumer runs on its own thread and
+ * keeps its own sequence: the number of the last event it has handled. It
+ * handles every event published after it was added, in order, and is told
+ * when an event is the last one currently available, so that it can act on a
+ * whole batch at once. A producer never overwrites a slot that a consumer has
+ * not yet handled - if the slowest consumer is a whole ring behind, the
+ * producer waits for it to catch up.
+ *
+ * Publishing and consuming take no locks: the slots are allocated once, and
+ * producers and consumers only coordinate through the sequence numbers.
+ */
+public class EventRing {
+
+	/**
+	 * How a consumer waits for events to be published.
+	 */
+	public enum WaitStrategy {
+		BUSY_SPIN, //Checks again straight away - lowest latency, but keeps a processor busy
+		YIELDING, //Lets other threads run between checks
+		SLEEPING, //Spins, then yields, then sleeps briefly between checks - low processor use
+		BLOCKING //Waits to be woken by the producer - lowest processor use, highest latency
+	}
+
+	/**
+	 * Handles the events taken from the ring by one consumer.
+	 */
+	public interface Handler {
+
+		/**
+		 * Called once for every event, in order, on the consumer's thread.
+		 * @param event The event
+		 * @param sequence The event's sequence number
+		 * @param endOfBatch True if no more events are available yet
+		 */
+		void onEvent(ChangeEvent event, long sequence, boolean endOfBatch);
+	}
+
+	/**
+	 * One consumer of the ring, with its own sequence and thread.
+	 */
+	public final class Consumer {
+		private final Handler handler;
+		private final WaitStrategy waitStrategy;
+		private final AtomicLong sequence;//The sequence number of the last event handled
+		private final AtomicLong errors = new AtomicLong();//The number of events the handler threw an exception for
+		private volatile boolean running = true;
+		private final Thread thread;
+
+		private Consumer(String name, Handler handler, WaitStrategy waitStrategy, long start) {
+			this.handler = handler;
+			this.waitStrategy = waitStrategy;
+			this.sequence = new AtomicLong(start);
+			thread = new Thread(this::run, name);
+			thread.setDaemon(true);//Do not keep the application running
+		}
+
+		/**
+		 * The consumer's thread: hands every published event to the handler, waiting
+		 * when there are none.
+		 */
+		private void run() {
+			long next = sequence.get() + 1;
+			int idle = 0;//The number of times in a row there was nothing to handle
+			while (running) {
+				long available = highestPublished(next);
+				if (available < next) {//If nothing new has been published THEN
+					waitForEvents(waitStrategy, idle++, next);
+					continue;
+				}
+				idle = 0;
+				for (long current = next; current <= available; current++) {//For every event available
+					try {
+						handler.onEvent(slots[(int) (current & mask)], current, current == available);
+					} catch (RuntimeException e) {
+						errors.incrementAndGet();//A failing handler must not stop the ring
+					}
+				}
+				sequence.set(available);//Frees the slots for the producers
+				next = available + 1;
+			}
+		}
+
+		/** Return the sequence number of the last event this consumer has handled. */
+		public long getSequence() {
+			return sequence.get();
+		}
+
+		/** Return the number of events published that this consumer has not yet handled. */
+		public long getLag() {
+			return Math.max(0, claimed.get() - sequence.get());
+		}
+
+		/** Return the number of events the handler threw an exception for. */
+		public long getErrorCount() {
+			return errors.get();
+		}
+
+		/**
+		 * Stops the consumer. Producers no longer wait for it.
+		 */
+		public void halt() {
+			running = false;
+			consumers.remove(this);
+			thread.interrupt();
+		}
+	}
+
+	private final int capacity;
+	private final int mask;//capacity - 1, for finding the slot for a sequence number
+	private final ChangeEvent[] slots;//The events, at their sequence number modulo the capacity
+	private final AtomicLongArray published;//The sequence number of the event last published in each slot
+	private final AtomicLong claimed = new AtomicLong(-1);//The highest sequence number given to a producer
+	private final CopyOnWriteArrayList<Consumer> consumers = new CopyOnWriteArrayList<Consumer>();
+	private final Object signal = new Object();//What BLOCKING consumers wait on
+	private final AtomicInteger blocked = new AtomicInteger();//The number of consumers waiting on signal
+	private final AtomicLong stalls = new AtomicLong();//The number of times a producer had to wait for a consumer
+
+	/**
+	 * The constructor for this class.
+	 * @param capacity The number of slots - rounded up to a power of two
+	 */
+	public EventRing(int capacity) {
+		int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;//The next power of two
+		this.capacity = size;
+		this.mask = size - 1;
+		this.slots = new ChangeEvent[size];
+		this.published = new AtomicLongArray(size);
+		for (int i = 0; i < size; i++) {
+			published.set(i, -1);//Nothing has been published in any slot
+		}
+	}
+
+	/**
+	 * Adds a consumer, which is given every event published from now on, and
+	 * starts its thread.
+	 * @param name The name of the consumer's thread
+	 * @param handler Handles the events
+	 * @param waitStrategy How the consumer waits for events
+	 * @return The consumer
+	 */
+	public Consumer addConsumer(String name, Handler handler, WaitStrategy waitStrategy) {
+		Consumer consumer = new Consumer(name, handler, waitStrategy, claimed.get());
+		consumers.add(consumer);
+		consumer.thread.start();
+		return consumer;
+	}
+
+	/**
+	 * Publishes one event, waiting if the slowest consumer is a whole ring behind.
+	 * @param event The event
+	 */
+	public void publish(ChangeEvent event) {
+		long sequence = claim(1);
+		store(sequence, event);
+		wakeConsumers();
+	}
+
+	/**
+	 * Publishes the events of a change set under consecutive sequence numbers, so
+	 * consumers see them together, waiting if the slowest consumer is a whole ring
+	 * behind.
+	 * @param changes The events
+	 */
+	public void publish(ChangeSet changes) {
+		int from = 0;
+		while (from < changes.size()) {//A change set larger than the ring is published a ring at a time
+			int count = Math.min(capacity, changes.size() - from);
+			long first = claim(count);
+			for (int i = 0; i < count; i++) {
+				store(first + i, changes.getEvents().get(from + i));
+			}
+			from += count;
+		}
+		wakeConsumers();
+	}
+
+	/**
+	 * Claims the next count sequence numbers and waits until no consumer still
+	 * needs their slots.
+	 * @return The first sequence number claimed
+	 */
+	private long claim(int count) {
+		long last = claimed.addAndGet(count);
+		long wrapPoint = last - capacity;//The slots up to here must have been handled by every consumer
+		int attempts = 0;
+		while (wrapPoint > slowestSequence(last)) {//While a consumer is still a ring behind
+			if (attempts++ == 0) {
+				stalls.incrementAndGet();
+			}
+			wakeConsumers();
+			LockSupport.parkNanos(1000);//Back off while it catches up
+		}
+		return last - count + 1;
+	}
+
+	/**
+	 * Stores an event in its slot and marks it as published.
+	 */
+	private void store(long sequence, ChangeEvent event) {
+		int index = (int) (sequence & mask);
+		slots[index] = event;
+		published.set(index, sequence);//Makes the event visible to the consumers
+	}
+
+	/**
+	 * Return the lowest sequence of any consumer, or the given default if there
+	 * are none.
+	 */
+	private long slowestSequence(long defaultValue) {
+		long slowest = defaultValue;
+		for (Consumer consumer : consumers) {
+			slowest = Math.min(slowest, consumer.sequence.get());
+		}
+		return slowest;
+	}
+
+	/**
+	 * Return the highest sequence number from next onwards for which every event
+	 * has been published, or next - 1 if the event at next has not been.
+	 */
+	private long highestPublished(long next) {
+		long highest = next - 1;
+		long limit = claimed.get();
+		for (long sequence = next; sequence <= limit; sequence++) {
+			if (published.get((int) (sequence & mask)) != sequence) {//If a producer has not finished with this one yet THEN
+				break;
+			}
+			highest = sequence;
+		}
+		return highest;
+	}
+
+	/**
+	 * Waits for more events in the way given by the strategy.
+	 * @param idle The number of times in a row there was nothing to handle
+	 * @param next The sequence number being waited for
+	 */
+	private void waitForEvents(WaitStrategy waitStrategy, int idle, long next) {
+		switch (waitStrategy) {
+		case BUSY_SPIN:
+			break;
+		case YIELDING:
+			Thread.yield();
+			break;
+		case SLEEPING:
+			if (idle < 100) {
+				break;//Spin at first
+			} else if (idle < 200) {
+				Thread.yield();
+			} else {
+				LockSupport.parkNanos(100000);
+			}
+			break;
+		case BLOCKING:
+			synchronized (signal) {
+				blocked.incrementAndGet();
+				try {
+					if (highestPublished(next) < next) {//Check again now that the producer will wake us
+						signal.wait(10);
+					}
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				} finally {
+					blocked.decrementAndGet();
+				}
+			}
+			break;
+		}
+	}
+
+	/**
+	 * Wakes any BLOCKING consumers.
+	 */
+	private void wakeConsumers() {
+		if (blocked.get() > 0) {//Only take the lock if someone is waiting
+			synchronized (signal) {
+				signal.notifyAll();
+			}
+		}
+	}
+
+	/** Return the number of slots. */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/** Return the sequence number of the last event claimed by a producer, or -1 if none. */
+	public long getCursor() {
+		return claimed.get();
+	}
+
+	/** Return the number of times a producer had to wait for a slow consumer. */
+	public long getStallCount() {
+		return stalls.get();
+	}
+}
@@ -0,0 +1,74 @@
+package airport_terminal;
+
+//Allow assertions to be used
+import static org.junit.jupiter.api.Assertions.*;
+import static airport_terminal.TestFlights.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+//Imports for allowing test and the before each test method
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+
+
+class EventRingTest {
+	AircraftManagementDatabase amd;
+
+	/**
+	 * This method runs before each individual test is run
+	 */
+	@BeforeEach
+	void setup() {
+		//Set up a new database to be used so that information is not left over from previous tests
+		amd = new AircraftManagementDatabase();
+	}
+
+	/**
+	 * Tests that changes published on an event ring reach the observers from the ring's consumer, in order, and that every consumer sees every change
+	 */
+	@Test
+	@SuppressWarnings("deprecation")
+	void testEventRingDeliversToEveryConsumer() throws InterruptedException {
+		EventRing ring = new EventRing(4);//Small, so the producer has to wait for the consumers
+		List<ChangeSet> notifications = Collections.synchronizedList(new ArrayList<ChangeSet>());
+		amd.addObserver((o, arg) -> notifications.add((ChangeSet) arg));
+		EventRing.Consumer observers = amd.setEventRing(ring, EventRing.WaitStrategy.BLOCKING);
+		CountDownLatch slowStarted = new CountDownLatch(1);
+		List<Long> seen = Collections.synchronizedList(new ArrayList<Long>());
+		EventRing.Consumer slow = ring.addConsumer("slow", (event, sequence, endOfBatch) -> {
+			slowStarted.countDown();
+			seen.add(event.getVersion());
+			try {
+				Thread.sleep(2);//Slower than the producer
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}, EventRing.WaitStrategy.SLEEPING);
+
+		int mCode = amd.radarDetect(flight("BA1", "Stirling"));
+		int[] statuses = { ManagementRecord.GROUND_CLEARANCE_GRANTED, ManagementRecord.LANDING, ManagementRecord.LANDED, ManagementRecord.TAXIING,
+				ManagementRecord.UNLOADING, ManagementRecord.READY_FOR_CLEAN_MAINT, ManagementRecord.CLEAN_AWAIT_MAINT, ManagementRecord.READY_REFUEL };
+		for (int status : statuses) {
+			amd.setStatus(mCode, status);
+		}
+		assertTrue(slowStarted.await(5, TimeUnit.SECONDS), "The slow consumer did not start");
+		long deadline = System.currentTimeMillis() + 5000;
+		while ((slow.getSequence() < ring.getCursor() || observers.getSequence() < ring.getCursor()) && System.currentTimeMillis() < deadline) {
+			Thread.sleep(5);
+		}
+		assertEquals(0, slow.getLag(), "The slow consumer did not catch up");
+		assertTrue(ring.getStallCount() > 0, "The producer never waited for the slow consumer");
+		assertEquals(statuses.length + 1, seen.size(), "The slow consumer missed changes");
+		for (int i = 1; i < seen.size(); i++) {
+			assertTrue(seen.get(i - 1) < seen.get(i), "The slow consumer saw the changes out of order");
+		}
+		ChangeSet last = notifications.get(notifications.size() - 1);
+		assertEquals(ManagementRecord.READY_REFUEL, last.getEvents().get(0).getNewStatus(), "The observers were not told about the last change");
+		slow.halt();
+		observers.halt();
+	}
+}
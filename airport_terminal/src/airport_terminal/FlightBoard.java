@@ -0,0 +1,304 @@
+package airport_terminal;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The model of the public flight board: which section - landing, landed or
+ * departing - each aircraft's row is in, and the row's text. It is given the
+ * records that have changed, and works out how the board has changed as a
+ * Delta for each row: inserted, moved to another section, its text changed,
+ * or removed. PublicInfo and the DisplayServer pass on just the deltas, so a
+ * change to one record costs one row, and a change that does not show on the
+ * board - a passenger checking in, say - costs nothing.
+ *
+ * Rows are kept by mCode along with the version of the record they show, so a
+ * record older than the row already on the board is ignored. The section and
+ * label for each status are looked up in tables built once, so working out a
+ * row, and moving it to another section, take constant time.
+ *
+ * A board is not thread-safe: it should only be used by one thread.
+ */
+public class FlightBoard {
+
+	/** Section code for a row that is not on the board. */
+	public static final int NONE = -1;
+	/** Section code for the flights landing. */
+	public static final int LANDING = 0;
+	/** Section code for the flights landed. */
+	public static final int LANDED = 1;
+	/** Section code for the flights departing. */
+	public static final int DEPARTING = 2;
+
+	/**
+	 * How one row of the board has changed.
+	 */
+	public static final class Delta {
+
+		/** Kind of delta for a row added to the board. */
+		public static final int INSERT = 0;
+		/** Kind of delta for a row moved to another section, perhaps with new text. */
+		public static final int MOVE = 1;
+		/** Kind of delta for a row whose text changed in the same section. */
+		public static final int TEXT = 2;
+		/** Kind of delta for a row taken off the board. */
+		public static final int REMOVE = 3;
+
+		private final int kind;
+		private final int mCode;
+		private final long version;
+		private final int from;
+		private final int to;
+		private final String text;
+
+		Delta(int kind, int mCode, long version, int from, int to, String text) {
+			this.kind = kind;
+			this.mCode = mCode;
+			this.version = version;
+			this.from = from;
+			this.to = to;
+			this.text = text;
+		}
+
+		/**
+		 * Writes the delta as its length, then its kind, mCode, version, sections
+		 * and text.
+		 * @param out Where to write it
+		 * @throws java.nio.BufferOverflowException If there is not enough room - the buffer's position is then undefined
+		 */
+		public void encode(ByteBuffer out) {
+			int start = out.position();
+			out.putInt(0);//The length, filled in below
+			out.put((byte) kind);
+			out.putInt(mCode);
+			out.putLong(version);
+			out.put((byte) from);
+			out.put((byte) to);
+			JournalEntry.putString(out, text);
+			out.putInt(start, out.position() - start - 4);
+		}
+
+		/**
+		 * Reads a delta written by encode, after its length.
+		 * @param in The bytes of the delta
+		 * @return The delta
+		 */
+		public static Delta decode(ByteBuffer in) {
+			return new Delta(in.get(), in.getInt(), in.getLong(), in.get(), in.get(), JournalEntry.getString(in));
+		}
+
+		/** Return INSERT, MOVE, TEXT or REMOVE. */
+		public int getKind() {
+			return kind;
+		}
+
+		/** Return the mCode of the record the row shows. */
+		public int getmCode() {
+			return mCode;
+		}
+
+		/** Return the version of the record the row shows. */
+		public long getVersion() {
+			return version;
+		}
+
+		/** Return the section the row was in, or NONE if it was not on the board. */
+		public int getFrom() {
+			return from;
+		}
+
+		/** Return the section the row is now in, or NONE if it has left the board. */
+		public int getTo() {
+			return to;
+		}
+
+		/** Return the text of the row, or null if it has left the board. */
+		public String getText() {
+			return text;
+		}
+
+		@Override
+		public String toString() {
+			return new String[] { "INSERT", "MOVE", "TEXT", "REMOVE" }[kind] + " " + mCode + "@" + version + " " + from + "->" + to + " " + text;
+		}
+	}
+
+	private static final int[] SECTIONS = new int[StatusIndex.STATUS_COUNT];//The section each status is shown in, or NONE
+	private static final String[] LABELS = new String[StatusIndex.STATUS_COUNT];//The status each status is shown as
+	private static final boolean[] SHOWS_GATE = new boolean[StatusIndex.STATUS_COUNT];//Whether the gate is shown for each status
+
+	static {
+		Arrays.fill(SECTIONS, NONE);//Statuses not listed below are not on the board
+		show(ManagementRecord.WANTING_TO_LAND, LANDING, "LANDING", false);
+		show(ManagementRecord.GROUND_CLEARANCE_GRANTED, LANDING, "LANDING", false);
+		show(ManagementRecord.LANDING, LANDING, "LANDING", false);
+		show(ManagementRecord.LANDED, LANDED, "LANDED", false);
+		show(ManagementRecord.TAXIING, LANDED, "TAXIING", true);
+		show(ManagementRecord.UNLOADING, LANDED, "DOCKED", true);
+		show(ManagementRecord.READY_PASSENGERS, DEPARTING, "NOW BOARDING", true);
+		show(ManagementRecord.READY_DEPART, DEPARTING, "BOARDING COMPLETE", true);
+		show(ManagementRecord.AWAITING_TAXI, DEPARTING, "DEPARTED", true);
+		show(ManagementRecord.AWAITING_TAKEOFF, DEPARTING, "DEPARTED", true);
+		show(ManagementRecord.DEPARTING_THROUGH_LOCAL_AIRSPACE, DEPARTING, "DEPARTED", true);
+	}
+
+	private static void show(int status, int section, String label, boolean showsGate) {
+		SECTIONS[status] = section;
+		LABELS[status] = label;
+		SHOWS_GATE[status] = showsGate;
+	}
+
+	private int[] sections = new int[0];//The section of each mCode's row, or NONE
+	private String[] texts = new String[0];//The text of each mCode's row, or null
+	private long[] versions = new long[0];//The version of the record each mCode's row shows
+	private final int[] counts = new int[3];//The number of rows in each section
+
+	/**
+	 * Returns the section of the board a record in the given status is shown in.
+	 * @param status The record's status
+	 * @return The section, or NONE
+	 */
+	static int section(int status) {
+		return status >= 0 && status < SECTIONS.length ? SECTIONS[status] : NONE;
+	}
+
+	/**
+	 * Returns the text of a record's row.
+	 * @param record The record
+	 * @return The text, or null if the record is not on the board
+	 */
+	static String text(RecordView record) {
+		int status = record.getStatus();
+		if (section(status) == NONE) {
+			return null;
+		}
+		StringBuilder text = new StringBuilder(80).append("Flight Code: ").append(record.getFlightCode()).append("     Flight Status: ").append(LABELS[status]);
+		if (SHOWS_GATE[status] && record.getGateNumber() >= 0) {//Only once a gate has been allocated
+			text.append("     Gate Number: ").append(record.getGateNumber() + 1);//The gate number as shown to the public
+		}
+		return text.toString();
+	}
+
+	/**
+	 * Returns every status that is shown on the board, so a screen can subscribe
+	 * to just those: it is still told when an aircraft leaves the board, as that
+	 * is a move out of one of them.
+	 * @return The ManagementRecord status codes
+	 */
+	public static int[] boardStatuses() {
+		int count = 0;
+		int[] statuses = new int[SECTIONS.length];
+		for (int status = 0; status < SECTIONS.length; status++) {
+			if (SECTIONS[status] != NONE) {
+				statuses[count++] = status;
+			}
+		}
+		return Arrays.copyOf(statuses, count);
+	}
+
+	/**
+	 * Brings a record's row up to date.
+	 * @param record The record
+	 * @return How the row changed, or null if it did not - either nothing on the board changed, or the board already shows this version or a newer one
+	 */
+	public Delta update(RecordView record) {
+		int mCode = record.getmCode();
+		if (mCode >= sections.length) {//Grow in line with the database
+			int size = Math.max(mCode + 1, sections.length * 2);
+			int oldSize = sections.length;
+			sections = Arrays.copyOf(sections, size);
+			Arrays.fill(sections, oldSize, size, NONE);
+			texts = Arrays.copyOf(texts, size);
+			versions = Arrays.copyOf(versions, size);
+		}
+		if (record.getVersion() <= versions[mCode] && versions[mCode] > 0) {//If the board is already newer THEN
+			return null;
+		}
+		versions[mCode] = record.getVersion();
+		int from = sections[mCode];
+		int to = section(record.getStatus());
+		String text = record.getBoardRow();//Rendered once per version of the record, however many boards show it
+		int kind;
+		if (from == NONE && to == NONE) {
+			return null;//Not on the board before or after
+		} else if (from == NONE) {
+			kind = Delta.INSERT;
+		} else if (to == NONE) {
+			kind = Delta.REMOVE;
+		} else if (from != to) {
+			kind = Delta.MOVE;
+		} else if (!text.equals(texts[mCode])) {
+			kind = Delta.TEXT;
+		} else {
+			return null;//The same row in the same place
+		}
+		if (from != NONE) {
+			counts[from]--;
+		}
+		if (to != NONE) {
+			counts[to]++;
+		}
+		sections[mCode] = to;
+		texts[mCode] = text;
+		return new Delta(kind, mCode, record.getVersion(), from, to, text);
+	}
+
+	/**
+	 * Brings the rows of the given records up to date.
+	 * @param snapshot The records
+	 * @param mCodes The mCodes of the records that may have changed
+	 * @return How the rows changed, in order of mCode
+	 */
+	public List<Delta> update(DatabaseSnapshot snapshot, int[] mCodes) {
+		List<Delta> deltas = new ArrayList<Delta>();
+		for (int mCode : mCodes) {
+			Delta delta = update(snapshot.getRecord(mCode));
+			if (delta != null) {
+				deltas.add(delta);
+			}
+		}
+		return deltas;
+	}
+
+	/**
+	 * Brings every row up to date.
+	 * @param snapshot Every record
+	 * @return How the rows changed, in order of mCode
+	 */
+	public List<Delta> update(DatabaseSnapshot snapshot) {
+		List<Delta> deltas = new ArrayList<Delta>();
+		for (int mCode = 0; mCode < snapshot.size(); mCode++) {
+			Delta delta = update(snapshot.getRecord(mCode));
+			if (delta != null) {
+				deltas.add(delta);
+			}
+		}
+		return deltas;
+	}
+
+	/**
+	 * Return the section a record's row is in, or NONE.
+	 * @param mCode The record's mCode
+	 */
+	public int getSection(int mCode) {
+		return mCode < sections.length ? sections[mCode] : NONE;
+	}
+
+	/**
+	 * Return the number of rows in a section.
+	 * @param section LANDING, LANDED or DEPARTING
+	 */
+	public int getCount(int section) {
+		return counts[section];
+	}
+
+	/**
+	 * Return the text of a record's row, or null if it is not on the board.
+	 * @param mCode The record's mCode
+	 */
+	public String getText(int mCode) {
+		return mCode < texts.length ? texts[mCode] : null;
+	}
+}
@@ -0,0 +1,82 @@
+package airport_terminal;
+
+//Allow assertions to be used
+import static org.junit.jupiter.api.Assertions.*;
+import static airport_terminal.TestFlights.*;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+//Imports for allowing test and the before each test method
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+
+
+class FlightBoardTest {
+	AircraftManagementDatabase amd;
+
+	/**
+	 * This method runs before each individual test is run
+	 */
+	@BeforeEach
+	void setup() {
+		//Set up a new database to be used so that information is not left over from previous tests
+		amd = new AircraftManagementDatabase();
+	}
+
+	@Test
+	void testFlightBoardDeltas() {
+		FlightBoard board = new FlightBoard();
+		int mCode = amd.radarDetect(flight("BA1", "Stirling"));
+		FlightBoard.Delta delta = board.update(amd.snapshot().getRecord(mCode));
+		assertEquals(FlightBoard.Delta.INSERT, delta.getKind(), "A new flight was not inserted");
+		assertEquals(FlightBoard.LANDING, delta.getTo(), "A new flight was put in the wrong section");
+		RecordView old = amd.snapshot().getRecord(mCode);
+		amd.setStatus(mCode, ManagementRecord.GROUND_CLEARANCE_GRANTED);
+		assertNull(board.update(amd.snapshot().getRecord(mCode)), "A change that does not show on the board made a delta");
+		moveTo(amd, mCode, ManagementRecord.LANDED);
+		delta = board.update(amd.snapshot().getRecord(mCode));
+		assertEquals(FlightBoard.Delta.MOVE, delta.getKind(), "A landed flight was not moved");
+		assertEquals(FlightBoard.LANDING, delta.getFrom(), "The move is from the wrong section");
+		assertEquals(FlightBoard.LANDED, delta.getTo(), "The move is to the wrong section");
+		assertNull(board.update(old), "An older version of the record changed the board");
+		amd.taxiTo(mCode, 1);
+		delta = board.update(amd.snapshot().getRecord(mCode));
+		assertEquals(FlightBoard.Delta.TEXT, delta.getKind(), "A taxiing flight's text was not changed");
+		assertEquals("Flight Code: BA1     Flight Status: TAXIING     Gate Number: 2", delta.getText(), "The row has the wrong text");
+		moveTo(amd, mCode, ManagementRecord.READY_FOR_CLEAN_MAINT);
+		delta = board.update(amd.snapshot().getRecord(mCode));
+		assertEquals(FlightBoard.Delta.REMOVE, delta.getKind(), "A flight being cleaned was not removed");
+		assertEquals(FlightBoard.NONE, board.getSection(mCode), "The removed row is still on the board");
+		ByteBuffer buffer = ByteBuffer.allocate(256);
+		delta.encode(buffer);
+		buffer.flip();
+		assertEquals(buffer.remaining() - 4, buffer.getInt(), "The encoded length is wrong");
+		assertEquals(delta.toString(), FlightBoard.Delta.decode(buffer).toString(), "The delta did not survive encoding");
+	}
+
+	@Test
+	void testFlightBoardTable() {
+		int[] statuses = FlightBoard.boardStatuses();
+		assertEquals(11, statuses.length, "The wrong number of statuses are shown on the board");
+		assertFalse(Arrays.stream(statuses).anyMatch(status -> status == ManagementRecord.READY_FOR_CLEAN_MAINT), "Cleaning is shown on the board");
+		assertEquals(FlightBoard.DEPARTING, FlightBoard.section(ManagementRecord.DEPARTING_THROUGH_LOCAL_AIRSPACE), "Departing aircraft are not shown departing");
+		assertEquals(FlightBoard.NONE, FlightBoard.section(ManagementRecord.IN_TRANSIT), "Aircraft in transit are shown");
+		assertEquals(FlightBoard.NONE, FlightBoard.section(-1), "An unknown status is shown");
+
+		FlightBoard board = new FlightBoard();
+		int landing = amd.radarDetect(flight("BA1", "Stirling"));
+		int departing = amd.radarDetect(flight("BA2", "Stirling"));
+		moveTo(amd, departing, ManagementRecord.LANDED);
+		amd.taxiTo(departing, 0);
+		moveTo(amd, departing, ManagementRecord.READY_DEPART);
+		board.update(amd.snapshot());
+		assertEquals(1, board.getCount(FlightBoard.LANDING), "The landing section has the wrong number of rows");
+		assertEquals(1, board.getCount(FlightBoard.DEPARTING), "The departing section has the wrong number of rows");
+		assertEquals("Flight Code: BA2     Flight Status: BOARDING COMPLETE     Gate Number: 1", board.getText(departing), "The row has the wrong text");
+		moveTo(amd, landing, ManagementRecord.LANDED);
+		board.update(amd.snapshot(), new int[] { landing });
+		assertEquals(0, board.getCount(FlightBoard.LANDING), "The row was not moved out of the landing section");
+		assertEquals(1, board.getCount(FlightBoard.LANDED), "The row was not moved into the landed section");
+	}
+}
@@ -0,0 +1,329 @@
+package airport_terminal;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+
+import javax.swing.AbstractListModel;
+import javax.swing.event.ListDataEvent;
+import javax.swing.event.ListDataListener;
+import javax.swing.table.AbstractTableModel;
+import javax.swing.table.TableModel;
+
+/**
+ * A list of the aircraft a screen shows, for a JList (or, through
+ * asTableModel, a JTable). Unlike a DefaultListModel indexed by mCode, it has
+ * one row for each aircraft shown and no empty positions, and keeps a mapping
+ * between rows and mCodes both ways, so getmCode turns a selected row back
+ * into its mCode.
+ *
+ * Rows are kept sorted by a SortKey. refresh compares each record's view with
+ * the view it last showed - views are shared between snapshots until the
+ * record changes, so this is one comparison of references per record - and
+ * only the records that changed are moved, by a binary search for their new
+ * position. The JList is only told about the rows that changed, and only asks
+ * for the rows it can see; with a fixed cell size (see PROTOTYPE_ROW) it does
+ * not need to measure the others either, so a list of many thousands of
+ * aircraft stays responsive.
+ *
+ * Like any Swing model it must only be used on the Swing event thread.
+ */
+@SuppressWarnings("serial")
+public class FlightListModel extends AbstractListModel<String> {
+
+	/**
+	 * What the rows are sorted by. Rows that are equal are in order of mCode.
+	 */
+	public enum SortKey {
+		MCODE(Comparator.comparingInt(RecordView::getmCode)), //The order of the database
+		FLIGHT_CODE(Comparator.comparing(RecordView::getFlightCode, Comparator.nullsFirst(Comparator.<String> naturalOrder()))),
+		STATUS(Comparator.comparingInt(RecordView::getStatus)),
+		GATE(Comparator.comparingInt(RecordView::getGateNumber));
+
+		private final Comparator<RecordView> order;
+
+		SortKey(Comparator<RecordView> order) {
+			this.order = order.thenComparingInt(RecordView::getmCode);//Never equal, so every row has one place
+		}
+	}
+
+	/**
+	 * A row as wide as any row shown, for JList.setPrototypeCellValue, so that
+	 * every cell is the same size and the list does not measure each row.
+	 */
+	public static final String PROTOTYPE_ROW = "Flight Code: XXXXXXXX     Flight Status: DEPARTING_THROUGH_LOCAL_AIRSPACE";
+
+	private final IntPredicate shows;//Which statuses are shown
+	private final Function<RecordView, String> text;//The text of a record's row
+	private SortKey sortKey = SortKey.MCODE;
+	private RecordView[] views = new RecordView[0];//The view each mCode was last shown at, or looked at
+	private int[] rowOf = new int[0];//The row of each mCode, or -1
+	private int[] mCodes = new int[16];//The mCode of each row
+	private int size;
+	private long moves;//The number of rows moved because their record changed
+
+	/**
+	 * The constructor for this class.
+	 * @param shows Which ManagementRecord status codes are shown
+	 */
+	public FlightListModel(IntPredicate shows) {
+		this(shows, RecordView::getRow);
+	}
+
+	/**
+	 * A constructor for a list whose rows show different text, such as the
+	 * public board's (see RecordView.getBoardRow).
+	 * @param shows Which ManagementRecord status codes are shown
+	 * @param text The text of a record's row - rendered once per version of the record
+	 */
+	public FlightListModel(IntPredicate shows, Function<RecordView, String> text) {
+		this.shows = shows;
+		this.text = text;
+	}
+
+	/**
+	 * Brings every row up to date with the given snapshot.
+	 * @param snapshot Every record
+	 */
+	public void refresh(DatabaseSnapshot snapshot) {
+		grow(snapshot.size());
+		for (int mCode = 0; mCode < snapshot.size(); mCode++) {
+			RecordView view = snapshot.getRecord(mCode);
+			if (view != views[mCode]) {//If the record has changed since it was last looked at THEN
+				apply(view);
+			}
+		}
+	}
+
+	/**
+	 * Brings the row of one record up to date, for a caller that already knows
+	 * which records have changed.
+	 * @param view The record as it is now
+	 */
+	public void refresh(RecordView view) {
+		grow(view.getmCode() + 1);
+		if (view != views[view.getmCode()]) {//If the record has changed since it was last looked at THEN
+			apply(view);
+		}
+	}
+
+	/**
+	 * Makes room for mCodes up to (but not including) capacity.
+	 */
+	private void grow(int capacity) {
+		if (capacity > rowOf.length) {
+			int oldSize = rowOf.length;
+			int newSize = Math.max(capacity, oldSize * 2);//At least double, so records refreshed one at a time do not copy the arrays each time
+			views = Arrays.copyOf(views, newSize);
+			rowOf = Arrays.copyOf(rowOf, newSize);
+			Arrays.fill(rowOf, oldSize, newSize, -1);
+		}
+	}
+
+	/**
+	 * Shows, moves or removes the row for one record that has changed.
+	 */
+	private void apply(RecordView view) {
+		int mCode = view.getmCode();
+		int row = rowOf[mCode];
+		views[mCode] = view;
+		boolean show = shows.test(view.getStatus());
+		if (row < 0) {
+			if (show) {//If it has just started being shown THEN
+				insert(mCode);
+			}
+		} else if (!show) {//If it has just stopped being shown THEN
+			remove(row);
+		} else if (inPlace(row)) {//If it is still in order THEN
+			fireContentsChanged(this, row, row);//Only its text has changed
+		} else {
+			moves++;
+			remove(row);
+			insert(mCode);
+		}
+	}
+
+	/**
+	 * Returns true if the row is still in order with the rows either side.
+	 */
+	private boolean inPlace(int row) {
+		RecordView view = views[mCodes[row]];
+		return (row == 0 || sortKey.order.compare(views[mCodes[row - 1]], view) < 0)
+				&& (row == size - 1 || sortKey.order.compare(view, views[mCodes[row + 1]]) < 0);
+	}
+
+	/**
+	 * Inserts a row for the mCode in its place in the order.
+	 */
+	private void insert(int mCode) {
+		RecordView view = views[mCode];
+		int low = 0;
+		int high = size;
+		while (low < high) {//Binary search for the first row after the view
+			int middle = (low + high) >>> 1;
+			if (sortKey.order.compare(views[mCodes[middle]], view) < 0) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		if (size == mCodes.length) {
+			mCodes = Arrays.copyOf(mCodes, size * 2);
+		}
+		System.arraycopy(mCodes, low, mCodes, low + 1, size - low);
+		mCodes[low] = mCode;
+		size++;
+		renumber(low, size);
+		fireIntervalAdded(this, low, low);
+	}
+
+	/**
+	 * Removes a row.
+	 */
+	private void remove(int row) {
+		rowOf[mCodes[row]] = -1;
+		System.arraycopy(mCodes, row + 1, mCodes, row, size - row - 1);
+		size--;
+		renumber(row, size);
+		fireIntervalRemoved(this, row, row);
+	}
+
+	/**
+	 * Brings the row of each mCode from one row up to another up to date.
+	 */
+	private void renumber(int from, int to) {
+		for (int row = from; row < to; row++) {
+			rowOf[mCodes[row]] = row;
+		}
+	}
+
+	/**
+	 * Sorts the rows by a different key.
+	 * @param key What to sort by
+	 */
+	public void sortBy(SortKey key) {
+		if (key == sortKey) {
+			return;
+		}
+		sortKey = key;
+		Integer[] order = new Integer[size];
+		for (int row = 0; row < size; row++) {
+			order[row] = mCodes[row];
+		}
+		Arrays.sort(order, (a, b) -> key.order.compare(views[a], views[b]));
+		for (int row = 0; row < size; row++) {
+			mCodes[row] = order[row];
+		}
+		renumber(0, size);
+		if (size > 0) {
+			fireContentsChanged(this, 0, size - 1);
+		}
+	}
+
+	@Override
+	public int getSize() {
+		return size;
+	}
+
+	@Override
+	public String getElementAt(int row) {
+		return text.apply(views[mCodes[row]]);//Rendered once per version of the record
+	}
+
+	/**
+	 * Return the mCode of the aircraft in a row, or -1 if there is no such row.
+	 * @param row The row, as from JList.getSelectedIndex
+	 */
+	public int getmCode(int row) {
+		return row >= 0 && row < size ? mCodes[row] : -1;
+	}
+
+	/**
+	 * Return the row an aircraft is shown in, or -1 if it is not shown.
+	 * @param mCode The aircraft's mCode
+	 */
+	public int getRow(int mCode) {
+		return mCode >= 0 && mCode < rowOf.length ? rowOf[mCode] : -1;
+	}
+
+	/**
+	 * Return the record shown in a row.
+	 * @param row The row
+	 */
+	public RecordView getRecord(int row) {
+		return views[mCodes[row]];
+	}
+
+	/** Return what the rows are sorted by. */
+	public SortKey getSortKey() {
+		return sortKey;
+	}
+
+	/** Return the number of rows moved because their record changed. */
+	public long getMoveCount() {
+		return moves;
+	}
+
+	/**
+	 * Returns a TableModel showing the same rows, with a column each for the
+	 * flight code, status and gate, which follows every change to this model.
+	 * @return The table model
+	 */
+	public TableModel asTableModel() {
+		return new Table();
+	}
+
+	/**
+	 * The rows of the list as a table.
+	 */
+	private final class Table extends AbstractTableModel implements ListDataListener {
+
+		private final String[] columns = { "Flight Code", "Status", "Gate" };
+
+		Table() {
+			addListDataListener(this);
+		}
+
+		@Override
+		public int getRowCount() {
+			return size;
+		}
+
+		@Override
+		public int getColumnCount() {
+			return columns.length;
+		}
+
+		@Override
+		public String getColumnName(int column) {
+			return columns[column];
+		}
+
+		@Override
+		public Object getValueAt(int row, int column) {
+			RecordView view = getRecord(row);
+			if (column == 0) {
+				return view.getFlightCode();
+			} else if (column == 1) {
+				return view.getStatusString();
+			}
+			return view.getGateNumber() < 0 ? "" : String.valueOf(view.getGateNumber() + 1);//The gate number as shown to the public
+		}
+
+		@Override
+		public void intervalAdded(ListDataEvent e) {
+			fireTableRowsInserted(e.getIndex0(), e.getIndex1());
+		}
+
+		@Override
+		public void intervalRemoved(ListDataEvent e) {
+			fireTableRowsDeleted(e.getIndex0(), e.getIndex1());
+		}
+
+		@Override
+		public void contentsChanged(ListDataEvent e) {
+			fireTableRowsUpdated(e.getIndex0(), e.getIndex1());
+		}
+	}
+}
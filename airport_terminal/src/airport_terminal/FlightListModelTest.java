@@ -0,0 +1,60 @@
+package airport_terminal;
+
+//Allow assertions to be used
+import static org.junit.jupiter.api.Assertions.*;
+import static airport_terminal.TestFlights.*;
+
+import javax.swing.table.TableModel;
+
+//Imports for allowing test and the before each test method
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+
+
+class FlightListModelTest {
+	AircraftManagementDatabase amd;
+
+	/**
+	 * This method runs before each individual test is run
+	 */
+	@BeforeEach
+	void setup() {
+		//Set up a new database to be used so that information is not left over from previous tests
+		amd = new AircraftManagementDatabase();
+	}
+
+	@Test
+	void testFlightListModelSortsAndMapsRows() {
+		FlightListModel list = new FlightListModel(status -> status >= ManagementRecord.WANTING_TO_LAND && status <= ManagementRecord.LANDED);
+		int first = amd.radarDetect(flight("BA3", "Stirling"));
+		int second = amd.radarDetect(flight("BA1", "Stirling"));
+		int third = amd.radarDetect(flight("BA2", "Paris"));//IN_TRANSIT, so not shown
+		list.refresh(amd.snapshot());
+		assertEquals(2, list.getSize(), "The list has the wrong number of rows");
+		assertEquals(first, list.getmCode(0), "The rows are not in order of mCode");
+		assertEquals(-1, list.getmCode(2), "A row past the end has an mCode");
+		assertEquals(-1, list.getRow(third), "An aircraft not shown has a row");
+
+		list.sortBy(FlightListModel.SortKey.FLIGHT_CODE);
+		assertEquals(second, list.getmCode(0), "The rows are not in order of flight code");
+		assertEquals(0, list.getRow(second), "The row of an mCode is wrong after sorting");
+		assertEquals("Flight Code: BA1     Flight Status: WANTING_TO_LAND", list.getElementAt(0), "The row has the wrong text");
+
+		list.sortBy(FlightListModel.SortKey.STATUS);
+		assertEquals(first, list.getmCode(0), "Equal rows are not in order of mCode");
+		moveTo(amd, first, ManagementRecord.LANDING);//Now sorts after the other
+		list.refresh(amd.snapshot());
+		assertEquals(first, list.getmCode(1), "The changed row was not moved into place");
+		assertEquals(1, list.getMoveCount(), "The wrong number of rows were moved");
+		list.refresh(amd.snapshot());
+		assertEquals(1, list.getMoveCount(), "Unchanged rows were moved");
+
+		TableModel table = list.asTableModel();
+		moveTo(amd, second, ManagementRecord.TAXIING);//No longer shown
+		list.refresh(amd.snapshot());
+		assertEquals(1, list.getSize(), "A row no longer shown was not removed");
+		assertEquals(1, table.getRowCount(), "The table does not follow the list");
+		assertEquals("LANDING", table.getValueAt(0, 1), "The table has the wrong status");
+		assertEquals(0, list.getRow(first), "The row of an mCode is wrong after a removal");
+	}
+}
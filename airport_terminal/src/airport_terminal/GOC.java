@@ -3,8 +3,10 @@ package airport_terminal;
 import java.awt.*;
 import java.awt.event.*;
 
+import java.util.LinkedHashSet;
 import java.util.Observable;
 import java.util.Observer;
+import java.util.Set;
 import java.util.regex.Pattern;
 
 import javax.swing.*;
@@ -46,6 +48,7 @@ public class GOC extends JFrame implements ActionListener, Observer {
 	// Databases
 	private AircraftManagementDatabase aircraftManagementDatabase;
 	private GateInfoDatabase gateInfoDatabase;
+	private GroundOperations groundOperations; // Makes the changes requested with the buttons
 
 	// Useful states
 	private int MRIndex; // Used to index aircraft database
@@ -64,18 +67,29 @@ public class GOC extends JFrame implements ActionListener, Observer {
 	// Lists
 	private JPanel panel_Aircrafts;
 	private JList<String> outputList_Aircrafts;
-	private DefaultListModel<String> list_Aircrafts;
+	// One row for each aircraft whose status is between WANTING_TO_LAND and AWAITING_TAKEOFF
+	private final FlightListModel list_Aircrafts = new FlightListModel(status -> status > 1 && status < 18);
+	private JComboBox<FlightListModel.SortKey> sortBy; // Chooses what the list of aircrafts is sorted by
 	private JPanel panel_Gates;
 	private JList<String> outputList_Gates;
 	private DefaultListModel<String> list_Gates;
+	private final ListModelBridge rows = ListModelBridge.swing(); // Applies changes to the lists on the Swing event thread, once per frame
+	private final Object changedLock = new Object(); // Guards the aircraft waiting to be brought up to date
+	private Set<Integer> changedAircraft = new LinkedHashSet<>(); // The mCodes that have changed since the list was last brought up to date
+	private boolean allAircraftChanged; // Whether every row must be looked at, because a notification did not say what changed
 
 	public GOC(AircraftManagementDatabase amd, GateInfoDatabase gid) {
 
 		this.aircraftManagementDatabase = amd;
 		this.gateInfoDatabase = gid;
+		this.groundOperations = new GroundOperations(amd, gid);
 
-		amd.addObserver(this);
-		gid.addObserver(this);
+		int[] shownStatuses = new int[16]; // The statuses shown in the aircraft list - WANTING_TO_LAND to AWAITING_TAKEOFF
+		for (int i = 0; i < shownStatuses.length; i++) {
+			shownStatuses[i] = ManagementRecord.WANTING_TO_LAND + i;
+		}
+		amd.subscribe(this, shownStatuses); // Only be told about aircraft that are shown
+		gid.subscribe(this);
 
 		setTitle("GOC"); // Sets title
 		setLocation(500, 0); // Sets location of window
@@ -86,14 +100,13 @@ public class GOC extends JFrame implements ActionListener, Observer {
 		window.setLayout(new FlowLayout()); // Sets layout
 
 		panel_Aircrafts = new JPanel(); // Creates new panel to display information
-		list_Aircrafts = new DefaultListModel<String>(); // Creates new list
 		outputList_Aircrafts = new JList<>(list_Aircrafts); // Adds list to output
+		outputList_Aircrafts.setPrototypeCellValue(FlightListModel.PROTOTYPE_ROW); // Every row the same size, so only the rows on screen are looked at
 		outputList_Aircrafts.addListSelectionListener(e -> aircraftSelected()); // Adds action listener to list, i.e detects when something is selected
 
 		JScrollPane scroll_Aircrafts = new JScrollPane(outputList_Aircrafts); // Create new scroll pane to display the list of aircrafts
 		scroll_Aircrafts.setPreferredSize(new Dimension(500, 150)); // Set size of scroll pane
 		panel_Aircrafts.add(scroll_Aircrafts); // Add scroll pane to aircraft panel
-		list_Aircrafts.setSize(aircraftManagementDatabase.maxMRs); // Set size of list to be max number of records allowed
 
 		panel_Gates = new JPanel();// Creates new panel to display information
 		list_Gates = new DefaultListModel<String>();// Creates new list
@@ -109,6 +122,10 @@ public class GOC extends JFrame implements ActionListener, Observer {
 		gateListUpdate(); // Method call to update list of gates
 
 		window.add(panel_Aircrafts); // Adds aircraft panel to window container
+
+		sortBy = new JComboBox<>(FlightListModel.SortKey.values()); // Box to choose what the list of aircrafts is sorted by
+		sortBy.addActionListener(e -> list_Aircrafts.sortBy((FlightListModel.SortKey) sortBy.getSelectedItem())); // Re-sort the list when a different order is chosen
+		window.add(sortBy);
 		
 		gateAllocationDesc = new JLabel("If there is NOT a 'FREE' gate then you cannot grant ground cleanance.");
 		window.add(gateAllocationDesc);
@@ -141,44 +158,83 @@ public class GOC extends JFrame implements ActionListener, Observer {
 	}
 
 	/*
-	 * Method to update the list of aircrafts
+	 * Method to update the list of aircrafts, on the Swing event thread
 	 * 
-	 * Setting a list item as null if the corresponding aircraft index is empty, this keeps indexing the same for 
-	 * both an aircraft list and the management record database
+	 * Every record is looked at, but only the rows of aircraft that have changed since the last time are touched
 	 */
 	private void aircraftListUpdate() {
-		for (int i = 0; i < aircraftManagementDatabase.maxMRs; i++) { // For each record in database
-			ManagementRecord managementRecord = aircraftManagementDatabase.getManagementRecord(i); // Create local instance of that MR
-
-			if (managementRecord == null) {// If record is empty
-				list_Aircrafts.set(i, null); // Set the same position (i) in list to be empty
-			} else {// If record is not empty
-				list_Aircrafts.set(i, null);// Set the same position (i) in list to be empty
-				// If the status of the management record matches any of the following: 1, 2, 3, 4, 5, 16, 18
-				if (managementRecord.getStatus() > 1 && managementRecord.getStatus() < 18) { 
-					// Create String record and assign it with the flight code and flight status from the current record
-					String record = "Flight Code: " + managementRecord.getFlightCode() + "     " + "Flight Status: "
-							+ managementRecord.getStatusString();
-
-					list_Aircrafts.set(i, record); // Add the string record (created above) to the list of aircrafts to appear on screen
-				}
-			}
+		synchronized (changedLock) {
+			allAircraftChanged = true;
 		}
+		rows.later(list_Aircrafts, this::showChangedAircraft); // Once per frame
 	} // End aircraftListUpdate()
 
+	/*
+	 * Method to update just the aircraft that have changed
+	 */
+	private void aircraftListUpdate(ChangeSet changes) {
+		int[] mCodes = changes.getmCodes();
+		if (mCodes.length == 0) { // If only gates have changed
+			return;
+		}
+		synchronized (changedLock) {
+			for (int mCode : mCodes) { // For each aircraft that has changed
+				changedAircraft.add(mCode);
+			}
+		}
+		rows.later(list_Aircrafts, this::showChangedAircraft); // Once per frame, however many changes are waiting
+	}
+
+	/*
+	 * Method to bring the rows of the aircraft that have changed up to date, on the Swing event thread
+	 */
+	private void showChangedAircraft() {
+		Set<Integer> changed;
+		boolean all;
+		synchronized (changedLock) {
+			changed = changedAircraft;
+			all = allAircraftChanged;
+			changedAircraft = new LinkedHashSet<>(); // Changes from now on are shown in the next frame
+			allAircraftChanged = false;
+		}
+		DatabaseSnapshot snapshot = aircraftManagementDatabase.snapshot(); // The latest state of every record
+		if (all) { // If a notification did not say what changed
+			list_Aircrafts.refresh(snapshot);
+		} else {
+			for (int mCode : changed) { // For each aircraft that has changed
+				list_Aircrafts.refresh(snapshot.getRecord(mCode));
+			}
+		}
+	}
+
 	/*
 	 * Method to update the list of gates
 	 */
 	private void gateListUpdate() {
 		for (int i = 0; i < gateInfoDatabase.maxGateNumber; i++) { // For each record in database
-			// Create String record and assign it with the gate number and gate status from the current record
-			String record = "Gate Number: " + (i + 1) + "     " + "Gate Status: " + gateInfoDatabase.getStatusString(i);
-
-			list_Gates.set(i, record);// Add the string record (created above) to the list of gates to appear on screen
-
+			showGate(i); // Method call
 		}
 	} // End gateListUpdate
 
+	/*
+	 * Method to update just the gates that have changed
+	 */
+	private void gateListUpdate(ChangeSet changes) {
+		for (int gateNumber : changes.getGateNumbers()) { // For each gate that has changed
+			showGate(gateNumber); // Method call
+		}
+	}
+
+	/*
+	 * Method to show one gate in the list
+	 */
+	private void showGate(int gateNumber) {
+		// Create String record and assign it with the gate number and gate status from the current record
+		String record = "Gate Number: " + (gateNumber + 1) + "     " + "Gate Status: " + gateInfoDatabase.getStatusString(gateNumber);
+
+		rows.set(list_Gates, gateNumber, record);// Add the string record (created above) to the list of gates to appear on screen
+	}
+
 	/*
 	 * Method to change view depending if an aircraft has been selected
 	 */
@@ -193,13 +249,13 @@ public class GOC extends JFrame implements ActionListener, Observer {
 			} else { // If an aircraft has been selected
 				if (!outputList_Aircrafts.getSelectedValue().contains("LANDED")) { //If the selected aircraft does NOT contain "LANDED"
 					outputList_Gates.clearSelection(); // Clear selection in gate list
-					MRIndex = outputList_Aircrafts.getSelectedIndex(); // MRIndex becomes the same index of the selected aircraft in the list
+					MRIndex = list_Aircrafts.getmCode(outputList_Aircrafts.getSelectedIndex()); // MRIndex becomes the mCode of the aircraft in the selected row
 					if (!isButtonAvailable) { // If buttons not available
 						isButtonAvailable = true; // Set buttons to be available
 					}
 					buttonAvailability(); // Method call
 				} else { // If the selected aircraft does contain "LANDED"
-				MRIndex = outputList_Aircrafts.getSelectedIndex(); // MRIndex becomes the same index of the selected aircraft in the list
+				MRIndex = list_Aircrafts.getmCode(outputList_Aircrafts.getSelectedIndex()); // MRIndex becomes the mCode of the aircraft in the selected row
 				if (!isButtonAvailable) {// If buttons not available
 					isButtonAvailable = true; // Set buttons to be available
 				}
@@ -240,7 +296,7 @@ public class GOC extends JFrame implements ActionListener, Observer {
 			allowTaxiAcrossTarmacButton.setEnabled(false); // Set button availability to false
 		} else {
 			if (MRIndex >= 0 && GIndex < 0) { //If only selecting an aircraft
-				MRIndex = outputList_Aircrafts.getSelectedIndex(); // MRIndex becomes the same index of the selected aircraft in the list
+				MRIndex = list_Aircrafts.getmCode(outputList_Aircrafts.getSelectedIndex()); // MRIndex becomes the mCode of the aircraft in the selected row
 				String statusAircraft = aircraftManagementDatabase.getStatusString(MRIndex); // New string 'statusAircraft' becomes the status of the aircraft currently selected
 				if (statusAircraft.equalsIgnoreCase("WANTING_TO_LAND")) { // If statusAircraft matches WANTING_TO_LAND
 					for (int i = 0; i < gateInfoDatabase.maxGateNumber; i++) { // For every gate
@@ -262,7 +318,7 @@ public class GOC extends JFrame implements ActionListener, Observer {
 				}
 				
 			} else if (MRIndex >= 0 && GIndex >= 0) { // If selecting both an aircraft and gate
-				MRIndex = outputList_Aircrafts.getSelectedIndex();// MRIndex becomes the same index of the selected aircraft in the list
+				MRIndex = list_Aircrafts.getmCode(outputList_Aircrafts.getSelectedIndex());// MRIndex becomes the mCode of the aircraft in the selected row
 				GIndex = outputList_Gates.getSelectedIndex();// GIndex becomes the same index of the selected gate in the list
 				String statusAircraft = aircraftManagementDatabase.getStatusString(MRIndex); // New string 'statusAircraft' becomes the status of the aircraft currently selected
 				String statusGate = gateInfoDatabase.getStatusString(GIndex);// New string 'statusGate' becomes the status of the gate currently selected
@@ -279,8 +335,8 @@ public class GOC extends JFrame implements ActionListener, Observer {
 	@Override
 	public void actionPerformed(ActionEvent e) {
 		if (e.getSource() == permissionToLandButton) { // If permission to land button is clicked
-			MRIndex = outputList_Aircrafts.getSelectedIndex();// MRIndex becomes the same index of the selected aircraft in the list
-			aircraftManagementDatabase.setStatus(MRIndex, 3); // Change status of aircraft
+			MRIndex = list_Aircrafts.getmCode(outputList_Aircrafts.getSelectedIndex());// MRIndex becomes the mCode of the aircraft in the selected row
+			groundOperations.grantGroundClearance(MRIndex); // Change status of aircraft, unless another operator already has
 			aircraftListUpdate(); // Method call
 			gateListUpdate(); // Method call
 			aircraftSelected(); // Method call
@@ -289,11 +345,9 @@ public class GOC extends JFrame implements ActionListener, Observer {
 		}
 
 		if (e.getSource() == allocateGateButton) { // If allocate gate button is clicked
-			int newMRIndex = outputList_Aircrafts.getSelectedIndex(); // newMRIndex becomes the same index of the selected aircraft in the list
+			int newMRIndex = list_Aircrafts.getmCode(outputList_Aircrafts.getSelectedIndex()); // newMRIndex becomes the mCode of the aircraft in the selected row
 			int newGIndex = outputList_Gates.getSelectedIndex(); // newGIndex becomes the same index of the selected gate in the list
-			gateInfoDatabase.allocate(newGIndex, newMRIndex); // Allocates a gate with a flight
-			aircraftManagementDatabase.taxiTo(newMRIndex, newGIndex); // Sets an aircraft record with a gate
-			aircraftManagementDatabase.setStatus(newMRIndex, 6); // Change status of aircraft
+			groundOperations.allocateGate(newMRIndex, newGIndex); // Allocates a gate with a flight and changes its status to TAXIING
 			aircraftListUpdate(); // Method call
 			gateListUpdate(); // Method call
 			aircraftSelected(); // Method call
@@ -301,10 +355,8 @@ public class GOC extends JFrame implements ActionListener, Observer {
 		}
 		
 		if (e.getSource() == allowTaxiAcrossTarmacButton) {
-			int newMRIndex = outputList_Aircrafts.getSelectedIndex(); // newMRIndex becomes the same index of the selected aircraft in the list
-			int gate = aircraftManagementDatabase.getGateNumber(newMRIndex); // newGIndex becomes the same index of the selected gate in the list
-			gateInfoDatabase.departed(gate); // Sets gate status to be free again after flight has departed
-			aircraftManagementDatabase.setStatus(newMRIndex, 17); // Change status of aircraft
+			int newMRIndex = list_Aircrafts.getmCode(outputList_Aircrafts.getSelectedIndex()); // newMRIndex becomes the mCode of the aircraft in the selected row
+			groundOperations.permitTaxi(newMRIndex); // Change status of aircraft and free its gate, unless another operator already has
 			aircraftListUpdate(); // Method call
 			gateListUpdate(); // Method call
 			aircraftSelected(); // Method call
@@ -315,12 +367,19 @@ public class GOC extends JFrame implements ActionListener, Observer {
 
 	@Override
 	public void update(Observable o, Object arg) {
-		outputList_Aircrafts.clearSelection(); // Clear user selection in list
-		outputList_Gates.clearSelection(); // Clear user selection in list
-		aircraftListUpdate(); // Method call
-		gateListUpdate(); // Method call
-		aircraftSelected(); // Method call
-		gateSelected(); // Method call
+		if (arg instanceof ChangeSet) { // If the database says what has changed, only update those rows
+			aircraftListUpdate((ChangeSet) arg); // Method call
+			gateListUpdate((ChangeSet) arg); // Method call
+		} else {
+			aircraftListUpdate(); // Method call
+			gateListUpdate(); // Method call
+		}
+		rows.later(this, () -> { // Once the lists have been updated, on the Swing event thread
+			outputList_Aircrafts.clearSelection(); // Clear user selection in list
+			outputList_Gates.clearSelection(); // Clear user selection in list
+			aircraftSelected(); // Method call
+			gateSelected(); // Method call
+		});
 	}
 }
 	/*
@@ -92,6 +92,19 @@ public class Gate {
 		}
 	}
 
+	/**
+	 * The gate is no longer wanted by the aircraft it was reserved for,
+	 * identified by mCode: Change status from RESERVED back to FREE.
+	 * 
+	 * @preconditions Status must be Reserved for the given aircraft
+	 */
+	public void release(int mCode) {
+		if (status == RESERVED && this.mCode == mCode) {//If the gate is reserved for this aircraft THEN
+			status = FREE;//Set the status of the gate back to free
+			this.mCode = -1;//No aircraft is using the gate
+		}
+	}
+
 	/**
 	 * Change gate status from RESERVED to OCCUPIED to indicate that aircraft has
 	 * now docked.
@@ -115,4 +128,16 @@ public class Gate {
 		mCode = -1;//Set the mCode in this class to -1 to represent nothing being selected.
 		}
 	}
+
+	/**
+	 * Puts back a status and aircraft recorded in a snapshot or journal entry,
+	 * without checking any preconditions. Used when recovering or replicating
+	 * the gate database.
+	 * @param status The gate's status
+	 * @param mCode The aircraft using the gate, or -1
+	 */
+	void restore(int status, int mCode) {
+		this.status = status;
+		this.mCode = mCode;
+	}
 }
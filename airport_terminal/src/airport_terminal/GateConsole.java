@@ -32,6 +32,7 @@ public class GateConsole extends JFrame implements ActionListener, Observer {
 	 * @directed
 	 */
 	GateInfoDatabase gateDB;//The gate database that will be assigned to hold the one set up in main
+	private GateOperations gateOperations;//Makes the changes requested with the buttons
 
 	/**
 	 * The GateConsole interface has access to the AircraftManagementDatabase.
@@ -82,8 +83,9 @@ public class GateConsole extends JFrame implements ActionListener, Observer {
 		this.gateNumber = gNumber;//Set the gate number variable in this class to become equal to the one that is passed into the parameters
 		this.aircraftManagementDatabase = amd;//Set the database in this class to become equal to the one that is passed into the parameters
 		this.gateDB = gid;//Set the database in this class to become equal to the one that is passed into the parameters
-		amd.addObserver(this);//Subscribe to the aircraft database by adding this class as an observer
-		gid.addObserver(this);//Subscribe to the gate database by adding this class as an observer
+		this.gateOperations = new GateOperations(amd, gid, gNumber);
+		amd.subscribe(this, event -> event.getmCode() == mCode);//Subscribe to the aircraft database, but only for the aircraft at this gate
+		gid.subscribe(this);//Subscribe to the gate database
 
 		passengers = new PassengerList(); //Set passengers to become a new PassengerList
 
@@ -327,8 +329,9 @@ public class GateConsole extends JFrame implements ActionListener, Observer {
 			
 			//If either of the above statements are not true then if the gate status is occupied
 		} else if (gateStatus == Gate.OCCUPIED) {
-			//If the status of the aircraft is unloading THEN - status received using getStatus method from the aircraft database using the mCode
-			if (aircraftManagementDatabase.getStatus(mCode) == ManagementRecord.UNLOADING) {
+			RecordView aircraft = aircraftManagementDatabase.snapshot().getRecord(mCode);//Read the aircraft once, so its status and flight code cannot change part way through
+			//If the status of the aircraft is unloading THEN
+			if (aircraft.getStatus() == ManagementRecord.UNLOADING) {
 				gateStatusArrivinglbl.setText("OCCUPIED");//Show the gate is occupied
 				gateStatusArrivinglbl.setForeground(Color.red);//Set the colour to red to highlight it is occupied
 
@@ -338,8 +341,8 @@ public class GateConsole extends JFrame implements ActionListener, Observer {
 			}
 			//If the above statement is not true then check if the status code of the aircraft is anything between ready for cleaning and maintenance and ready for refuel - all of these statuses will mean
 			//the aircraft is occupied but currently undergoing cleaning/ maintenance/refuelling
-			else if (aircraftManagementDatabase.getStatus(mCode) >= ManagementRecord.READY_FOR_CLEAN_MAINT
-					&& aircraftManagementDatabase.getStatus(mCode) <= ManagementRecord.READY_REFUEL) {
+			else if (aircraft.getStatus() >= ManagementRecord.READY_FOR_CLEAN_MAINT
+					&& aircraft.getStatus() <= ManagementRecord.READY_REFUEL) {
 
 				flightCodeArrivinglbl.setText("Flight Code:");//Do not display a flight code whilst cleaning etc.
 				flightStatusArrivinglbl.setText("Flight Code:");//Do not display a flight status at the gate
@@ -350,16 +353,16 @@ public class GateConsole extends JFrame implements ActionListener, Observer {
 				tabbedPane.setSelectedIndex(0);//Force the tabbed pane to open the arrivals tab
 				
 				//If either of the above statements were not true then check if the status of the aircraft is ready for passengers, ready to depart or awaiting taxi
-			} else if (aircraftManagementDatabase.getStatus(mCode) >= ManagementRecord.READY_PASSENGERS
-					|| aircraftManagementDatabase.getStatus(mCode) >= ManagementRecord.READY_DEPART
-					|| aircraftManagementDatabase.getStatus(mCode) <= ManagementRecord.AWAITING_TAXI) {
+			} else if (aircraft.getStatus() >= ManagementRecord.READY_PASSENGERS
+					|| aircraft.getStatus() >= ManagementRecord.READY_DEPART
+					|| aircraft.getStatus() <= ManagementRecord.AWAITING_TAXI) {
 				gateStatusDepartinglbl.setText("OCCUPIED");//Show the gate is occupied
 				gateStatusDepartinglbl.setForeground(Color.red);//Set the colour to red to highlight it is occupied
 
 				passengers = new PassengerList();//Set the passengers to become a new PassengerList
 
-				flightCodeDepartinglbl.setText("Flight Code:   " + aircraftManagementDatabase.getFlightCode(mCode));//Display the flight code in a label
-				flightStatusDepartinglbl.setText("      Flight Status:     " + aircraftManagementDatabase.getStatusString(mCode));//Display the flight status in a label
+				flightCodeDepartinglbl.setText("Flight Code:   " + aircraft.getFlightCode());//Display the flight code in a label
+				flightStatusDepartinglbl.setText("      Flight Status:     " + aircraft.getStatusString());//Display the flight status in a label
 
 				tabbedPane.setSelectedIndex(1);//Force the tabbed pane to open the departures tab
 				tabbedPane.setEnabledAt(0, false);//Do not allow the 0th position of the tabbed pane to be opened - the arrivals pane
@@ -372,13 +375,8 @@ public class GateConsole extends JFrame implements ActionListener, Observer {
 	 * update status of aircraft to docked at gate
 	 */
 	private void dock() {
-		//If the aircraft status is taxiing or unloading THEN
-		if (aircraftManagementDatabase.getStatus(mCode) == ManagementRecord.TAXIING) {
-			aircraftManagementDatabase.setStatus(mCode, ManagementRecord.UNLOADING);
-			//Use the gate database to update the status of the gate when the aircraft has docked
-			gateDB.docked(gateNumber);
-			//Otherwise do this
-		} else {
+		//If the aircraft status was taxiing THEN it is now unloading and the gate is occupied - checked and changed in one step so another operator cannot get in between
+		if (!gateOperations.dock(mCode)) {
 			//Display a message saying the flight could not be marked as docked
 			JOptionPane.showMessageDialog(this,"Flight " + aircraftManagementDatabase.getFlightCode(mCode) + " could not be marked as docked.");
 		}
@@ -389,11 +387,8 @@ public class GateConsole extends JFrame implements ActionListener, Observer {
 	 * update status of aircraft to unloaded
 	 */
 	private void unloading() {
-		//If the status of the flight is unloading THEN
-		if (aircraftManagementDatabase.getStatus(mCode) == ManagementRecord.UNLOADING) {
-			aircraftManagementDatabase.setStatus(mCode, ManagementRecord.READY_FOR_CLEAN_MAINT);//Update the status to ready for cleaning and maintenance
-		//Otherwise do this
-		}else {
+		//If the status of the flight was unloading THEN update the status to ready for cleaning and maintenance, otherwise do this
+		if (!gateOperations.unloaded(mCode)) {
 			//Display a message saying the aircraft could not be marked as unlaoded
 			JOptionPane.showMessageDialog(this,"Flight " + aircraftManagementDatabase.getFlightCode(mCode) + " could not be marked as unloaded.");
 		}
@@ -425,10 +420,9 @@ public class GateConsole extends JFrame implements ActionListener, Observer {
 	 * Closes the flight and creates the new flight descriptor
 	 */
 	private void closeFlight() {
-		//If the status of the aircraft is ready for passengers THEN
-		if (aircraftManagementDatabase.getStatus(mCode) == ManagementRecord.READY_PASSENGERS) {
-			aircraftManagementDatabase.setPassengerList(mCode, passengers);//Update the passenger list for the flight
-			aircraftManagementDatabase.setStatus(mCode, ManagementRecord.READY_DEPART);//Set the status for the aircraft to ready to depart
+		//Set the status to ready to depart and update the passenger list as one batch, so the other screens are only updated once
+		boolean closed = gateOperations.closeFlight(mCode, passengers);
+		if (closed) {//If the flight was closed THEN
 			addPassengerButton.setEnabled(false);
 			confirmFlightDetailsButton.setEnabled(false);
 		} else {//Otherwise do this
@@ -456,7 +450,7 @@ public class GateConsole extends JFrame implements ActionListener, Observer {
 			JOptionPane.showMessageDialog(this, "Please enter a suitable circraft capacity.");
 		}
 		//Set the itinerary using the from, to, next variables that have been set, using the mCode to identify the aircraft
-		aircraftManagementDatabase.setItinerary(mCode, from, to, next);
+		gateOperations.updateItinerary(mCode, from, to, next);
 		JOptionPane.showMessageDialog(this, "Flight details sucessfully updated.");//Show a message to say the flight details were updated
 	}
 
@@ -465,8 +459,26 @@ public class GateConsole extends JFrame implements ActionListener, Observer {
 	 */
 	@Override
 	public void update(Observable o, Object arg) {
-		//Simply call the updateGate() method to ensure it is displaying up to date details and the correct tabbed pane is open
-		updateGate();
+		//If the database says what has changed, and none of it is to do with this gate THEN
+		if (arg instanceof ChangeSet && !concernsThisGate((ChangeSet) arg)) {
+			return;//Nothing on this console needs to change
+		}
+		//Call the updateGate() method on the Swing event thread to ensure it is displaying up to date details and the correct tabbed pane is open
+		ListModelBridge.swing().later(this, this::updateGate);
+	}
+
+	/**
+	 * Checks whether any of the given changes are to this gate or to the aircraft at this gate
+	 * @param changes The changes to one of the databases
+	 * @return True if the console needs to be updated
+	 */
+	private boolean concernsThisGate(ChangeSet changes) {
+		for (ChangeEvent event : changes) {//For every change
+			if (event.getSource() == ChangeEvent.Source.GATE ? event.getGateNumber() == gateNumber : event.getmCode() == mCode) {
+				return true;//This gate, or the aircraft at it, has changed
+			}
+		}
+		return false;
 	}
 
 	/**
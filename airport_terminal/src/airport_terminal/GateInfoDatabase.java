@@ -1,6 +1,7 @@
 package airport_terminal;
 
 import java.util.Observable;
+import java.util.Observer;
 
 /**
  * A central database ("model" class): It is intended that there will be only
@@ -9,7 +10,14 @@ import java.util.Observable;
  * are controllers of this class: sending it messages when the gate status is to
  * be changed. GateConsoles and GroundOperationsControllers also register as
  * observers of this class. Whenever a change occurs to any gate, the observers
- * are notified.
+ * are notified, and are passed a ChangeSet saying which gate changed.
+ * 
+ * The operations are synchronized so that the gate consoles, the GOC and any
+ * other threads can use the database at the same time. Observers added with
+ * subscribe are told about changes through the NotificationQueue, if one has
+ * been set, rather than on the thread that made the change. Once
+ * setEventRing has been called, changes are published on an EventRing and the
+ * observers are notified from one of its consumers.
  * 
  * @stereotype model
  */
@@ -28,13 +36,17 @@ public class GateInfoDatabase extends Observable {
 	 * @supplierCardinality 0..*
 	 */
 	private Gate[] gates;
-	int sCode = 0;
 
 	/**
 	 * A constant: the number of aircraft gates at the airport.
 	 */
 	public int maxGateNumber = 3;
 
+	private long version;//Increased by every change to a gate
+
+	private volatile NotificationQueue queue;//Delivers changes to the subscribers, or null to tell them straight away
+	private volatile EventRing ring;//Carries changes to the observers and other consumers, or null to notify the observers straight away
+
 	/**
 	 * The constructor for this class
 	 */
@@ -51,7 +63,8 @@ public class GateInfoDatabase extends Observable {
 	 * @param gateNumber The number of the fate whos status is to be returned - also corresponds to the position in the gate array
 	 * @return The integer status of the gate as specified in the gate class
 	 */
-	public int getStatus(int gateNumber) {
+	public synchronized int getStatus(int gateNumber) {
+		int sCode = 0;//Declare an integer variable to hold the status of the gate - local, so callers on different threads do not share it
 		for (int i = 0; i < gates.length; i++) {//For every gate in the gate array
 			if (i == gateNumber) {//If the current position in the array is the gateNumber THEN
 				sCode = gates[i].getStatus();	//Set the integer variable sCode to the status of the gate
@@ -67,7 +80,7 @@ public class GateInfoDatabase extends Observable {
 	 * @param gateNumber The number of the gate whos status is to be returned as a string - also corresponds to the position in the gate array
 	 * @return The status of the gate, as a string
 	 */
-	public String getStatusString(int gateNumber) {
+	public synchronized String getStatusString(int gateNumber) {
 		return gates[gateNumber].getStatusString();//Call the getStatusString method in the gate class on the specified position in the gate array and return the result to the caller
 	}
 	
@@ -76,7 +89,7 @@ public class GateInfoDatabase extends Observable {
 	 * @param gateNumber The number of the gate whos mCode is requested - also corresponds to the position in the gate array
 	 * @return The mCode of the gate - essentially which management record is at the gate
 	 */
-	public int getmCode(int gateNumber) {
+	public synchronized int getmCode(int gateNumber) {
 		return this.gates[gateNumber].getmCode();//Call the getmCode method in the gate class based on the specified position in the arrya and return the result to the caller 
 	}
 
@@ -85,7 +98,7 @@ public class GateInfoDatabase extends Observable {
 	 * the GOC.
 	 * @return The array of statuses
 	 */
-	public int[] getStatuses() {
+	public synchronized int[] getStatuses() {
 		int[] statuses = new int[maxGateNumber];//Create a new integer array to hold all of the statuses of the gates
 		for (int i = 0; i < gates.length; i++) {//For every gate in the array
 			statuses[i] = getStatus(i);//Send the gate status to the current position
@@ -93,17 +106,145 @@ public class GateInfoDatabase extends Observable {
 		return statuses;//Return the array of statuses to the caller
 	}
 
+	/**
+	 * Return the version of the gate database, which every change to a gate
+	 * increases.
+	 */
+	public synchronized long getVersion() {
+		return version;
+	}
+
+	/**
+	 * Copies the status and aircraft of every gate, all at the same version.
+	 * @param statuses Filled with the status of each gate
+	 * @param mCodes Filled with the mCode of the aircraft using each gate, or -1 for a FREE gate
+	 * @return The version the gates were copied at
+	 */
+	synchronized long copyGates(int[] statuses, int[] mCodes) {
+		for (int i = 0; i < maxGateNumber; i++) {
+			statuses[i] = gates[i].getStatus();
+			mCodes[i] = statuses[i] == Gate.FREE ? -1 : gates[i].getmCode();
+		}
+		return version;
+	}
+
+	/**
+	 * Puts back a gate as recorded in a snapshot or journal entry. The observers
+	 * are notified as for any other change.
+	 * @param entry The entry for the gate
+	 */
+	void restore(JournalEntry entry) {
+		gateChanged(entry.getCode(), () -> gates[entry.getCode()].restore(entry.getStatus(), entry.getmCode()));
+	}
+
+	/**
+	 * Finishes putting back gates with restore, making sure the version is at
+	 * least the version of the last entry put back.
+	 * @param restoredVersion The highest version of any entry put back
+	 */
+	synchronized void finishRestore(long restoredVersion) {
+		version = Math.max(version, restoredVersion);
+	}
+
+	/**
+	 * Subscribes the given observer to every change to the gates. Its update
+	 * method is passed this database and a ChangeSet saying which gate changed.
+	 * @param observer The observer to be told about the changes
+	 * @return The subscription, which can be cancelled
+	 */
+	public Subscription subscribe(Observer observer) {
+		NotificationQueue current = queue;
+		Observer registered = current == null ? observer : current.wrap(observer);//Queue the changes for it if there is a queue
+		addObserver(registered);
+		return () -> deleteObserver(registered);
+	}
+
+	/**
+	 * Makes subscribers that subscribe from now on be told about changes through
+	 * the given queue. Should be called before the screens subscribe.
+	 * @param queue The queue, or null to tell subscribers straight away
+	 */
+	public void setNotificationQueue(NotificationQueue queue) {
+		this.queue = queue;
+	}
+
+	/**
+	 * Makes a change to the given gate while no other thread is reading or
+	 * changing the gates, and then notifies the observers if the gate's status or
+	 * aircraft has changed. The observers are notified after the lock has been
+	 * released.
+	 * @param gateNumber The number of the gate that is to be changed
+	 * @param change The change to make
+	 * @return True if the change did anything
+	 */
+	private boolean gateChanged(int gateNumber, Runnable change) {
+		ChangeEvent event;
+		synchronized (this) {
+			Gate gate = gates[gateNumber];
+			int oldStatus = gate.getStatus();//Remember the gate as it was
+			int oldmCode = gate.getmCode();
+			change.run();//Make the change
+			event = ChangeEvent.gate(gateNumber, oldStatus, gate.getStatus(), oldmCode, gate.getmCode(), version + 1);
+			if (event != null) {//If the gate has changed THEN
+				version++;
+			}
+		}
+		if (event != null) {//If the gate has changed THEN
+			EventRing current = ring;
+			if (current != null) {//If the changes go through the ring THEN
+				current.publish(event);//The observers are notified by the ring's consumer
+			} else {
+				notifyChanges(ChangeSet.of(event));
+			}
+		}
+		return event != null;
+	}
+
+	/**
+	 * Notifies all of the observers of the given changes.
+	 * @param changes The changes to the gates
+	 */
+	private void notifyChanges(ChangeSet changes) {
+		setChanged();
+		notifyObservers(changes);//Notify the observers of the change to the database
+	}
+
+	/**
+	 * Publishes every change from now on on the given ring, and adds a consumer
+	 * to it that notifies the observers, combining the changes it finds waiting
+	 * into one ChangeSet.
+	 * @param ring The ring the changes are published on
+	 * @param waitStrategy How the consumer waits for changes
+	 * @return The consumer that notifies the observers
+	 */
+	public EventRing.Consumer setEventRing(EventRing ring, EventRing.WaitStrategy waitStrategy) {
+		EventRing.Consumer consumer = ring.addConsumer("GateInfoDatabase observers", new ChangeSetFeed(ChangeEvent.Source.GATE, this::notifyChanges), waitStrategy);
+		this.ring = ring;//Only once the consumer is there to take the changes
+		return consumer;
+	}
+
 	/**
 	 * Forward a status change request to the given gate identified by the
 	 * gateNumber parameter. Called to allocate a free gate to the aircraft
 	 * identified by mCode.
 	 * @param gateNumber The number of the gate that is to be allocated
 	 * @param mCode //The identifier for the management record that is going to be allocated ot the gate
+	 * @return True if the gate was FREE and is now reserved for the aircraft
 	 */
-	public void allocate(int gateNumber, int mCode) {
-		gates[gateNumber].allocate(mCode);//Call the allocate method in the gate class, passing in the mCode for the flight
-		setChanged();
-		notifyObservers();//Notify the observers of the change to the database
+	public boolean allocate(int gateNumber, int mCode) {
+		return gateChanged(gateNumber, () -> gates[gateNumber].allocate(mCode));//Call the allocate method in the gate class, passing in the mCode for the flight
+	}
+
+	/**
+	 * Forward a status change request to the given gate identified by the
+	 * gateNumber parameter. Called to give back a gate that was reserved for the
+	 * aircraft identified by mCode but that the aircraft will not use.
+	 * @param gateNumber The number of the gate that is to be released
+	 * @param mCode The identifier for the management record the gate was reserved for
+	 * @return True if the gate was reserved for the aircraft and is now FREE
+	 */
+	public boolean release(int gateNumber, int mCode) {
+		return gateChanged(gateNumber, () -> gates[gateNumber].release(mCode));//Call the release method in the gate class for the specified position in the array
 	}
 
 	/**
@@ -113,9 +254,7 @@ public class GateInfoDatabase extends Observable {
 	 * @param gateNumber The number of the gate that is to be docked
 	 */
 	public void docked(int gateNumber) {
-		gates[gateNumber].docked();//Call the docked method in the gate class for the specified position in the array
-		setChanged();
-		notifyObservers();//Notify the observers of the change to the database
+		gateChanged(gateNumber, () -> gates[gateNumber].docked());//Call the docked method in the gate class for the specified position in the array
 	}
 
 	/**
@@ -125,8 +264,6 @@ public class GateInfoDatabase extends Observable {
 	 * @param gateNumber The number of the gate that is to be marked as having its aircraft departed
 	 */
 	public void departed(int gateNumber) {
-		gates[gateNumber].departed();//Call the departed method in the gate class for the specified position in the array
-		setChanged();
-		notifyObservers();//Notify the observers of the change to the database
+		gateChanged(gateNumber, () -> gates[gateNumber].departed());//Call the departed method in the gate class for the specified position in the array
 	}
 }
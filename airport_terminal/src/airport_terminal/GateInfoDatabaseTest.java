@@ -3,6 +3,9 @@ package airport_terminal;
 //Allow assertions to be used
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.ArrayList;
+import java.util.List;
+
 //Imports for allowing test and the before each test method
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.BeforeEach;;
@@ -193,4 +196,27 @@ class GateInfoDatabaseTest {
 		assertEquals(0,gateInfo.getStatus(2), "Status of gate 2 was not as expected");
 		
 	}
+	
+	/**
+	 * This method tests that the observers are told which gate changed and how, and are not told about
+	 * changes that did not happen because their preconditions did not hold
+	 */
+	@Test
+	@SuppressWarnings("deprecation")
+	void testChangeEvents() {
+		List<ChangeSet> notifications = new ArrayList<ChangeSet>();
+		gateInfo.addObserver((o, arg) -> notifications.add((ChangeSet) arg));//Record every notification
+		
+		gateInfo.allocate(1, 4);
+		gateInfo.docked(2);//Gate 2 is free, so this should not change anything
+		
+		assertEquals(1, notifications.size(), "Observers were not notified exactly once");
+		ChangeEvent event = notifications.get(0).getEvents().get(0);
+		assertEquals(ChangeEvent.Source.GATE, event.getSource(), "The event came from the wrong database");
+		assertEquals(1, event.getGateNumber(), "The event named the wrong gate");
+		assertEquals(4, event.getmCode(), "The event named the wrong aircraft");
+		assertEquals(Gate.FREE, event.getOldStatus(), "Wrong old status");
+		assertEquals(Gate.RESERVED, event.getNewStatus(), "Wrong new status");
+		assertTrue(event.changed(ChangeEvent.Field.STATUS), "The status change was not described");
+	}
 }
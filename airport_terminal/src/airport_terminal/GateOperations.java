@@ -0,0 +1,94 @@
+package airport_terminal;
+
+/**
+ * A programmatic controller for one gate that does the job of a GateConsole
+ * screen: docking and unloading arriving aircraft, and updating and closing
+ * departing flights. Used by the GateConsole itself, and in headless mode (see
+ * AirportServer).
+ *
+ * Each operation checks the state it needs and makes its change in one step,
+ * so if another operator has got in first nothing happens and false is
+ * returned.
+ *
+ * @stereotype control
+ */
+public class GateOperations {
+
+	private final AircraftManagementDatabase aircraftManagementDatabase;
+	private final GateInfoDatabase gateInfoDatabase;
+	private final int gateNumber;
+
+	/**
+	 * The constructor for this class.
+	 * @param amd The aircraft database
+	 * @param gid The gate database
+	 * @param gateNumber The gate this controller operates
+	 */
+	public GateOperations(AircraftManagementDatabase amd, GateInfoDatabase gid, int gateNumber) {
+		this.aircraftManagementDatabase = amd;
+		this.gateInfoDatabase = gid;
+		this.gateNumber = gateNumber;
+	}
+
+	/** Return the gate this controller operates. */
+	public int getGateNumber() {
+		return gateNumber;
+	}
+
+	/**
+	 * Return the mCode of the aircraft the gate is allocated to, or -1 if the
+	 * gate is FREE.
+	 */
+	public int getmCode() {
+		return gateInfoDatabase.getStatus(gateNumber) == Gate.FREE ? -1 : gateInfoDatabase.getmCode(gateNumber);
+	}
+
+	/**
+	 * Records that a taxiing aircraft has docked at the gate.
+	 * @param mCode The aircraft's mCode
+	 * @return True if it was TAXIING and is now UNLOADING
+	 */
+	public boolean dock(int mCode) {
+		if (!aircraftManagementDatabase.transition(mCode, ManagementRecord.TAXIING, ManagementRecord.UNLOADING)) {
+			return false;
+		}
+		gateInfoDatabase.docked(gateNumber);//The gate is now occupied
+		return true;
+	}
+
+	/**
+	 * Records that an aircraft at the gate has been unloaded.
+	 * @param mCode The aircraft's mCode
+	 * @return True if it was UNLOADING and is now READY_FOR_CLEAN_MAINT
+	 */
+	public boolean unloaded(int mCode) {
+		return aircraftManagementDatabase.transition(mCode, ManagementRecord.UNLOADING, ManagementRecord.READY_FOR_CLEAN_MAINT);
+	}
+
+	/**
+	 * Updates the itinerary of the departing flight at the gate.
+	 * @param mCode The aircraft's mCode
+	 * @param from Where it is departing from
+	 * @param to Where it is going
+	 * @param next Where it goes after that
+	 */
+	public void updateItinerary(int mCode, String from, String to, String next) {
+		aircraftManagementDatabase.setItinerary(mCode, from, to, next);
+	}
+
+	/**
+	 * Closes the departing flight at the gate with the passengers who have
+	 * checked in, as one batch so observers are told once.
+	 * @param mCode The aircraft's mCode
+	 * @param passengers The passengers who have checked in
+	 * @return True if it was READY_PASSENGERS and is now READY_DEPART
+	 */
+	public boolean closeFlight(int mCode, PassengerList passengers) {
+		return aircraftManagementDatabase.batch(amd -> {
+			//If the status of the aircraft was ready for passengers THEN set the status for the aircraft to ready to depart
+			if (amd.transition(mCode, ManagementRecord.READY_PASSENGERS, ManagementRecord.READY_DEPART)) {
+				amd.setPassengerList(mCode, passengers);//Update the passenger list for the flight
+			}
+		});
+	}
+}
@@ -0,0 +1,77 @@
+package airport_terminal;
+
+/**
+ * A programmatic controller for the GateInfoDatabase and the
+ * AircraftManagementDatabase that does the job of the GOC screen: granting
+ * ground clearance, allocating gates and permitting aircraft to taxi to the
+ * runway. Used by the GOC screen itself, and in headless mode (see
+ * AirportServer).
+ *
+ * Each status change is a compare-and-set, so if another operator has got in
+ * first nothing happens and false is returned. Allocating a gate takes two
+ * steps - the gate is reserved, then the aircraft is told to taxi to it - so if
+ * the aircraft has been sent elsewhere in between, the gate is released again.
+ *
+ * @stereotype control
+ */
+public class GroundOperations {
+
+	private final AircraftManagementDatabase aircraftManagementDatabase;
+	private final GateInfoDatabase gateInfoDatabase;
+
+	/**
+	 * The constructor for this class.
+	 * @param amd The aircraft database
+	 * @param gid The gate database
+	 */
+	public GroundOperations(AircraftManagementDatabase amd, GateInfoDatabase gid) {
+		this.aircraftManagementDatabase = amd;
+		this.gateInfoDatabase = gid;
+	}
+
+	/**
+	 * Grants an aircraft that wants to land permission to do so.
+	 * @param mCode The aircraft's mCode
+	 * @return True if it was WANTING_TO_LAND and is now GROUND_CLEARANCE_GRANTED
+	 */
+	public boolean grantGroundClearance(int mCode) {
+		return aircraftManagementDatabase.transition(mCode, ManagementRecord.WANTING_TO_LAND, ManagementRecord.GROUND_CLEARANCE_GRANTED);
+	}
+
+	/**
+	 * Allocates a FREE gate to a LANDED aircraft and tells it to taxi there.
+	 * @param mCode The aircraft's mCode
+	 * @param gateNumber The gate
+	 * @return True if the gate is now reserved for the aircraft and it is TAXIING
+	 */
+	public boolean allocateGate(int mCode, int gateNumber) {
+		if (aircraftManagementDatabase.getStatus(mCode) != ManagementRecord.LANDED || gateInfoDatabase.getStatus(gateNumber) != Gate.FREE) {
+			return false;//Not ready for a gate, or the gate is in use
+		}
+		if (!gateInfoDatabase.allocate(gateNumber, mCode)) {//If another operator reserved it first THEN
+			return false;
+		}
+		if (!aircraftManagementDatabase.taxiTo(mCode, gateNumber)) {//If another operator sent the aircraft to a different gate first THEN
+			gateInfoDatabase.release(gateNumber, mCode);//Give this gate back
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Permits an aircraft that is waiting to taxi to cross the tarmac to the
+	 * runway, freeing its gate.
+	 * @param mCode The aircraft's mCode
+	 * @return True if it was AWAITING_TAXI and is now AWAITING_TAKEOFF
+	 */
+	public boolean permitTaxi(int mCode) {
+		int gate = aircraftManagementDatabase.getGateNumber(mCode);//The gate the aircraft is leaving
+		if (!aircraftManagementDatabase.transition(mCode, ManagementRecord.AWAITING_TAXI, ManagementRecord.AWAITING_TAKEOFF)) {
+			return false;//Another operator already has, or it is not ready
+		}
+		if (gate >= 0) {//If it was given a gate THEN
+			gateInfoDatabase.departed(gate);//The gate is free again
+		}
+		return true;
+	}
+}
@@ -0,0 +1,43 @@
+package airport_terminal;
+
+//Allow assertions to be used
+import static org.junit.jupiter.api.Assertions.*;
+import static airport_terminal.TestFlights.*;
+
+//Imports for allowing test and the before each test method
+import org.junit.jupiter.api.Test;
+
+
+class GroundOperationsTest {
+	/**
+	 * Tests that when two operators allocate different gates to the same aircraft at once, only one succeeds and the other gate is given back
+	 */
+	@Test
+	void testAllocateGateLoserReleasesItsGate() {
+		GroundOperations[] other = new GroundOperations[1];
+		AircraftManagementDatabase amd = new AircraftManagementDatabase() {
+			@Override
+			public boolean taxiTo(int mCode, int gateNumber) {
+				GroundOperations operator = other[0];
+				other[0] = null;
+				if (operator != null) {//The first operator has reserved its gate, but another gets the aircraft moving first
+					assertTrue(operator.allocateGate(mCode, 2), "The other operator could not allocate its gate");
+				}
+				return super.taxiTo(mCode, gateNumber);
+			}
+		};
+		GateInfoDatabase gid = new GateInfoDatabase();
+		GroundOperations operations = new GroundOperations(amd, gid);
+		int mCode = amd.radarDetect(flight("BA1", "Stirling"));
+		moveTo(amd, mCode, ManagementRecord.LANDED);
+		other[0] = operations;
+
+		assertFalse(operations.allocateGate(mCode, 1), "Both operators allocated a gate");
+		assertEquals(ManagementRecord.TAXIING, amd.getStatus(mCode), "The aircraft is not taxiing");
+		assertEquals(2, amd.getGateNumber(mCode), "The aircraft is not going to the winning gate");
+		assertEquals(Gate.RESERVED, gid.getStatus(2), "The winning gate is not reserved");
+		assertEquals(Gate.FREE, gid.getStatus(1), "The losing gate was left reserved");
+		assertEquals(-1, gid.getmCode(1), "The losing gate still names the aircraft");
+		assertFalse(gid.release(2, mCode + 1), "A gate was released for an aircraft it was not reserved for");
+	}
+}
@@ -0,0 +1,381 @@
+package airport_terminal;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only record of every change made to the AircraftManagementDatabase
+ * and the GateInfoDatabase, kept on disk so that the state of the airport
+ * survives a restart.
+ *
+ * The journal is an EventRing consumer, so it records exactly the changes the
+ * observers are told about, without slowing down the thread making them. It
+ * records the new values of the fields that changed (see JournalEntry), so
+ * radarDetect, setStatus, taxiTo, faultsFound, addPassenger, setItinerary,
+ * setPassengerList and radarLostContact, and allocate, docked and departed on
+ * the gates, are all covered.
+ *
+ * Entries are written into memory-mapped segment files in the journal's
+ * directory, named journal-NNNNNNNN.seg. Each entry is its length, the entry,
+ * then a CRC32 of the entry; a length of 0 marks the end of a segment. Writing
+ * an entry is just a copy into memory. The entries are committed once for
+ * every batch the journal takes from the ring (group commit): if forceOnCommit
+ * is set, the segment is forced to disk then, so a burst of changes costs one
+ * disk write rather than one each. Without it, entries are still safe if the
+ * process stops, as the operating system writes the mapped pages out itself.
+ *
+ * Once a SnapshotFile holds every change in a segment, truncate deletes the
+ * segment, so that only the changes made since the snapshot have to be
+ * replayed on restart.
+ *
+ * If an entry cannot be written (a new segment cannot be created, say), the
+ * journal has failed: it writes nothing more, since replaying the entries after
+ * a gap would put back a state that never existed, and tells its failure
+ * handler, so the operator finds out rather than relying on a journal with
+ * changes missing.
+ */
+public class Journal implements EventRing.Handler, Closeable {
+
+	static final String PREFIX = "journal-";
+	static final String SUFFIX = ".seg";
+
+	private final File directory;
+	private final int segmentSize;//The size new segment files are created at
+	private final boolean forceOnCommit;//Whether each commit waits for the disk
+	private int segmentNumber;//The number of the segment being written
+	private MappedByteBuffer segment;//The segment being written
+	private ByteBuffer scratch = ByteBuffer.allocate(1024);//Entries are encoded here first, to find their length
+	private final CRC32 crc = new CRC32();
+	private boolean dirty;//True if entries have been written since the last commit
+	private final long[] segmentVersions = { -1, -1 };//The highest record and gate version written to the segment being written
+	private final Map<Integer, long[]> closedVersions = new HashMap<Integer, long[]>();//The same for segments that have been closed
+	private final AtomicLong entries = new AtomicLong();//The number of entries written
+	private final AtomicLong commits = new AtomicLong();//The number of group commits
+	private final AtomicLong bytes = new AtomicLong();//The number of bytes written
+	private final AtomicLong commitNanos = new AtomicLong();//The total time spent committing
+	private volatile long lastCommitNanos;
+	private volatile IOException failure;//Why the journal failed, or null if it has not
+	private volatile Consumer<IOException> failureHandler = e -> {
+	};
+
+	/**
+	 * The constructor for this class. Opens a new segment after any that are
+	 * already in the directory, which are left as they are.
+	 * @param directory Where the segment files are kept - created if needed
+	 * @param segmentSize The size of each segment file, in bytes
+	 * @param forceOnCommit True to force each commit to disk
+	 * @throws IOException If the first segment cannot be created
+	 */
+	public Journal(File directory, int segmentSize, boolean forceOnCommit) throws IOException {
+		this.directory = directory;
+		this.segmentSize = segmentSize;
+		this.forceOnCommit = forceOnCommit;
+		if (!directory.isDirectory() && !directory.mkdirs()) {
+			throw new IOException("Cannot create journal directory " + directory);
+		}
+		int[] existing = segmentNumbers(directory);
+		segmentNumber = existing.length == 0 ? 0 : existing[existing.length - 1];
+		openSegment(segmentSize);
+	}
+
+	@Override
+	public void onEvent(ChangeEvent event, long sequence, boolean endOfBatch) {
+		if (failure != null) {//If an earlier change could not be written THEN
+			return;//Nothing after the gap can be trusted
+		}
+		try {
+			append(event);
+			if (endOfBatch) {//If no more changes are waiting THEN
+				commit();//Commit the whole batch at once
+			}
+		} catch (IOException e) {
+			fail(e);
+		}
+	}
+
+	/**
+	 * Marks the journal as failed, commits the entries written before the
+	 * failure and tells the failure handler. Nothing is written afterwards.
+	 * @param cause Why an entry could not be written
+	 */
+	private void fail(IOException cause) {
+		synchronized (this) {
+			failure = cause;
+			if (segment != null) {//If the failure did not lose the segment being written THEN
+				commit();//Keep everything up to the gap
+			}
+		}
+		failureHandler.accept(cause);
+	}
+
+	/**
+	 * Sets what is told when the journal fails. It is called once, on the
+	 * journal's consumer thread.
+	 * @param handler Given the reason the journal failed
+	 */
+	public void setFailureHandler(Consumer<IOException> handler) {
+		failureHandler = handler;
+	}
+
+	/** Return why the journal failed, or null if it has not. */
+	public IOException getFailure() {
+		return failure;
+	}
+
+	/**
+	 * Writes one change to the journal. It is not committed until commit is
+	 * called.
+	 * @param event The change
+	 * @throws IOException If a new segment is needed and cannot be created, or the journal has failed
+	 */
+	public synchronized void append(ChangeEvent event) throws IOException {
+		if (failure != null) {//If an earlier change could not be written THEN
+			throw new IOException("The journal has failed", failure);
+		}
+		while (true) {//Until the entry fits in the scratch buffer
+			scratch.clear();
+			try {
+				JournalEntry.encode(event, scratch);
+				break;
+			} catch (BufferOverflowException e) {
+				scratch = ByteBuffer.allocate(scratch.capacity() * 2);
+			}
+		}
+		scratch.flip();
+		int length = scratch.remaining();
+		crc.reset();
+		crc.update(scratch.array(), 0, length);
+		if (segment.remaining() < length + 12) {//If the entry, its length, its CRC and the end marker do not fit THEN
+			nextSegment(length + 12);
+		}
+		segment.putInt(length);
+		segment.put(scratch);
+		segment.putInt((int) crc.getValue());
+		segment.putInt(segment.position(), 0);//The end marker, overwritten by the next entry
+		dirty = true;
+		int source = event.getSource().ordinal();
+		segmentVersions[source] = Math.max(segmentVersions[source], event.getVersion());
+		entries.incrementAndGet();
+		bytes.addAndGet(length + 8);
+	}
+
+	/**
+	 * Commits everything written since the last commit, forcing it to disk if
+	 * forceOnCommit was set.
+	 */
+	public synchronized void commit() {
+		if (!dirty) {
+			return;
+		}
+		long start = System.nanoTime();
+		if (forceOnCommit) {
+			segment.force();
+		}
+		dirty = false;
+		lastCommitNanos = System.nanoTime() - start;
+		commitNanos.addAndGet(lastCommitNanos);
+		commits.incrementAndGet();
+	}
+
+	/**
+	 * Closes the segment being written and starts the next one.
+	 * @param needed The room the next entry needs
+	 */
+	private void nextSegment(int needed) throws IOException {
+		commit();
+		closeSegment();
+		closedVersions.put(segmentNumber, segmentVersions.clone());
+		segmentVersions[0] = -1;
+		segmentVersions[1] = -1;
+		openSegment(Math.max(segmentSize, needed + 4));
+	}
+
+	/**
+	 * Deletes every closed segment whose changes are all held in a snapshot: its
+	 * record changes are all at or before the given record version, and its gate
+	 * changes at or before the given gate version. The segment being written is
+	 * never deleted.
+	 * @param aircraftVersion The version of the AircraftManagementDatabase the snapshot was taken at
+	 * @param gateVersion The version of the GateInfoDatabase the snapshot was taken at
+	 * @return The number of segments deleted
+	 * @throws IOException If a segment from before this journal was opened cannot be read
+	 */
+	public synchronized int truncate(long aircraftVersion, long gateVersion) throws IOException {
+		int deleted = 0;
+		for (int number : segmentNumbers(directory)) {
+			if (number >= segmentNumber) {//If this is the segment being written THEN
+				break;
+			}
+			long[] versions = closedVersions.get(number);
+			if (versions == null) {//If the segment was written before this journal was opened THEN
+				versions = highestVersions(segmentFile(directory, number));
+				closedVersions.put(number, versions);
+			}
+			if (versions[0] <= aircraftVersion && versions[1] <= gateVersion && segmentFile(directory, number).delete()) {
+				closedVersions.remove(number);
+				deleted++;
+			}
+		}
+		return deleted;
+	}
+
+	/**
+	 * Return the highest record version and gate version in a segment file.
+	 */
+	private static long[] highestVersions(File file) throws IOException {
+		List<JournalEntry> read = new ArrayList<JournalEntry>();
+		readSegment(file, read);
+		long[] versions = { -1, -1 };
+		for (JournalEntry entry : read) {
+			int source = entry.getSource().ordinal();
+			versions[source] = Math.max(versions[source], entry.getVersion());
+		}
+		return versions;
+	}
+
+	/**
+	 * Creates and maps the next segment file.
+	 */
+	private void openSegment(int size) throws IOException {
+		segmentNumber++;
+		File file = segmentFile(directory, segmentNumber);
+		try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+			segment = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);//Stays mapped after the file is closed
+		}
+		segment.putInt(0, 0);//An empty segment
+	}
+
+	/**
+	 * Makes sure everything in the current segment is on disk.
+	 */
+	private void closeSegment() {
+		if (segment != null) {
+			segment.force();
+			segment = null;
+		}
+	}
+
+	/**
+	 * Commits and closes the journal. Nothing can be written afterwards.
+	 */
+	@Override
+	public synchronized void close() {
+		commit();
+		closeSegment();
+	}
+
+	/** Return the directory the segments are kept in. */
+	public File getDirectory() {
+		return directory;
+	}
+
+	/** Return the number of entries written. */
+	public long getEntryCount() {
+		return entries.get();
+	}
+
+	/** Return the number of group commits made. */
+	public long getCommitCount() {
+		return commits.get();
+	}
+
+	/** Return the number of bytes of entries written. */
+	public long getBytesWritten() {
+		return bytes.get();
+	}
+
+	/** Return how long the most recent commit took, in microseconds. */
+	public double getLastCommitMicros() {
+		return lastCommitNanos / 1e3;
+	}
+
+	/** Return the average time a commit has taken, in microseconds. */
+	public double getAverageCommitMicros() {
+		long count = commits.get();
+		return count == 0 ? 0 : commitNanos.get() / 1e3 / count;
+	}
+
+	/**
+	 * Reads back every entry in every segment in the given directory, oldest
+	 * first. Reading a segment stops at its end marker, or at an entry that was
+	 * only partly written or is damaged.
+	 * @param directory The journal's directory
+	 * @return The entries
+	 * @throws IOException If a segment cannot be read
+	 */
+	public static List<JournalEntry> read(File directory) throws IOException {
+		List<JournalEntry> read = new ArrayList<JournalEntry>();
+		for (int number : segmentNumbers(directory)) {
+			readSegment(segmentFile(directory, number), read);
+		}
+		return read;
+	}
+
+	/**
+	 * Adds every complete entry in one segment file to the list.
+	 */
+	static void readSegment(File file, List<JournalEntry> read) throws IOException {
+		try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+			ByteBuffer in = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, raf.length());
+			CRC32 check = new CRC32();
+			while (in.remaining() >= 4) {
+				int length = in.getInt();
+				if (length <= 0 || length + 4 > in.remaining()) {//If this is the end marker, or the entry was cut short THEN
+					return;
+				}
+				ByteBuffer body = in.slice();
+				body.limit(length);
+				in.position(in.position() + length);
+				int expected = in.getInt();
+				byte[] bytes = new byte[length];
+				body.duplicate().get(bytes);
+				check.reset();
+				check.update(bytes, 0, length);
+				if ((int) check.getValue() != expected) {//If the entry is damaged THEN
+					return;//Nothing after it can be trusted
+				}
+				try {
+					read.add(JournalEntry.decode(body));
+				} catch (BufferUnderflowException | IllegalArgumentException e) {
+					return;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Return the numbers of the segment files in the given directory, in order.
+	 */
+	static int[] segmentNumbers(File directory) {
+		String[] names = directory.list();
+		if (names == null) {
+			return new int[0];
+		}
+		return Arrays.stream(names)
+				.filter(name -> name.matches(PREFIX + "\\d+" + "\\" + SUFFIX))
+				.mapToInt(name -> Integer.parseInt(name.substring(PREFIX.length(), name.length() - SUFFIX.length())))
+				.sorted().toArray();
+	}
+
+	/**
+	 * Return the file for the given segment number.
+	 */
+	static File segmentFile(File directory, int number) {
+		return new File(directory, String.format("%s%08d%s", PREFIX, number, SUFFIX));
+	}
+}
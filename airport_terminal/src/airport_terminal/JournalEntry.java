@@ -0,0 +1,307 @@
+package airport_terminal;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * One change read back from the Journal: a management record or a gate, the
+ * database version after the change, and the new values of the fields that
+ * changed. Fields that did not change are left at their defaults.
+ *
+ * Also holds the binary format the entries are written in. An entry is the
+ * source (one byte), the mCode or gate number (int), the version (long), a
+ * bit for each ChangeEvent.Field that changed (short), then the value of
+ * each changed field in the order of the Field enum. Strings are written as
+ * their length in UTF-8 bytes followed by the bytes, or a length of -1 for
+ * null; the passenger list as the number of passengers followed by their
+ * names, or -1 for no list. A gate entry always has its status and the mCode
+ * of the aircraft using it (-1 for none). A SnapshotFile holds one entry for
+ * every record in use, with every field, and one for every gate.
+ */
+public final class JournalEntry {
+
+	private static final ChangeEvent.Field[] FIELDS = ChangeEvent.Field.values();
+
+	private ChangeEvent.Source source;
+	private int code;//The mCode of the record, or the number of the gate
+	private long version;
+	private Set<ChangeEvent.Field> fields;
+	private int status;
+	private String flightCode;
+	private int gateNumber = -1;
+	private String from;
+	private String to;
+	private String next;
+	private String[] passengers;//The names of the passengers, or null for no list
+	private String faultDescription;
+	private int mCode = -1;//For a gate, the aircraft using it
+
+	private JournalEntry() {
+	}
+
+	/**
+	 * Writes the given event in the binary format.
+	 * @param event The event
+	 * @param out Where to write it
+	 * @throws java.nio.BufferOverflowException If there is not enough room - nothing useful has been written
+	 */
+	static void encode(ChangeEvent event, ByteBuffer out) {
+		if (event.getSource() == ChangeEvent.Source.GATE) {
+			int mCode = event.getNewStatus() == Gate.FREE ? -1 : event.getmCode();//A FREE gate has no aircraft
+			encodeGate(event.getGateNumber(), event.getVersion(), event.getFields(), event.getNewStatus(), mCode, out);
+		} else {
+			encodeRecord(event.getRecord(), event.getFields(), out);
+		}
+	}
+
+	/**
+	 * Writes the given fields of a management record in the binary format.
+	 * @param record The record, at the version to be written
+	 * @param fields The fields to write
+	 * @param out Where to write it
+	 * @throws java.nio.BufferOverflowException If there is not enough room
+	 */
+	static void encodeRecord(RecordView record, Set<ChangeEvent.Field> fields, ByteBuffer out) {
+		out.put((byte) ChangeEvent.Source.AIRCRAFT.ordinal());
+		out.putInt(record.getmCode());
+		out.putLong(record.getVersion());
+		out.putShort(bits(fields));
+		for (ChangeEvent.Field field : FIELDS) {//In the order of the enum
+			if (!fields.contains(field)) {
+				continue;
+			}
+			switch (field) {
+			case STATUS:
+				out.putInt(record.getStatus());
+				break;
+			case FLIGHT_CODE:
+				putString(out, record.getFlightCode());
+				break;
+			case GATE:
+				out.putInt(record.getGateNumber());
+				break;
+			case ITINERARY:
+				putString(out, record.getFrom());
+				putString(out, record.getTo());
+				putString(out, record.getNext());
+				break;
+			case PASSENGERS:
+				PassengerDetails[] list = record.getPassengers();
+				out.putInt(list == null ? -1 : list.length);
+				if (list != null) {
+					for (PassengerDetails details : list) {
+						putString(out, details.getName());
+					}
+				}
+				break;
+			case FAULTS:
+				putString(out, record.getFaultDescription());
+				break;
+			case AIRCRAFT:
+				break;//Only used by gates
+			}
+		}
+	}
+
+	/**
+	 * Writes a gate in the binary format.
+	 * @param gateNumber The number of the gate
+	 * @param version The version of the gate database
+	 * @param fields The fields that changed
+	 * @param status The gate's status
+	 * @param mCode The aircraft using the gate, or -1
+	 * @param out Where to write it
+	 * @throws java.nio.BufferOverflowException If there is not enough room
+	 */
+	static void encodeGate(int gateNumber, long version, Set<ChangeEvent.Field> fields, int status, int mCode, ByteBuffer out) {
+		out.put((byte) ChangeEvent.Source.GATE.ordinal());
+		out.putInt(gateNumber);
+		out.putLong(version);
+		out.putShort(bits(fields));
+		out.putInt(status);
+		out.putInt(mCode);
+	}
+
+	/**
+	 * Returns a bit for each of the given fields.
+	 */
+	private static short bits(Set<ChangeEvent.Field> fields) {
+		int bits = 0;
+		for (ChangeEvent.Field field : fields) {
+			bits |= 1 << field.ordinal();
+		}
+		return (short) bits;
+	}
+
+	/**
+	 * Reads an entry written by encode.
+	 * @param in Positioned at the start of the entry
+	 * @return The entry
+	 * @throws java.nio.BufferUnderflowException If the entry is cut short
+	 * @throws IllegalArgumentException If the entry is not in the binary format
+	 */
+	static JournalEntry decode(ByteBuffer in) {
+		JournalEntry entry = new JournalEntry();
+		int source = in.get();
+		if (source < 0 || source >= ChangeEvent.Source.values().length) {
+			throw new IllegalArgumentException("Unknown source " + source);
+		}
+		entry.source = ChangeEvent.Source.values()[source];
+		entry.code = in.getInt();
+		entry.version = in.getLong();
+		int bits = in.getShort();
+		EnumSet<ChangeEvent.Field> fields = EnumSet.noneOf(ChangeEvent.Field.class);
+		for (ChangeEvent.Field field : FIELDS) {
+			if ((bits & (1 << field.ordinal())) != 0) {
+				fields.add(field);
+			}
+		}
+		entry.fields = Collections.unmodifiableSet(fields);
+		if (entry.source == ChangeEvent.Source.GATE) {
+			entry.status = in.getInt();
+			entry.mCode = in.getInt();
+			return entry;
+		}
+		for (ChangeEvent.Field field : fields) {
+			switch (field) {
+			case STATUS:
+				entry.status = in.getInt();
+				break;
+			case FLIGHT_CODE:
+				entry.flightCode = getString(in);
+				break;
+			case GATE:
+				entry.gateNumber = in.getInt();
+				break;
+			case ITINERARY:
+				entry.from = getString(in);
+				entry.to = getString(in);
+				entry.next = getString(in);
+				break;
+			case PASSENGERS:
+				int count = in.getInt();
+				if (count >= 0) {
+					entry.passengers = new String[count];
+					for (int i = 0; i < count; i++) {
+						entry.passengers[i] = getString(in);
+					}
+				}
+				break;
+			case FAULTS:
+				entry.faultDescription = getString(in);
+				break;
+			case AIRCRAFT:
+				break;
+			}
+		}
+		return entry;
+	}
+
+	/**
+	 * Writes a String as its length in UTF-8 bytes followed by the bytes.
+	 */
+	static void putString(ByteBuffer out, String value) {
+		if (value == null) {
+			out.putInt(-1);
+			return;
+		}
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		out.putInt(bytes.length);
+		out.put(bytes);
+	}
+
+	/**
+	 * Reads a String written by putString.
+	 */
+	static String getString(ByteBuffer in) {
+		int length = in.getInt();
+		if (length < 0) {
+			return null;
+		}
+		if (length > in.remaining()) {
+			throw new IllegalArgumentException("String longer than the entry");
+		}
+		byte[] bytes = new byte[length];
+		in.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/** Return which database changed. */
+	public ChangeEvent.Source getSource() {
+		return source;
+	}
+
+	/** Return the mCode of the management record, or the number of the gate. */
+	public int getCode() {
+		return code;
+	}
+
+	/** Return the version of the database after the change. */
+	public long getVersion() {
+		return version;
+	}
+
+	/** Return the fields that changed. */
+	public Set<ChangeEvent.Field> getFields() {
+		return fields;
+	}
+
+	/**
+	 * Return whether the given field changed.
+	 * @param field The field to check
+	 * @return True if it changed
+	 */
+	public boolean changed(ChangeEvent.Field field) {
+		return fields.contains(field);
+	}
+
+	/** Return the new status of the record or gate. */
+	public int getStatus() {
+		return status;
+	}
+
+	/** Return the new flight code, or null if the record became FREE. */
+	public String getFlightCode() {
+		return flightCode;
+	}
+
+	/** Return the new gate number of the record. */
+	public int getGateNumber() {
+		return gateNumber;
+	}
+
+	/** Return the new itinerary, or null if the record has none. */
+	public Itinerary getItinerary() {
+		return from == null && to == null && next == null ? null : new Itinerary(from, to, next);
+	}
+
+	/** Return a new copy of the passenger list, or null if the record has none. */
+	public PassengerList getPassengerList() {
+		if (passengers == null) {
+			return null;
+		}
+		PassengerList list = new PassengerList();
+		for (String name : passengers) {
+			list.addPassenger(new PassengerDetails(name));
+		}
+		return list;
+	}
+
+	/** Return the new description of the faults, or null if there is none. */
+	public String getFaultDescription() {
+		return faultDescription;
+	}
+
+	/** Return, for a gate, the mCode of the aircraft using it, or -1 if none. */
+	public int getmCode() {
+		return mCode;
+	}
+
+	@Override
+	public String toString() {
+		return source + " " + code + " " + fields + " v" + version;
+	}
+}
@@ -0,0 +1,111 @@
+package airport_terminal;
+
+//Allow assertions to be used
+import static org.junit.jupiter.api.Assertions.*;
+import static airport_terminal.TestFlights.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+//Imports for allowing test and the before each test method
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+
+
+class JournalTest {
+	AircraftManagementDatabase amd;
+
+	/**
+	 * This method runs before each individual test is run
+	 */
+	@BeforeEach
+	void setup() {
+		//Set up a new database to be used so that information is not left over from previous tests
+		amd = new AircraftManagementDatabase();
+	}
+
+	/**
+	 * Tests that the journal records every change to the records and gates, and that they can be read back
+	 */
+	@Test
+	void testJournalRecordsChanges() throws Exception {
+		File directory = Files.createTempDirectory("journal").toFile();
+		EventRing ring = new EventRing(64);
+		GateInfoDatabase gid = new GateInfoDatabase();
+		amd.setEventRing(ring, EventRing.WaitStrategy.BLOCKING);
+		gid.setEventRing(ring, EventRing.WaitStrategy.BLOCKING);
+		Journal journal = new Journal(directory, 256, true);//Small segments, so the journal has to start new ones
+		EventRing.Consumer consumer = ring.addConsumer("Journal", journal, EventRing.WaitStrategy.BLOCKING);
+
+		int mCode = amd.radarDetect(flight("BA1", "Stirling"));
+		moveTo(amd, mCode, ManagementRecord.LANDED);
+		amd.taxiTo(mCode, 2);
+		gid.allocate(2, mCode);
+		moveTo(amd, mCode, ManagementRecord.READY_FOR_CLEAN_MAINT);
+		amd.faultsFound(mCode, "Flat tyre");
+		moveTo(amd, mCode, ManagementRecord.READY_PASSENGERS);
+		amd.addPassenger(mCode, new PassengerDetails("Late Passenger"));
+		long deadline = System.currentTimeMillis() + 5000;
+		while (consumer.getSequence() < ring.getCursor() && System.currentTimeMillis() < deadline) {
+			Thread.sleep(5);
+		}
+		journal.close();
+
+		List<JournalEntry> entries = Journal.read(directory);
+		assertEquals(8, entries.size(), "Not every change was journalled");
+		assertTrue(Journal.segmentNumbers(directory).length > 1, "The journal did not start a new segment");
+		JournalEntry detected = entries.get(0);
+		assertEquals(mCode, detected.getCode(), "The wrong record was journalled");
+		assertEquals("BA1", detected.getFlightCode(), "The flight code was not journalled");
+		assertEquals("London", detected.getItinerary().getNext(), "The itinerary was not journalled");
+		assertEquals(2, entries.get(2).getGateNumber(), "The gate number was not journalled");
+		JournalEntry gate = entries.get(3);
+		assertEquals(ChangeEvent.Source.GATE, gate.getSource(), "The gate change was not journalled");
+		assertEquals(Gate.RESERVED, gate.getStatus(), "The gate status was not journalled");
+		assertEquals(mCode, gate.getmCode(), "The aircraft at the gate was not journalled");
+		assertEquals("Flat tyre", entries.get(5).getFaultDescription(), "The faults were not journalled");
+		assertEquals(2, entries.get(7).getPassengerList().getPassengerList().size(), "The passenger list was not journalled");
+		assertTrue(journal.getCommitCount() >= 1 && journal.getCommitCount() <= 8, "The journal did not commit");
+	}
+
+	/**
+	 * Tests that a journal that cannot write an entry stops writing, rather than leaving a gap and carrying on
+	 */
+	@Test
+	void testJournalStopsAtTheFirstFailure() throws Exception {
+		File directory = Files.createTempDirectory("journal").toFile();
+		EventRing ring = new EventRing(64);
+		amd.setEventRing(ring, EventRing.WaitStrategy.BLOCKING);
+		Journal journal = new Journal(directory, 256, false);//Small segments, so the journal has to start new ones
+		List<IOException> failures = new CopyOnWriteArrayList<IOException>();
+		journal.setFailureHandler(failures::add);
+		EventRing.Consumer consumer = ring.addConsumer("Journal", journal, EventRing.WaitStrategy.BLOCKING);
+		for (File segment : directory.listFiles()) {//Nowhere to put the next segment
+			assertTrue(segment.delete(), "A segment could not be deleted");
+		}
+		assertTrue(directory.delete(), "The journal directory could not be deleted");
+
+		for (int i = 0; i < 10; i++) {
+			amd.radarDetect(flight("BA" + i, "Stirling"));
+		}
+		long deadline = System.currentTimeMillis() + 5000;
+		while (consumer.getSequence() < ring.getCursor() && System.currentTimeMillis() < deadline) {
+			Thread.sleep(5);
+		}
+		assertNotNull(journal.getFailure(), "The journal did not notice it could not write");
+		assertEquals(1, failures.size(), "The failure handler was not told once");
+		assertEquals(0, consumer.getErrorCount(), "The failure was left to the ring");
+		long written = journal.getEntryCount();
+		amd.radarDetect(flight("BA10", "Stirling"));
+		deadline = System.currentTimeMillis() + 5000;
+		while (consumer.getSequence() < ring.getCursor() && System.currentTimeMillis() < deadline) {
+			Thread.sleep(5);
+		}
+		assertEquals(written, journal.getEntryCount(), "The journal carried on after a gap");
+		assertThrows(IOException.class, () -> journal.append(ChangeEvent.gate(0, Gate.FREE, Gate.RESERVED, -1, 0, 1)), "An entry was appended after the failure");
+		journal.close();
+	}
+}
@@ -8,8 +8,8 @@ import java.awt.event.ActionListener;
 import java.util.Observable;
 import java.util.Observer;
 
-import javax.swing.DefaultListModel;
 import javax.swing.JButton;
+import javax.swing.JComboBox;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
 import javax.swing.JList;
@@ -51,12 +51,19 @@ public class LATC extends JFrame implements ActionListener, Observer {
 	// Lists
 	private JPanel panel;
 	private JList<String> outputList;
-	private DefaultListModel<String> list;
+	// One row for each aircraft matching any of the following statuses: 1, 2, 3, 4, 15, 16, 17, 18
+	private final FlightListModel list = new FlightListModel(status -> (status >= 1 && status <= 4) || (status >= 15 && status <= 18));
+	private JComboBox<FlightListModel.SortKey> sortBy; // Chooses what the list is sorted by
+	private final ListModelBridge rows = ListModelBridge.swing(); // Applies changes to the list on the Swing event thread, once per frame
 
 	public LATC(AircraftManagementDatabase amd) {
 
 		this.aircraftManagementDatabase = amd;
-		amd.addObserver(this);
+		// Only be told about aircraft arriving or leaving
+		amd.subscribe(this, ManagementRecord.IN_TRANSIT, ManagementRecord.WANTING_TO_LAND,
+				ManagementRecord.GROUND_CLEARANCE_GRANTED, ManagementRecord.LANDING, ManagementRecord.READY_DEPART,
+				ManagementRecord.AWAITING_TAXI, ManagementRecord.AWAITING_TAKEOFF,
+				ManagementRecord.DEPARTING_THROUGH_LOCAL_AIRSPACE);
 
 		setTitle("LATC"); // Set the window title
 		setLocation(0, 0); // Set location on screen
@@ -90,15 +97,19 @@ public class LATC extends JFrame implements ActionListener, Observer {
 		window.add(flightInfo); // Add button to window container
 		flightInfo.addActionListener(this); // Add action listener to button to start chain of events if clicked
 
+		// Box to choose what the list is sorted by
+		sortBy = new JComboBox<>(FlightListModel.SortKey.values());
+		window.add(sortBy);
+		sortBy.addActionListener(e -> list.sortBy((FlightListModel.SortKey) sortBy.getSelectedItem())); // Re-sort the list when a different order is chosen
+
 		panel = new JPanel(); // New panel 
-		list = new DefaultListModel<String>(); // New list of string
 		outputList = new JList<>(list); // Adds list of stings to a JList to be displayed in screen
+		outputList.setPrototypeCellValue(FlightListModel.PROTOTYPE_ROW); // Every row the same size, so only the rows on screen are looked at
 		outputList.addListSelectionListener(e -> aircraftSelected()); // Add action listener to list to start chain of events if an item is selected
 
 		JScrollPane scroll = new JScrollPane(outputList); // Create new scroll pane to display the list of aircrafts
 		scroll.setPreferredSize(new Dimension(500, 200)); // Sets size of scroll pane
 		panel.add(scroll); // Adds scroll pane to panel
-		list.setSize(aircraftManagementDatabase.maxMRs); // Sets size of list to be the max number of aircrafts
 		
 		window.add(panel); // Adds panel to window to be displayed
 		
@@ -109,31 +120,12 @@ public class LATC extends JFrame implements ActionListener, Observer {
 	}
 
 	/*
-	 * Method to update the list of aircrafts 
-	 * Setting a list item as null if the corresponding aircraft index is empty, this keeps indexing the same for 
-	 * both an aircraft list and the management record database
+	 * Method to update the list of aircrafts, on the Swing event thread
+	 * 
+	 * Only the rows of aircraft that have changed since the last time are touched
 	 */
 	private void aircraftListUpdate() {
-		for (int i = 0; i < aircraftManagementDatabase.maxMRs; i++) { // For each record in database
-			ManagementRecord managementRecord = aircraftManagementDatabase.getManagementRecord(i); // Create local instance of that MR
-
-			if (managementRecord == null) { // If record is empty
-				list.set(i, null); // Set the same position (i) in list to be empty
-			} else { // If record is not empty
-				list.set(i, null); // Set the same position (i) in list to be empty
-				// If the status of the management record matches any of the following: 1, 2, 3, 4, 15, 16, 17, 18
-				if (managementRecord.getStatus() == 1 || managementRecord.getStatus() == 2
-						|| managementRecord.getStatus() == 3 || managementRecord.getStatus() == 4
-						|| managementRecord.getStatus() == 15 || managementRecord.getStatus() == 16
-						|| managementRecord.getStatus() == 17 || managementRecord.getStatus() == 18) { 
-					// Create String record and assign it with the flight code and flight status from the current record
-					String record = "Flight Code: " + managementRecord.getFlightCode() + "     " + "Flight Status: "
-							+ managementRecord.getStatusString();
-					
-					list.set(i, record); // Add the string record (created above) to the list to appear on screen
-				}
-			}
-		}
+		rows.later(list, () -> list.refresh(aircraftManagementDatabase.snapshot())); // The latest state of every record, once per frame
 	} // End aircraftListUpdate()
 
 	/*
@@ -148,7 +140,7 @@ public class LATC extends JFrame implements ActionListener, Observer {
 				}
 				buttonAvailability(); // Method call
 			} else { // If an aircraft is selected
-				MRIndex = outputList.getSelectedIndex(); // MRIndex becomes the same index of the selected aircraft in the list
+				MRIndex = list.getmCode(outputList.getSelectedIndex()); // MRIndex becomes the mCode of the aircraft in the selected row
 				if (!isButtonAvailable) { // If buttons not available
 					isButtonAvailable = true; // Set buttons to be available
 				}
@@ -203,26 +195,26 @@ public class LATC extends JFrame implements ActionListener, Observer {
 	public void actionPerformed(ActionEvent e) {
 		// If landing allowed button is clicked
 		if (e.getSource() == landingAllowed) {
-			aircraftManagementDatabase.setStatus(MRIndex, 4); // Change status
+			aircraftManagementDatabase.transition(MRIndex, ManagementRecord.GROUND_CLEARANCE_GRANTED, ManagementRecord.LANDING); // Change status, unless another operator already has
 			aircraftListUpdate(); // Method call
 			aircraftSelected();// Method call
 		}
 		// If confirmLanding button is clicked
 		if (e.getSource() == confirmLanding) {
-			aircraftManagementDatabase.setStatus(MRIndex, 5); // Change status
+			aircraftManagementDatabase.transition(MRIndex, ManagementRecord.LANDING, ManagementRecord.LANDED); // Change status, unless another operator already has
 			aircraftListUpdate();// Method call
 			aircraftSelected();// Method call
 		}
 		// If waitingForTaxi button is clicked
 		if (e.getSource() == waitingForTaxi) {
-			aircraftManagementDatabase.setStatus(MRIndex, 16); // Change status
+			aircraftManagementDatabase.transition(MRIndex, ManagementRecord.READY_DEPART, ManagementRecord.AWAITING_TAXI); // Change status, unless another operator already has
 			aircraftListUpdate();// Method call
 			aircraftSelected();// Method call
 		}
 
 		// If takeOffAllowed button is clicked
 		if (e.getSource() == takeOffAllowed) {
-			aircraftManagementDatabase.setStatus(MRIndex, 18); // Change status
+			aircraftManagementDatabase.transition(MRIndex, ManagementRecord.AWAITING_TAKEOFF, ManagementRecord.DEPARTING_THROUGH_LOCAL_AIRSPACE); // Change status, unless another operator already has
 			aircraftListUpdate();// Method call
 			aircraftSelected();// Method call
 		}
@@ -240,8 +232,10 @@ public class LATC extends JFrame implements ActionListener, Observer {
 
 	@Override
 	public void update(Observable o, Object arg) {
-		outputList.clearSelection(); // Clear selection of list
-		aircraftSelected(); // Method call
+		rows.later(this, () -> { // On the Swing event thread
+			outputList.clearSelection(); // Clear selection of list
+			aircraftSelected(); // Method call
+		});
 		aircraftListUpdate(); // Method call
 	}
 
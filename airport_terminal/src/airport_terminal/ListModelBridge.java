@@ -0,0 +1,189 @@
+package airport_terminal;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.swing.DefaultListModel;
+import javax.swing.SwingUtilities;
+
+/**
+ * Passes changes to the screens' list models over to the Swing event thread.
+ *
+ * Screens are told about database changes on whichever thread is delivering
+ * them, but Swing list models may only be changed on the event thread. Rather
+ * than changing the models directly, or calling invokeLater once per row, a
+ * screen stages its row changes here with set and setSize, and any other work
+ * on its Swing components with later. The first change staged schedules a
+ * single pass on the event thread; every change staged before that pass runs
+ * is applied in it, for every screen at once. Only the latest value staged for
+ * a row is applied - earlier values that were overwritten before the pass ran
+ * are dropped, as is a row that would be set to the value it already has.
+ *
+ * All of the screens share the bridge returned by swing, so there is at most
+ * one pass waiting on the event thread at a time.
+ */
+public class ListModelBridge {
+
+	/**
+	 * The changes waiting for one list model.
+	 */
+	private static final class Rows {
+		int size = -1;//The size the model should be, or -1 if it has not been changed
+		TreeMap<Integer, Object> values = new TreeMap<Integer, Object>();//The latest value for each row that has changed
+	}
+
+	private static final ListModelBridge SWING = new ListModelBridge(SwingUtilities::invokeLater);
+
+	private final Executor eventThread;//Runs the passes on the thread that owns the list models
+	private final Object lock = new Object();//Guards the staged changes and scheduled
+	private LinkedHashMap<DefaultListModel<?>, Rows> staged = new LinkedHashMap<DefaultListModel<?>, Rows>();//The row changes waiting for each model
+	private LinkedHashMap<Object, Runnable> tasks = new LinkedHashMap<Object, Runnable>();//The latest work staged with later, for each key
+	private boolean scheduled;//True if a pass has been handed to the event thread but has not yet started
+	private final AtomicLong passes = new AtomicLong();//The number of passes that have been run
+	private final AtomicLong applied = new AtomicLong();//The number of row changes made to the models
+	private final AtomicLong dropped = new AtomicLong();//The number of staged changes that were never applied because they had been superseded
+
+	/**
+	 * The constructor for this class.
+	 * @param eventThread Runs the passes - SwingUtilities::invokeLater for real list models
+	 */
+	public ListModelBridge(Executor eventThread) {
+		this.eventThread = eventThread;
+	}
+
+	/**
+	 * Return the bridge shared by all of the screens, which applies changes on the
+	 * Swing event thread.
+	 */
+	public static ListModelBridge swing() {
+		return SWING;
+	}
+
+	/**
+	 * Stages a new value for one row of a list model. The model is grown if the
+	 * row is past its end.
+	 * @param model The list model
+	 * @param row The index of the row
+	 * @param value The new value of the row, or null to show an empty row
+	 */
+	public <E> void set(DefaultListModel<E> model, int row, E value) {
+		synchronized (lock) {
+			if (rows(model).values.containsKey(row)) {//If the row already had a change waiting THEN
+				dropped.incrementAndGet();//It has been superseded
+			}
+			rows(model).values.put(row, value);
+			schedule();
+		}
+	}
+
+	/**
+	 * Stages a new size for a list model. Rows past the new size are removed, and
+	 * rows added are empty.
+	 * @param model The list model
+	 * @param size The number of rows the model should have
+	 */
+	public void setSize(DefaultListModel<?> model, int size) {
+		synchronized (lock) {
+			Rows rows = rows(model);
+			rows.size = size;
+			rows.values.tailMap(size).clear();//Rows past the end no longer need changing
+			schedule();
+		}
+	}
+
+	/**
+	 * Stages work on a screen's Swing components, to be run in the next pass after
+	 * the row changes. If work with the same key is already waiting, it is
+	 * replaced, so only the latest is run.
+	 * @param key Identifies the work - usually the screen
+	 * @param work The work to run on the event thread
+	 */
+	public void later(Object key, Runnable work) {
+		synchronized (lock) {
+			if (tasks.remove(key) != null) {//If earlier work is still waiting THEN
+				dropped.incrementAndGet();//It has been superseded
+			}
+			tasks.put(key, work);//Put it at the end, so it runs after the work it superseded would have
+			schedule();
+		}
+	}
+
+	/**
+	 * Returns the changes waiting for the given model, adding an entry if there are
+	 * none yet. Must be called while holding the lock.
+	 */
+	private Rows rows(DefaultListModel<?> model) {
+		return staged.computeIfAbsent(model, m -> new Rows());
+	}
+
+	/**
+	 * Hands a pass to the event thread unless one is already waiting. Must be
+	 * called while holding the lock.
+	 */
+	private void schedule() {
+		if (!scheduled) {
+			scheduled = true;
+			eventThread.execute(this::apply);
+		}
+	}
+
+	/**
+	 * Applies every change staged so far. Runs on the event thread.
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private void apply() {
+		Map<DefaultListModel<?>, Rows> models;
+		Map<Object, Runnable> work;
+		synchronized (lock) {
+			models = staged;
+			work = tasks;
+			staged = new LinkedHashMap<DefaultListModel<?>, Rows>();//Changes staged from now on go in the next pass
+			tasks = new LinkedHashMap<Object, Runnable>();
+			scheduled = false;
+		}
+		for (Map.Entry<DefaultListModel<?>, Rows> entry : models.entrySet()) {//For every model with changes waiting
+			DefaultListModel model = entry.getKey();
+			Rows rows = entry.getValue();
+			if (rows.size >= 0 && model.getSize() != rows.size) {//If the model should be a different size THEN
+				model.setSize(rows.size);
+			}
+			for (Map.Entry<Integer, Object> row : rows.values.entrySet()) {//For every row that has changed
+				int index = row.getKey();
+				if (index >= model.getSize()) {//If the row is past the end of the model THEN
+					model.setSize(index + 1);
+				} else if (Objects.equals(model.get(index), row.getValue())) {//If the row already shows the value THEN
+					dropped.incrementAndGet();
+					continue;//Do not make the list repaint it
+				}
+				model.set(index, row.getValue());
+				applied.incrementAndGet();
+			}
+		}
+		for (Runnable task : work.values()) {
+			task.run();
+		}
+		passes.incrementAndGet();
+	}
+
+	/** Return the number of passes that have been run on the event thread. */
+	public long getPassCount() {
+		return passes.get();
+	}
+
+	/** Return the number of row changes that have been made to list models. */
+	public long getAppliedCount() {
+		return applied.get();
+	}
+
+	/**
+	 * Return the number of staged changes that were never applied, because a
+	 * later change replaced them or the row already showed the value.
+	 */
+	public long getDroppedCount() {
+		return dropped.get();
+	}
+}
@@ -1,13 +1,42 @@
 package airport_terminal;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
 /**
  * The Main class.
  *
  * The principal component is the usual main method required by Java application
  * to launch the application.
  *
- * Instantiates the databases. Instantiates and shows all the system interfaces
- * as Frames.
+ * Instantiates the databases, through an AirportServer. Instantiates and shows
+ * all the system interfaces as Frames.
+ *
+ * Run with -journal DIR to keep a journal of every change and periodic
+ * snapshots in that directory, so the state of the airport survives a
+ * restart. Without it nothing is written to disk. Add -recover to put the
+ * databases back as they were when the application last stopped, from the
+ * newest snapshot and the journal, before any Frame is built. The time
+ * recovery took is printed. Without it the airport starts empty, and the
+ * snapshots and journal of the last run are archived beside the new ones, so
+ * they are never mixed in a later recovery.
+ *
+ * Run with -headless to start only the databases and the programmatic
+ * controllers, without any Frame, until the process is stopped. Add -metrics
+ * to print the startup time and memory in use, in either mode, so the two can
+ * be compared.
+ *
+ * Run with -replicate PORT to stream every change to hot-standby followers on
+ * that loopback port. Run a second process with -follow PORT to be a follower:
+ * it shows only the PublicInfo, printing its replication lag, until the
+ * primary stops, then it is promoted and takes over with every Frame. A
+ * follower given -journal DIR starts its journal and snapshots there when it
+ * is promoted; without it the new primary keeps no record of its changes.
+ *
+ * Run with -displays PORT to push the public flight board to remote flight
+ * information displays connecting on that loopback port.
  *  
  * @stereotype control
  */
@@ -18,23 +47,120 @@ public class Main {
 	 */
 
 	public static void main(String[] args) {
-		// Instantiate databases
-		AircraftManagementDatabase amd = new AircraftManagementDatabase();
-		GateInfoDatabase gid = new GateInfoDatabase();
-		
+		List<String> options = Arrays.asList(args);
+		boolean headless = options.contains("-headless");
+		File directory = options.contains("-journal") ? new File(options.get(options.indexOf("-journal") + 1)) : null;
+		if (options.contains("-follow")) {
+			follow(Integer.parseInt(options.get(options.indexOf("-follow") + 1)), directory, headless);
+			return;
+		}
+
+		// Instantiate databases and controllers, with a journal and snapshots if asked
+		// for so the state of the airport survives a restart
+		if (directory == null && options.contains("-recover")) {
+			System.err.println("Nothing to recover from without -journal DIR, starting empty");
+		}
+		AirportServer server = directory == null ? new AirportServer(null, null, false)
+				: new AirportServer(new File(directory, "snapshots"), new File(directory, "journal"), options.contains("-recover"));
+		if (server.getRecovery() != null) {
+			System.out.println(server.getRecovery());
+		}
+
+		// Take a snapshot every minute, so only the journal since then has to be replayed
+		server.startSnapshots(60000);
+		Runtime.getRuntime().addShutdownHook(new Thread(server::shutdown));
+
+		// Stream every change to any hot-standby followers
+		if (options.contains("-replicate")) {
+			try {
+				ReplicationSource source = server.startReplication(Integer.parseInt(options.get(options.indexOf("-replicate") + 1)));
+				System.out.println("Replicating on port " + source.getPort());
+			} catch (IOException e) {
+				System.err.println("Cannot start replication: " + e.getMessage());
+			}
+		}
+
+		// Push the public flight board to remote displays
+		if (options.contains("-displays")) {
+			try {
+				DisplayServer displays = server.startDisplayServer(Integer.parseInt(options.get(options.indexOf("-displays") + 1)));
+				System.out.println("Serving displays on port " + displays.getPort());
+			} catch (IOException e) {
+				System.err.println("Cannot start the display server: " + e.getMessage());
+			}
+		}
+
 		// Add databases to Frames as required..
 		// Instantiate and show all interfaces as Frames
-		MaintenanceInspector m1 = new MaintenanceInspector(amd);
-		RefuellingSupervisor rs = new RefuellingSupervisor(amd);
-		RadarTransceiver rt = new RadarTransceiver(amd);
-		CleaningSupervisor cs = new CleaningSupervisor(amd);
-		PublicInfo pi = new PublicInfo(amd);
-		LATC la = new LATC(amd);
-		GOC go = new GOC(amd, gid);
-
-		GateConsole g1 = new GateConsole(0,amd,gid);
-		GateConsole g2 = new GateConsole(1,amd,gid);
-		GateConsole g3 = new GateConsole(2,amd,gid);
-
+		long viewsStarted = System.nanoTime();
+		if (!headless) {
+			server.attachViews();
+		}
+		if (options.contains("-metrics")) {
+			System.gc();//So the heap figure is what is live
+			System.out.println(String.format("Started %s in %.1f ms (%.1f ms for the databases), heap in use %d KB, resident %d KB",
+					headless ? "headless" : "with Frames", server.getStartupMillis() + (System.nanoTime() - viewsStarted) / 1e6,
+					server.getStartupMillis(), AirportServer.getUsedHeapKilobytes(), AirportServer.getResidentKilobytes()));
+		}
+
+		if (headless) {
+			try {
+				server.awaitShutdown();//The controllers' threads are daemons, so keep running until stopped
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	/**
+	 * Runs as a hot-standby follower of the primary replicating on the given
+	 * port, showing only the PublicInfo, until the primary stops. Then promotes
+	 * the follower, starts its journal in the given directory, and shows every
+	 * Frame.
+	 */
+	private static void follow(int port, File directory, boolean headless) {
+		AirportServer server = new AirportServer(null, null, false);//The primary keeps the journal until the promotion
+		Replica replica = new Replica(server.getAircraftDatabase(), server.getGateDatabase());
+		try {
+			replica.connect(port);
+		} catch (IOException e) {
+			System.err.println("Cannot reach the primary on port " + port + ": " + e.getMessage());
+			return;
+		}
+		if (!headless) {
+			server.attachPublicInfo();
+		}
+		try {
+			while (!replica.awaitDisconnect(5000)) {//Until the primary stops
+				System.out.println(replica);
+			}
+			replica.promote();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return;
+		}
+		System.out.println(replica);
+
+		// Now the primary, so keep the journal and snapshots the old primary kept
+		if (directory == null) {
+			System.err.println("WARNING: promoted without -journal DIR - this primary keeps no journal or snapshots, and every change is lost when it stops");
+		} else {
+			Runtime.getRuntime().addShutdownHook(new Thread(server::shutdown));//Close the journal with a final snapshot
+			try {
+				server.startJournal(new File(directory, "snapshots"), new File(directory, "journal"));
+				server.startSnapshots(60000);
+			} catch (IOException e) {
+				System.err.println("WARNING: cannot start the journal after the promotion, changes may be lost when this primary stops: " + e.getMessage());
+			}
+		}
+		if (headless) {
+			try {
+				server.awaitShutdown();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		} else {
+			server.attachViews();
+		}
 	}
-}
\ No newline at end of file
+}
@@ -8,6 +8,7 @@ import java.awt.event.ActionListener;
 import java.awt.event.ContainerListener;
 import java.awt.event.FocusListener;
 import java.awt.event.MouseListener;
+import java.util.ArrayList;
 import java.util.Observable;
 import java.util.Observer;
 
@@ -51,6 +52,9 @@ public class MaintenanceInspector extends JFrame implements Observer, ActionList
 	private DefaultListModel<String> list_ReadyForMaint;
 	private JList<String> outputList_AwaitRepair;
 	private DefaultListModel<String> list_AwaitRepair;
+	private final ListModelBridge rows = ListModelBridge.swing(); // Applies changes to the lists on the Swing event thread, once per frame
+	private ArrayList<Integer> shown_ReadyForMaint = new ArrayList<Integer>(); // The mCodes currently displayed in each list, so only those have to be cleared
+	private ArrayList<Integer> shown_AwaitRepair = new ArrayList<Integer>();
 
 	private int MRIndex; // Used to index database
 	private boolean isButtonAvailable; 
@@ -71,7 +75,9 @@ public class MaintenanceInspector extends JFrame implements Observer, ActionList
 
 	public MaintenanceInspector(AircraftManagementDatabase amd) {
 		this.aircraftManagementDatabase = amd;
-		amd.addObserver(this);
+		// Only be told about aircraft waiting for maintenance or repair
+		amd.subscribe(this, ManagementRecord.READY_FOR_CLEAN_MAINT, ManagementRecord.CLEAN_AWAIT_MAINT,
+				ManagementRecord.AWAIT_REPAIR);
 
 		setTitle("Maintenance Inspector");
 		setLocation(0, 400);
@@ -171,37 +177,68 @@ public class MaintenanceInspector extends JFrame implements Observer, ActionList
 	 * Method to update the list of aircrafts
 	 * 
 	 * Setting a list item as null if the corresponding aircraft index is empty, this keeps indexing the same for 
-	 * both an aircraft list and the management record database
+	 * both an aircraft list and the management record database. Only the records with a matching status are
+	 * looked at, using getWithStatus, rather than every record in the database
 	 */
 	private void aircraftListUpdate() {
+		rows.setSize(list_ReadyForMaint, aircraftManagementDatabase.maxMRs); // Grow the list in line with the database so every mCode is a valid index
+		rows.setSize(list_AwaitRepair, aircraftManagementDatabase.maxMRs); // Grow the list in line with the database so every mCode is a valid index
 
-		for (int i = 0; i < aircraftManagementDatabase.maxMRs; i++) { // For each record in database
-			ManagementRecord managementRecord = aircraftManagementDatabase.getManagementRecord(i); // Create local
-																									// instance of that
-																									// MR
-
-			if (managementRecord == null) { // If management record is empty
-				list_ReadyForMaint.set(i, null); // Set list 'ready for maintenance' position i to empty
-				list_AwaitRepair.set(i, null); // Set list 'awaiting repair' position i to empty
-			} else {
-				list_ReadyForMaint.set(i, null); // Set list 'ready for maintenance' position i to empty
-				list_AwaitRepair.set(i, null); // Set list 'awaiting repair' position i to empty
-				if (managementRecord.getStatus() == 8 || managementRecord.getStatus() == 10) { // If status equals one of the five here
-
-					String record = "Flight Code: " + managementRecord.getFlightCode() + "     " + "Flight Status: "
-							+ managementRecord.getStatusString(); // Sets 'record' to be the flight code and status of the current ManagementRecord
+		for (int mCode : shown_ReadyForMaint) { // For each record displayed last time
+			rows.set(list_ReadyForMaint, mCode, null); // Set list 'ready for maintenance' position to empty
+		}
+		for (int mCode : shown_AwaitRepair) { // For each record displayed last time
+			rows.set(list_AwaitRepair, mCode, null); // Set list 'awaiting repair' position to empty
+		}
+		shown_ReadyForMaint.clear();
+		shown_AwaitRepair.clear();
+		DatabaseSnapshot snapshot = aircraftManagementDatabase.snapshot(); // Read the rows of the records in one go
+
+		// Records whose status is 8 or 10 go in the 'ready for maintenance' list
+		for (int status : new int[] { ManagementRecord.READY_FOR_CLEAN_MAINT, ManagementRecord.CLEAN_AWAIT_MAINT }) {
+			for (int mCode : aircraftManagementDatabase.getWithStatus(status)) {
+				rows.set(list_ReadyForMaint, mCode, snapshot.getRecord(mCode).getRow()); // Adds the record to the list
+				shown_ReadyForMaint.add(mCode); // Remember that this position is in use
+			}
+		}
 
-					list_ReadyForMaint.set(i, record); // Adds the record declared above to the list
-				}
+		// Records whose status is 12 go in the 'awaiting repair' list
+		for (int mCode : aircraftManagementDatabase.getWithStatus(ManagementRecord.AWAIT_REPAIR)) {
+			rows.set(list_AwaitRepair, mCode, snapshot.getRecord(mCode).getRow()); // Adds the record to the list
+			shown_AwaitRepair.add(mCode); // Remember that this position is in use
+		}
+	}
 
-				if (managementRecord.getStatus() == 12) {
-					String record = "Flight Code: " + managementRecord.getFlightCode() + "     " + "Flight Status: "
-							+ managementRecord.getStatusString(); // Sets 'record' to be the flight code and status of the current ManagementRecord
+	/*
+	 * Method to update just the aircrafts that have changed
+	 */
+	private void aircraftListUpdate(ChangeSet changes) {
+		DatabaseSnapshot snapshot = aircraftManagementDatabase.snapshot(); // The latest state of the changed records
+		rows.setSize(list_ReadyForMaint, snapshot.size()); // Grow the list in line with the database so every mCode is a valid index
+		rows.setSize(list_AwaitRepair, snapshot.size()); // Grow the list in line with the database so every mCode is a valid index
+		for (int mCode : changes.getmCodes()) { // For each record that has changed
+			RecordView aircraft = snapshot.getRecord(mCode);
+			int status = aircraft.getStatus();
+			// Records whose status is 8 or 10 go in the 'ready for maintenance' list
+			showRow(list_ReadyForMaint, shown_ReadyForMaint, aircraft,
+					status == ManagementRecord.READY_FOR_CLEAN_MAINT || status == ManagementRecord.CLEAN_AWAIT_MAINT);
+			// Records whose status is 12 go in the 'awaiting repair' list
+			showRow(list_AwaitRepair, shown_AwaitRepair, aircraft, status == ManagementRecord.AWAIT_REPAIR);
+		}
+	}
 
-					list_AwaitRepair.set(i, record); // Adds the record declared above to the list
-				}
+	/*
+	 * Shows the given record in one of the lists, or removes it if it should not be shown there
+	 */
+	private void showRow(DefaultListModel<String> list, ArrayList<Integer> shown, RecordView aircraft, boolean show) {
+		int mCode = aircraft.getmCode();
+		if (show) {
+			rows.set(list, mCode, aircraft.getRow()); // Adds the record's row, rendered once for this version and shared by every screen, to the list
+			if (!shown.contains(mCode)) {
+				shown.add(mCode); // Remember that this position is in use
 			}
-
+		} else if (shown.remove(Integer.valueOf(mCode))) { // If the record was displayed but no longer should be
+			rows.set(list, mCode, null); // Set the position to empty
 		}
 	}
 
@@ -299,13 +336,13 @@ public class MaintenanceInspector extends JFrame implements Observer, ActionList
 		
 			if (status.equalsIgnoreCase("READY_FOR_CLEAN_MAINT")) { // If status of current ManagementRecord matches
 																	// READY_FOR_CLEAN_MAINT
-				aircraftManagementDatabase.setStatus(newMRIndex, 11); // Change status
+				aircraftManagementDatabase.transition(newMRIndex, ManagementRecord.READY_FOR_CLEAN_MAINT, ManagementRecord.OK_AWAIT_CLEAN); // Change status, unless it has changed since it was read
 				aircraftListUpdate(); // update list
 				aircraftSelected_ReadyForMaint();
 			}
 			if (status.equalsIgnoreCase("CLEAN_AWAIT_MAINT")) // If status of current ManagementRecord matches
 																// CLEAN_AWAIT_MAINT
-				aircraftManagementDatabase.setStatus(newMRIndex, 13); // Change status
+				aircraftManagementDatabase.transition(newMRIndex, ManagementRecord.CLEAN_AWAIT_MAINT, ManagementRecord.READY_REFUEL); // Change status, unless it has changed since it was read
 			aircraftListUpdate();
 			aircraftSelected_ReadyForMaint();
 		}
@@ -319,16 +356,14 @@ public class MaintenanceInspector extends JFrame implements Observer, ActionList
 			if (status.equalsIgnoreCase("CLEAN_AWAIT_MAINT")) { // If status of current ManagementRecord matches
 																// CLEAN_AWAIT_MAINT
 				aircraftManagementDatabase.faultsFound(newMRIndex, faultDescription); // Saves the fault description to the
-																					// Management Record
-				aircraftManagementDatabase.setStatus(newMRIndex, 12); // Change status
+																					// Management Record and changes status to AWAIT_REPAIR
 				faultDescriptionField.setText(""); // Sets editable field to be empty
 				aircraftListUpdate(); // Call to method
 				aircraftSelected_ReadyForMaint(); // Call to method
 			} else if (status.equalsIgnoreCase("READY_FOR_CLEAN_MAINT")) { // If status of current ManagementRecord
 																			// matches READY_FOR_CLEAN_MAINT
 				aircraftManagementDatabase.faultsFound(newMRIndex, faultDescription);// Saves the fault description to the
-																					// Management Record
-				aircraftManagementDatabase.setStatus(newMRIndex, 9); // Change status
+																					// Management Record and changes status to FAULTY_AWAIT_CLEAN
 				faultDescriptionField.setText("");// Sets editable field to be empty
 				aircraftListUpdate(); // Call to method
 				aircraftSelected_ReadyForMaint(); // Call to method
@@ -338,7 +373,7 @@ public class MaintenanceInspector extends JFrame implements Observer, ActionList
 		if (e.getSource() == repairCompleteButton) { // If repair complete button is clicked
 			int newMRIndex = outputList_AwaitRepair.getSelectedIndex();
 	
-			aircraftManagementDatabase.setStatus(newMRIndex, 8); // Change status
+			aircraftManagementDatabase.transition(newMRIndex, ManagementRecord.AWAIT_REPAIR, ManagementRecord.READY_FOR_CLEAN_MAINT); // Change status, unless another operator already has
 			aircraftListUpdate(); // Call to method
 			aircraftSelected_ReadyForMaint(); // Call to method
 		}
@@ -347,12 +382,18 @@ public class MaintenanceInspector extends JFrame implements Observer, ActionList
 
 	@Override
 	public void update(Observable o, Object arg) {
-		outputList_AwaitRepair.clearSelection(); // Clear selection 
-		outputList_ReadyForMaint.clearSelection(); // Clear selection 
+		rows.later(this, () -> { // On the Swing event thread
+			outputList_AwaitRepair.clearSelection(); // Clear selection 
+			outputList_ReadyForMaint.clearSelection(); // Clear selection 
 
-		aircraftSelected_AwaitRepair();
-		aircraftSelected_ReadyForMaint();
-		aircraftListUpdate();
+			aircraftSelected_AwaitRepair();
+			aircraftSelected_ReadyForMaint();
+		});
+		if (arg instanceof ChangeSet) { // If the database says what has changed, only update those rows
+			aircraftListUpdate((ChangeSet) arg);
+		} else {
+			aircraftListUpdate();
+		}
 	}
 
 }
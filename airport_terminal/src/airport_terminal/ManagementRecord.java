@@ -1,11 +1,15 @@
 package airport_terminal;
 
+import java.util.EnumSet;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
 // Another test change
 /**
  * An individual aircraft management record: Either FREE or models an aircraft
  * currently known to SAAMS. See MRState diagram for operational details, and
  * written documentation. This class has public static int identifiers for the
- * individual status codes. An MR may be "FREE", or may contain a record of the
+ * individual status codes, and a Status enum holding the MRState diagram as a
+ * table of the legal transitions. An MR may be "FREE", or may contain a record of the
  * status of an individual aircraft under the management of SAAMS. An instance
  * of AircraftManagementDatabase holds a collection of ManagementRecords, and
  * sends the ManagementRecords messages to control/fetch their status.
@@ -17,141 +21,251 @@ public class ManagementRecord {
 	 *
 	 * See MRState diagram.
 	 */
-	public static int FREE = 0;
+	public static final int FREE = 0;
 
 	/**
 	 * Status code
 	 *
 	 * See MRState diagram.
 	 */
-	public static int IN_TRANSIT = 1;
+	public static final int IN_TRANSIT = 1;
 
 	/**
 	 * Status code
 	 *
 	 * See MRState diagram.
 	 */
-	public static int WANTING_TO_LAND = 2;
+	public static final int WANTING_TO_LAND = 2;
 
 	/**
 	 * Status code
 	 *
 	 * See MRState diagram.
 	 */
-	public static int GROUND_CLEARANCE_GRANTED = 3;
+	public static final int GROUND_CLEARANCE_GRANTED = 3;
 
 	/**
 	 * Status code
 	 *
 	 * See MRState diagram.
 	 */
-	public static int LANDING = 4;
+	public static final int LANDING = 4;
 
 	/**
 	 * Status code
 	 *
 	 * See MRState diagram.
 	 */
-	public static int LANDED = 5;
+	public static final int LANDED = 5;
 
 	/**
 	 * Status code
 	 *
 	 * See MRState diagram.
 	 */
-	public static int TAXIING = 6;
+	public static final int TAXIING = 6;
 
 	/**
 	 * Status code
 	 *
 	 * See MRState diagram.
 	 */
-	public static int UNLOADING = 7;
+	public static final int UNLOADING = 7;
 
 	/**
 	 * Status code
 	 *
 	 * See MRState diagram.
 	 */
-	public static int READY_FOR_CLEAN_MAINT = 8; // Changed from READY_CLEAN_MAINT to READY_FOR_CLEAN_MAINT
+	public static final int READY_FOR_CLEAN_MAINT = 8; // Changed from READY_CLEAN_MAINT to READY_FOR_CLEAN_MAINT
 
 	/**
 	 * Status code
 	 *
 	 * See MRState diagram.
 	 */
-	public static int FAULTY_AWAIT_CLEAN = 9;
+	public static final int FAULTY_AWAIT_CLEAN = 9;
 
 	/**
 	 * Status code
 	 *
 	 * See MRState diagram.
 	 */
-	public static int OK_AWAIT_CLEAN = 11;
+	public static final int OK_AWAIT_CLEAN = 11;
 
 	/**
 	 * Status code
 	 *
 	 * See MRState diagram.
 	 */
-	public static int CLEAN_AWAIT_MAINT = 10;
+	public static final int CLEAN_AWAIT_MAINT = 10;
 
 	/**
 	 * Status code
 	 *
 	 * See MRState diagram.
 	 */
-	public static int AWAIT_REPAIR = 12;
+	public static final int AWAIT_REPAIR = 12;
 
 	/**
 	 * Status code
 	 *
 	 * See MRState diagram.
 	 */
-	public static int READY_REFUEL = 13;
+	public static final int READY_REFUEL = 13;
 
 	/**
 	 * Status code
 	 *
 	 * See MRState diagram.
 	 */
-	public static int READY_PASSENGERS = 14;
+	public static final int READY_PASSENGERS = 14;
 
 	/**
 	 * Status code
 	 *
 	 * See MRState diagram.
 	 */
-	public static int READY_DEPART = 15;
+	public static final int READY_DEPART = 15;
 
 	/**
 	 * Status code
 	 *
 	 * See MRState diagram.
 	 */
-	public static int AWAITING_TAXI = 16;
+	public static final int AWAITING_TAXI = 16;
 
 	/**
 	 * Status code
 	 *
 	 * See MRState diagram.
 	 */
-	public static int AWAITING_TAKEOFF = 17;
+	public static final int AWAITING_TAKEOFF = 17;
 
 	/**
 	 * Status code
 	 *
 	 * See MRState diagram.
 	 */
-	public static int DEPARTING_THROUGH_LOCAL_AIRSPACE = 18;
+	public static final int DEPARTING_THROUGH_LOCAL_AIRSPACE = 18;
+
+	/**
+	 * The status codes as an enum, in order of code, each with its name for
+	 * display and the statuses it may legally become according to the MRState
+	 * diagram. The names are the enum constants' own, so showing a status never
+	 * builds a String, and checking a transition is one lookup in an EnumSet.
+	 */
+	public enum Status {
+		FREE(ManagementRecord.FREE),
+		IN_TRANSIT(ManagementRecord.IN_TRANSIT),
+		WANTING_TO_LAND(ManagementRecord.WANTING_TO_LAND),
+		GROUND_CLEARANCE_GRANTED(ManagementRecord.GROUND_CLEARANCE_GRANTED),
+		LANDING(ManagementRecord.LANDING),
+		LANDED(ManagementRecord.LANDED),
+		TAXIING(ManagementRecord.TAXIING),
+		UNLOADING(ManagementRecord.UNLOADING),
+		READY_FOR_CLEAN_MAINT(ManagementRecord.READY_FOR_CLEAN_MAINT),
+		FAULTY_AWAIT_CLEAN(ManagementRecord.FAULTY_AWAIT_CLEAN),
+		CLEAN_AWAIT_MAINT(ManagementRecord.CLEAN_AWAIT_MAINT),
+		OK_AWAIT_CLEAN(ManagementRecord.OK_AWAIT_CLEAN),
+		AWAIT_REPAIR(ManagementRecord.AWAIT_REPAIR),
+		READY_REFUEL(ManagementRecord.READY_REFUEL),
+		READY_PASSENGERS(ManagementRecord.READY_PASSENGERS),
+		READY_DEPART(ManagementRecord.READY_DEPART),
+		AWAITING_TAXI(ManagementRecord.AWAITING_TAXI),
+		AWAITING_TAKEOFF(ManagementRecord.AWAITING_TAKEOFF),
+		DEPARTING_THROUGH_LOCAL_AIRSPACE(ManagementRecord.DEPARTING_THROUGH_LOCAL_AIRSPACE);
+
+		private static final Status[] BY_CODE = new Status[values().length];//Each status, indexed by its code
+
+		static {
+			for (Status status : values()) {
+				BY_CODE[status.code] = status;
+			}
+			// The MRState diagram
+			FREE.next = EnumSet.of(IN_TRANSIT, WANTING_TO_LAND);//radarDetect
+			IN_TRANSIT.next = EnumSet.of(FREE);//radarLostContact
+			WANTING_TO_LAND.next = EnumSet.of(GROUND_CLEARANCE_GRANTED);
+			GROUND_CLEARANCE_GRANTED.next = EnumSet.of(LANDING);
+			LANDING.next = EnumSet.of(LANDED);
+			LANDED.next = EnumSet.of(TAXIING);//taxiTo
+			TAXIING.next = EnumSet.of(UNLOADING);
+			UNLOADING.next = EnumSet.of(READY_FOR_CLEAN_MAINT);
+			READY_FOR_CLEAN_MAINT.next = EnumSet.of(FAULTY_AWAIT_CLEAN, CLEAN_AWAIT_MAINT, OK_AWAIT_CLEAN);
+			FAULTY_AWAIT_CLEAN.next = EnumSet.of(AWAIT_REPAIR);
+			CLEAN_AWAIT_MAINT.next = EnumSet.of(READY_REFUEL, AWAIT_REPAIR);
+			OK_AWAIT_CLEAN.next = EnumSet.of(READY_REFUEL);
+			AWAIT_REPAIR.next = EnumSet.of(READY_FOR_CLEAN_MAINT);//Repaired, so inspected again
+			READY_REFUEL.next = EnumSet.of(READY_PASSENGERS);
+			READY_PASSENGERS.next = EnumSet.of(READY_DEPART);
+			READY_DEPART.next = EnumSet.of(AWAITING_TAXI);
+			AWAITING_TAXI.next = EnumSet.of(AWAITING_TAKEOFF);
+			AWAITING_TAKEOFF.next = EnumSet.of(DEPARTING_THROUGH_LOCAL_AIRSPACE);
+			DEPARTING_THROUGH_LOCAL_AIRSPACE.next = EnumSet.of(FREE);//radarLostContact
+		}
+
+		private final int code;
+		private final String displayName;
+		private EnumSet<Status> next;//The statuses this one may become - set once, above
+
+		Status(int code) {
+			this.code = code;
+			this.displayName = name();
+		}
+
+		/**
+		 * Returns the status with the given code.
+		 * @param code A ManagementRecord status code
+		 * @return The status, or null if there is no status with that code
+		 */
+		public static Status of(int code) {
+			return code >= 0 && code < BY_CODE.length ? BY_CODE[code] : null;
+		}
+
+		/**
+		 * Returns whether a record may go from one status to another, according to
+		 * the MRState diagram.
+		 * @param from The status code it has
+		 * @param to The status code it would have
+		 * @return True if the transition is legal
+		 */
+		public static boolean isLegal(int from, int to) {
+			Status status = of(from);
+			Status next = of(to);
+			return status != null && next != null && status.next.contains(next);
+		}
+
+		/** Return the status code. */
+		public int getCode() {
+			return code;
+		}
+
+		/** Return the status as shown on the screens, e.g. WANTING_TO_LAND. */
+		public String getDisplayName() {
+			return displayName;
+		}
+
+		/** Return the statuses this one may legally become. */
+		public EnumSet<Status> getNext() {
+			return EnumSet.copyOf(next);
+		}
+	}
+
+	/**
+	 * The status code for this ManagementRecord. Volatile, and only changed through
+	 * compareAndSetStatus (or setStatus), so that a status change can be made
+	 * atomically without locking the record.
+	 */
+	private volatile int status;
 
-	/** The status code for this ManagementRecord. */
-	private int status;
+	/** Updates the status field atomically - see compareAndSetStatus. */
+	private static final AtomicIntegerFieldUpdater<ManagementRecord> STATUS = AtomicIntegerFieldUpdater
+			.newUpdater(ManagementRecord.class, "status");
 
 	/**
-	 * The gate number allocated to this aircraft, when there is one.
+	 * The gate number allocated to this aircraft, or -1 when there is none.
 	 */
-	private int gateNumber;
+	private int gateNumber = -1;
 
 	/**
 	 * A short string identifying the flight:
@@ -207,7 +321,26 @@ public class ManagementRecord {
 	 * @preconditions Valid transition requested
 	 */
 	public void setStatus(int newStatus) {
-		status = newStatus;
+		int current;
+		do {
+			current = status;
+			if (!Status.isLegal(current, newStatus)) {//If the MRState diagram does not allow it <PRECONDITION>
+				return;
+			}
+		} while (!STATUS.compareAndSet(this, current, newStatus));//Try again if another thread changed the status in between
+	}
+
+	/**
+	 * Atomically changes the status from expected to newStatus. If the status is
+	 * not expected at the moment of the change (for example because another
+	 * operator has just changed it), or the MRState diagram does not allow the
+	 * change, nothing happens.
+	 * @param expected The status the record must have for the change to be made
+	 * @param newStatus The status the record will have if the change is made
+	 * @return True if the status was changed
+	 */
+	public boolean compareAndSetStatus(int expected, int newStatus) {
+		return Status.isLegal(expected, newStatus) && STATUS.compareAndSet(this, expected, newStatus);
 	}
 
 	/**
@@ -221,87 +354,15 @@ public class ManagementRecord {
 	 * Return the status of this MR as a String
 	 */
 	public String getStatusString() {
-		int statusCode = getStatus();
-
-		if (statusCode == 0) { // If status code is 0
-			return "FREE"; // Return FREE
-		}
-
-		else if (statusCode == 1) { // If status code is 1
-			return "IN_TRANSIT"; // Return IN_TRANSIT
-		}
-
-		else if (statusCode == 2) { // If status code is 2
-			return "WANTING_TO_LAND"; // Return WANTING_TO_LAND
-		}
-
-		else if (statusCode == 3) { // If status code is 3
-			return "GROUND_CLEARANCE_GRANTED"; // Return GROUND_CLEARANCE_GRANTED
-		}
-
-		else if (statusCode == 4) { // If status code is 4
-			return "LANDING"; // Return LANDING
-		}
-
-		else if (statusCode == 5) { // If status code is 5
-			return "LANDED"; // Return LANDED
-		}
-
-		else if (statusCode == 6) { // If status code is 6
-			return "TAXIING"; // Return TAXIING
-		}
-
-		else if (statusCode == 7) { // If status code is 7
-			return "UNLOADING"; // Return UNLOADING
-		}
-
-		else if (statusCode == 8) { // If status code is 8
-			return "READY_FOR_CLEAN_MAINT"; // Return READY_FOR_CLEAN_MAINT
-		}
-
-		else if (statusCode == 9) { // If status code is 9
-			return "FAULTY_AWAIT_CLEAN"; // Return FAULTY_AWAIT_CLEAN
-		}
-
-		else if (statusCode == 10) { // If status code is 10
-			return "CLEAN_AWAIT_MAINT"; // Return CLEAN_AWAIT_MAINT
-		}
-
-		else if (statusCode == 11) { // If status code is 11
-			return "OK_AWAIT_CLEAN"; // Return OK_AWAIT_CLEAN
-		}
-
-		else if (statusCode == 12) { // If status code is 12
-			return "AWAIT_REPAIR"; // Return AWAIT_REPAIR
-		}
-
-		else if (statusCode == 13) { // If status code is 13
-			return "READY_REFUEL"; // Return READY_REFUEL
-		}
-
-		else if (statusCode == 14) { // If status code is 14
-			return "READY_PASSENGERS"; // Return READY_PASSENGERS
-		}
-
-		else if (statusCode == 15) { // If status code is 15
-			return "READY_DEPART"; // Return READY_DEPART
-		}
-
-		else if (statusCode == 16) { // If status code is 16
-			return "AWAITING_TAXI"; // Return AWAITING_TAXI
-		}
-
-		else if (statusCode == 17) { // If status code is 17
-			return "AWAITING_TAKEOFF"; // Return AWAITING_TAKEOFF
-		}
-
-		else if (statusCode == 18) { // If status code is 18
-			return "DEPARTING_THROUGH_LOCAL_AIRSPACE"; // Return DEPARTING_THROUGH_LOCAL_AIRSPACE
-		}
+		return getStatusString(getStatus());
+	}
 
-		else { // If status code doesn't match any preset value
-			return "UNKNOWN"; // Return UNKNOWN
-		}
+	/*
+	 * Return the given status code as a String
+	 */
+	public static String getStatusString(int statusCode) {
+		Status status = Status.of(statusCode);
+		return status == null ? "UNKNOWN" : status.getDisplayName(); // The name held by the status, or UNKNOWN if the code doesn't match any status
 	}
 
 	/**
@@ -324,10 +385,11 @@ public class ManagementRecord {
 			passengerList = fd.getPassengerList();
 			itinerary = fd.getItinerary(); // Itinerary becomes passed flightDescriptor itinerary
 			flightCode = fd.getFlightCode();
+			gateNumber = -1; // No gate has been allocated yet
 			if (itinerary.getTo().equalsIgnoreCase("Stirling")) { // If passed itinerary 'to' is equal to 'Stirling'
-				status = WANTING_TO_LAND; // Status becomes WANTING_TO_LAND
+				compareAndSetStatus(FREE, WANTING_TO_LAND); // Status becomes WANTING_TO_LAND
 			} else {
-				status = IN_TRANSIT; // Status becomes IN_TRANSIT
+				compareAndSetStatus(FREE, IN_TRANSIT); // Status becomes IN_TRANSIT
 			}
 		}
 	}
@@ -339,18 +401,21 @@ public class ManagementRecord {
 	 * and becomes FREE (and the flight details are cleared).
 	 * 
 	 * @preconditions Status is IN_TRANSIT or DEPARTING_THROUGH_LOCAL_AIRSPACE
+	 * @return True if the status was IN_TRANSIT or DEPARTING_THROUGH_LOCAL_AIRSPACE and is now FREE
 	 */
-	public void radarLostContact() {
-		if (status == IN_TRANSIT || status == DEPARTING_THROUGH_LOCAL_AIRSPACE) { // If status is IN_TRANSIT or
+	public boolean radarLostContact() {
+		if (compareAndSetStatus(IN_TRANSIT, FREE)
+				|| compareAndSetStatus(DEPARTING_THROUGH_LOCAL_AIRSPACE, FREE)) { // If status is IN_TRANSIT or
 																					// DEPARTING_THROUGH_LOCAL_AIRSPACE
-																					// <PRECONDITION>
-			setStatus(0);  // Status becomes 'FREE'
+																					// <PRECONDITION> then status becomes 'FREE'
 			flightCode = ""; // Set the flight code to an empty string i.e. have no flight code
 			faultDescription = ""; // Set the fault description to an empty string i.e. there are no faults
-			//gateNumber = 0; // Reset the gate number to 0
+			gateNumber = -1; // Reset the gate number to -1 i.e. have no gate
 			passengerList = null; // Empty the current passenger list
 			itinerary = null; // Empty the current itinerary
+			return true;
 		}
+		return false;//The MRState diagram does not allow the record to become FREE from its status
 	}
 
 	/**
@@ -360,12 +425,14 @@ public class ManagementRecord {
 	 * TAXIING.
 	 * 
 	 * @preconditions Status is LANDED
+	 * @return True if the status was LANDED and is now TAXIING
 	 */
-	public void taxiTo(int gateNumber) {
-		if (status == LANDED) { // If status is LANDED <PRECONDITION>
-			status = TAXIING; // Status becomes TAXIING
+	public boolean taxiTo(int gateNumber) {
+		if (compareAndSetStatus(LANDED, TAXIING)) { // If status is LANDED <PRECONDITION> then status becomes TAXIING
 			this.gateNumber = gateNumber;
+			return true;
 		}
+		return false;//Another operator got in first, or the aircraft has not landed
 	}
 
 	/*
@@ -384,16 +451,17 @@ public class ManagementRecord {
 	 * becomes FAULTY_AWAIT_CLEAN or AWAIT_REPAIR respectively.
 	 * 
 	 * @preconditions Status is READY_FOR_CLEAN_MAINT or CLEAN_AWAIT_MAINT
+	 * @return True if the status was changed
 	 */
-	public void faultsFound(String description) {
-		if (status == READY_FOR_CLEAN_MAINT) { // If status is READY_FOR_CLEAN_MAINT <PRECONDITION>
+	public boolean faultsFound(String description) {
+		if (compareAndSetStatus(READY_FOR_CLEAN_MAINT, FAULTY_AWAIT_CLEAN)) { // If status is READY_FOR_CLEAN_MAINT <PRECONDITION> then status become FAULTY_AWAIT_CLEAN
 			this.faultDescription = description; // Fault description becomes description passed in
-			status = FAULTY_AWAIT_CLEAN; // Status become FAULTY_AWAIT_CLEAN
-
-		} else if (status == CLEAN_AWAIT_MAINT) { // If status is CLEAN_AWAIT_MAINT <PRECONDITION>
+			return true;
+		} else if (compareAndSetStatus(CLEAN_AWAIT_MAINT, AWAIT_REPAIR)) { // If status is CLEAN_AWAIT_MAINT <PRECONDITION> then status becomes AWAIT_REPAIR
 			this.faultDescription = description; // Fault description becomes description passed in
-			status = AWAIT_REPAIR; // Status becomes AWAIT_REPAIR
+			return true;
 		}
+		return false;//The MRState diagram does not allow faults to be reported from the record's status
 	}
 
 	/**
@@ -437,4 +505,36 @@ public class ManagementRecord {
 	public Itinerary getItinerary() {
 		return itinerary;
 	}
+
+	/**
+	 * Puts back the fields recorded in a snapshot or journal entry, without
+	 * checking any preconditions - the change they record has already been
+	 * checked once. Used when recovering or replicating the database.
+	 * @param entry The entry holding the new values of the fields that changed
+	 */
+	void restore(JournalEntry entry) {
+		if (entry.changed(ChangeEvent.Field.FLIGHT_CODE)) {
+			flightCode = entry.getFlightCode();
+		}
+		if (entry.changed(ChangeEvent.Field.GATE)) {
+			gateNumber = entry.getGateNumber();
+		}
+		if (entry.changed(ChangeEvent.Field.ITINERARY)) {
+			itinerary = entry.getItinerary();
+		}
+		if (entry.changed(ChangeEvent.Field.PASSENGERS)) {
+			passengerList = entry.getPassengerList();
+		}
+		if (entry.changed(ChangeEvent.Field.FAULTS)) {
+			faultDescription = entry.getFaultDescription();
+		}
+		if (entry.changed(ChangeEvent.Field.STATUS)) {
+			status = entry.getStatus();//Last, so the record is complete before its status shows it in use
+		}
+	}
+
+	/** Return the description of the faults found by the Maintenance Supervisor, if any. */
+	public String getFaultDescription() {
+		return faultDescription;
+	}
 }
@@ -0,0 +1,234 @@
+package airport_terminal;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Observable;
+import java.util.Observer;
+import java.util.TreeMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Delivers database notifications to observers on a separate thread, so that
+ * the thread changing the database does not have to wait for every screen to
+ * redraw.
+ *
+ * Observers are registered through wrap, which returns an Observer that only
+ * queues the notification and returns straight away. Once per interval the
+ * queue's thread takes everything that has been queued and, for each observer,
+ * combines its ChangeSets into one - keeping one event per record or gate - so
+ * a burst of changes within one interval becomes a single update per observer.
+ * The combined update is handed to the delivery Executor (for example
+ * SwingUtilities::invokeLater, so screens are updated on the Swing event thread).
+ *
+ * getQueueDepth and the latency methods report how far behind the observers are.
+ */
+@SuppressWarnings("deprecation")
+public class NotificationQueue {
+
+	/**
+	 * The notifications waiting for one observer.
+	 */
+	private static final class Pending {
+		Observable source;//The database the notifications came from
+		TreeMap<Long, ChangeEvent> events = new TreeMap<Long, ChangeEvent>();//One combined event per record or gate
+		boolean refreshAll;//True if a notification did not say what changed, so the observer must redraw everything
+		long queuedAt;//When the first of the notifications was queued, from System.nanoTime
+	}
+
+	private final long intervalMillis;//How long a burst of changes is collected for before it is delivered
+	private final Executor delivery;//Runs the observers' update methods
+	private final Object lock = new Object();//Guards pending
+	private LinkedHashMap<Observer, Pending> pending = new LinkedHashMap<Observer, Pending>();//The notifications waiting for each observer
+	private final AtomicInteger depth = new AtomicInteger();//The number of notifications queued but not yet handed over for delivery
+	private final AtomicInteger inFlight = new AtomicInteger();//The number of combined updates handed over but not yet delivered
+	private final AtomicLong delivered = new AtomicLong();//The number of combined updates delivered
+	private final AtomicLong lastLatency = new AtomicLong();//Nanoseconds from queueing to the end of the last delivery
+	private final AtomicLong maxLatency = new AtomicLong();
+	private final AtomicLong totalLatency = new AtomicLong();
+	private volatile boolean running = true;
+	private final Thread thread;
+
+	/**
+	 * The constructor for this class. Starts the queue's thread.
+	 * @param intervalMillis How long to collect a burst of changes for before delivering them - about one frame
+	 * @param delivery Runs the observers' update methods
+	 */
+	public NotificationQueue(long intervalMillis, Executor delivery) {
+		this.intervalMillis = intervalMillis;
+		this.delivery = delivery;
+		thread = new Thread(this::run, "NotificationQueue");
+		thread.setDaemon(true);//Do not keep the application running
+		thread.start();
+	}
+
+	/**
+	 * Returns an Observer that queues every notification for the given observer
+	 * instead of delivering it straight away. Register the returned Observer with
+	 * the database.
+	 * @param target The observer the notifications are for
+	 * @return The queueing observer
+	 */
+	public Observer wrap(Observer target) {
+		return (source, arg) -> queue(target, source, arg);
+	}
+
+	/**
+	 * Queues a notification for the given observer, combining it with any that are
+	 * already waiting.
+	 */
+	private void queue(Observer target, Observable source, Object arg) {
+		synchronized (lock) {
+			Pending waiting = pending.get(target);
+			if (waiting == null) {//If nothing is waiting for the observer THEN
+				waiting = new Pending();
+				waiting.queuedAt = System.nanoTime();
+				pending.put(target, waiting);
+			}
+			waiting.source = source;
+			if (arg instanceof ChangeSet) {//If the notification says what changed THEN
+				for (ChangeEvent event : (ChangeSet) arg) {
+					//Changes to the same record can be notified out of order by different threads, so combine by version
+					waiting.events.merge(key(event), event, (a, b) -> a.getVersion() <= b.getVersion() ? a.merge(b) : b.merge(a));
+				}
+			} else {
+				waiting.refreshAll = true;
+			}
+			depth.incrementAndGet();
+			lock.notifyAll();//Wake the queue's thread
+		}
+	}
+
+	/**
+	 * Returns the key that orders and combines events: records before gates, then
+	 * by mCode or gate number.
+	 */
+	private static long key(ChangeEvent event) {
+		int code = event.getSource() == ChangeEvent.Source.AIRCRAFT ? event.getmCode() : event.getGateNumber();
+		return ((long) event.getSource().ordinal() << 32) | (code & 0xffffffffL);
+	}
+
+	/**
+	 * The queue's thread: waits for notifications, lets a burst collect for one
+	 * interval, then delivers it.
+	 */
+	private void run() {
+		try {
+			while (running) {
+				synchronized (lock) {
+					while (running && pending.isEmpty()) {//Until there is something to deliver
+						lock.wait();
+					}
+				}
+				Thread.sleep(intervalMillis);//Let the rest of the burst arrive
+				deliverPending();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();//Shutting down
+		}
+	}
+
+	/**
+	 * Hands every observer's combined notifications to the delivery Executor.
+	 */
+	private void deliverPending() {
+		Map<Observer, Pending> batch;
+		synchronized (lock) {
+			batch = pending;
+			pending = new LinkedHashMap<Observer, Pending>();//Notifications from now on start a new burst
+			depth.set(0);
+			inFlight.addAndGet(batch.size());
+		}
+		List<Runnable> updates = new ArrayList<Runnable>();
+		for (Map.Entry<Observer, Pending> entry : batch.entrySet()) {
+			Observer target = entry.getKey();
+			Pending waiting = entry.getValue();
+			Object arg = waiting.refreshAll ? null : new ChangeSet(new ArrayList<ChangeEvent>(waiting.events.values()));
+			updates.add(() -> {
+				try {
+					target.update(waiting.source, arg);
+					recordLatency(waiting.queuedAt);
+				} finally {
+					inFlight.decrementAndGet();
+				}
+			});
+		}
+		for (Runnable update : updates) {
+			delivery.execute(update);
+		}
+	}
+
+	/**
+	 * Records how long a notification took from being queued to being delivered.
+	 */
+	private void recordLatency(long queuedAt) {
+		long latency = System.nanoTime() - queuedAt;
+		lastLatency.set(latency);
+		maxLatency.accumulateAndGet(latency, Math::max);
+		totalLatency.addAndGet(latency);
+		delivered.incrementAndGet();
+	}
+
+	/**
+	 * Return the number of notifications that have been queued but not yet handed
+	 * to the delivery Executor.
+	 */
+	public int getQueueDepth() {
+		return depth.get();
+	}
+
+	/** Return the number of combined updates that have been delivered to observers. */
+	public long getDeliveredCount() {
+		return delivered.get();
+	}
+
+	/**
+	 * Return the time from a notification being queued to its observer's update
+	 * method returning, for the most recent delivery, in milliseconds.
+	 */
+	public double getLastLatencyMillis() {
+		return lastLatency.get() / 1e6;
+	}
+
+	/** Return the longest time any delivery has taken, in milliseconds. */
+	public double getMaxLatencyMillis() {
+		return maxLatency.get() / 1e6;
+	}
+
+	/** Return the average time deliveries have taken, in milliseconds. */
+	public double getAverageLatencyMillis() {
+		long count = delivered.get();
+		return count == 0 ? 0 : totalLatency.get() / 1e6 / count;
+	}
+
+	/**
+	 * Waits until everything queued so far has been delivered.
+	 * @param timeoutMillis The longest time to wait
+	 * @return True if the queue is empty, false if the time ran out
+	 * @throws InterruptedException If the waiting thread is interrupted
+	 */
+	public boolean awaitIdle(long timeoutMillis) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+		while (System.nanoTime() < deadline) {
+			synchronized (lock) {
+				if (pending.isEmpty() && inFlight.get() == 0) {
+					return true;
+				}
+			}
+			Thread.sleep(Math.max(1, intervalMillis / 4));
+		}
+		return false;
+	}
+
+	/**
+	 * Stops the queue's thread. Notifications still waiting are not delivered.
+	 */
+	public void shutdown() {
+		running = false;
+		thread.interrupt();
+	}
+}
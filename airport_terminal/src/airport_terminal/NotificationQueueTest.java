@@ -0,0 +1,91 @@
+package airport_terminal;
+
+//Allow assertions to be used
+import static org.junit.jupiter.api.Assertions.*;
+import static airport_terminal.TestFlights.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Observable;
+import java.util.Observer;
+
+//Imports for allowing test and the before each test method
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+
+class NotificationQueueTest {
+	NotificationQueue queue;
+
+	/**
+	 * This method runs before each individual test is run
+	 */
+	@BeforeEach
+	void setup() {
+		queue = new NotificationQueue(50, Runnable::run);//Deliver on the queue's own thread
+	}
+
+	/**
+	 * This method runs after each individual test
+	 */
+	@AfterEach
+	void tearDown() {
+		queue.shutdown();
+	}
+
+	/**
+	 * Tests that a burst of changes reaches a queued subscriber as one combined update, and that the queue reports its depth and latency
+	 */
+	@Test
+	@SuppressWarnings("deprecation")
+	void testNotificationQueueCombinesBurst() throws InterruptedException {
+		AircraftManagementDatabase amd = new AircraftManagementDatabase();
+		amd.setNotificationQueue(queue);
+		List<ChangeSet> notifications = Collections.synchronizedList(new ArrayList<ChangeSet>());
+		amd.subscribe((o, arg) -> notifications.add((ChangeSet) arg), event -> true);
+
+		int[] mCodes = new int[5];
+		for (int i = 0; i < mCodes.length; i++) {//A burst of changes, well inside one interval
+			mCodes[i] = amd.radarDetect(flight("BA" + i, "Stirling"));
+			amd.setStatus(mCodes[i], ManagementRecord.GROUND_CLEARANCE_GRANTED);
+		}
+		assertTrue(queue.getQueueDepth() > 0, "The changes were not queued");
+		assertTrue(notifications.isEmpty(), "The subscriber was told on the thread making the changes");
+
+		assertTrue(queue.awaitIdle(5000), "The queue did not empty");
+		assertEquals(0, queue.getQueueDepth(), "The queue still reports waiting notifications");
+		assertEquals(1, notifications.size(), "The burst was not combined into one update");
+		Arrays.sort(mCodes);
+		assertArrayEquals(mCodes, notifications.get(0).getmCodes(), "The combined update did not cover every aircraft");
+		for (ChangeEvent event : notifications.get(0)) {
+			assertEquals(ManagementRecord.FREE, event.getOldStatus(), "The combined event lost the status before the burst");
+			assertEquals(ManagementRecord.GROUND_CLEARANCE_GRANTED, event.getNewStatus(), "The combined event lost the status after the burst");
+		}
+		assertTrue(queue.getLastLatencyMillis() >= 50, "The latency did not include the time spent collecting the burst");
+	}
+
+	/**
+	 * Tests that two changes to the same gate queued newest first are combined as if they had arrived in order
+	 */
+	@Test
+	@SuppressWarnings("deprecation")
+	void testCombinesChangesQueuedOutOfOrder() throws InterruptedException {
+		List<ChangeSet> notifications = Collections.synchronizedList(new ArrayList<ChangeSet>());
+		Observer observer = queue.wrap((o, arg) -> notifications.add((ChangeSet) arg));
+		ChangeEvent reserved = ChangeEvent.gate(0, Gate.FREE, Gate.RESERVED, -1, 1, 1);
+		ChangeEvent occupied = ChangeEvent.gate(0, Gate.RESERVED, Gate.OCCUPIED, 1, 1, 2);
+
+		observer.update(new Observable(), ChangeSet.of(occupied));//The later change is told about first
+		observer.update(new Observable(), ChangeSet.of(reserved));
+		assertTrue(queue.awaitIdle(5000), "The queue did not empty");
+
+		assertEquals(1, notifications.size(), "The changes were not combined");
+		ChangeEvent combined = notifications.get(0).getEvents().get(0);
+		assertEquals(Gate.FREE, combined.getOldStatus(), "The combined change lost the status before both changes");
+		assertEquals(Gate.OCCUPIED, combined.getNewStatus(), "The combined change has the older status");
+		assertEquals(2, combined.getVersion(), "The combined change has the older version");
+	}
+}
@@ -0,0 +1,128 @@
+package airport_terminal;
+
+import java.io.Closeable;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Observable;
+import java.util.Observer;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The public flight board, worked out once for every PublicInfo screen that
+ * shows it. It subscribes to the AircraftManagementDatabase once, keeps one
+ * FlightBoard, and applies each delta to one list model per section -
+ * landing, landed and departing. Any number of PublicInfo screens show those
+ * same models, all of them or just some sections (departures only, say), so
+ * a change is worked out and applied once however many screens there are:
+ * each screen only repaints the rows it can see.
+ *
+ * Each section is a FlightListModel showing the statuses in that section, so
+ * it has a row only for each aircraft in the section, in order of mCode, and
+ * maps rows to mCodes and back. Only the records a delta names are handed to
+ * the models, on the Swing event thread through the shared ListModelBridge.
+ */
+public class PublicBoard implements Observer, Closeable {
+
+	/**
+	 * A row as wide as any row on the board, for JList.setPrototypeCellValue, so
+	 * that every cell is the same size and the lists do not measure each row.
+	 */
+	public static final String PROTOTYPE_ROW = "Flight Code: XXXXXXXX     Flight Status: BOARDING COMPLETE     Gate Number: 99";
+
+	private final AircraftManagementDatabase amd;
+	private final FlightBoard board = new FlightBoard();//Guarded by this
+	private final FlightListModel[] sections = { section(FlightBoard.LANDING), section(FlightBoard.LANDED), section(FlightBoard.DEPARTING) };//In order of the board's section codes
+	private final ListModelBridge rows = ListModelBridge.swing();
+	private Map<Integer, RecordView> waiting = new LinkedHashMap<Integer, RecordView>();//The records changed since the models were last brought up to date, guarded by this
+	private final Subscription subscription;
+	private final AtomicLong updates = new AtomicLong();//The number of times the board has been brought up to date
+	private final AtomicLong deltas = new AtomicLong();//The number of rows changed
+
+	/**
+	 * The constructor for this class. Fills the board from the database and
+	 * subscribes to the statuses shown on it.
+	 * @param amd The aircraft database
+	 */
+	public PublicBoard(AircraftManagementDatabase amd) {
+		this.amd = amd;
+		subscription = amd.subscribe(this, FlightBoard.boardStatuses());//Still told when an aircraft leaves the board
+		refresh(null);
+	}
+
+	/**
+	 * Return a list of the aircraft in one section of the board, showing their
+	 * board rows.
+	 */
+	private static FlightListModel section(int section) {
+		return new FlightListModel(status -> FlightBoard.section(status) == section, RecordView::getBoardRow);
+	}
+
+	/**
+	 * Brings the board up to date with the given changes, or with every record.
+	 */
+	private synchronized void refresh(ChangeSet changes) {
+		DatabaseSnapshot snapshot = amd.snapshot();//A consistent view, so no flight is shown half way through a change
+		List<FlightBoard.Delta> changed = changes == null ? board.update(snapshot) : board.update(snapshot, changes.getmCodes());
+		for (FlightBoard.Delta delta : changed) {
+			waiting.put(delta.getmCode(), snapshot.getRecord(delta.getmCode()));//Only the latest version matters
+		}
+		if (!changed.isEmpty()) {
+			rows.later(this, this::apply);//Once, however many changes are waiting
+		}
+		updates.incrementAndGet();
+		deltas.addAndGet(changed.size());
+	}
+
+	/**
+	 * Hands every record that has changed since the last time to the sections,
+	 * each of which moves the record into, out of or within its rows. Runs on
+	 * the Swing event thread.
+	 */
+	private void apply() {
+		Map<Integer, RecordView> changed;
+		synchronized (this) {
+			changed = waiting;
+			waiting = new LinkedHashMap<Integer, RecordView>();//Changes from now on go in the next pass
+		}
+		for (RecordView view : changed.values()) {
+			for (FlightListModel section : sections) {
+				section.refresh(view);//Nothing happens in a section the record is not entering, leaving or in
+			}
+		}
+	}
+
+	@Override
+	public void update(Observable o, Object arg) {
+		refresh(arg instanceof ChangeSet ? (ChangeSet) arg : null);
+	}
+
+	/**
+	 * Returns the list of one section of the board, for a JList. The list must
+	 * only be used on the Swing event thread.
+	 * @param section FlightBoard.LANDING, LANDED or DEPARTING
+	 * @return The list model, shared by every screen showing the section
+	 */
+	public FlightListModel getSection(int section) {
+		return sections[section];
+	}
+
+	/**
+	 * Stops following the database. The screens showing the board keep the rows
+	 * they have.
+	 */
+	@Override
+	public void close() {
+		subscription.cancel();
+	}
+
+	/** Return the number of times the board has been brought up to date - once per change, however many screens show it. */
+	public long getUpdateCount() {
+		return updates.get();
+	}
+
+	/** Return the number of rows changed. */
+	public long getDeltaCount() {
+		return deltas.get();
+	}
+}
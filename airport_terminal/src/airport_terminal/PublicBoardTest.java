@@ -0,0 +1,53 @@
+package airport_terminal;
+
+//Allow assertions to be used
+import static org.junit.jupiter.api.Assertions.*;
+import static airport_terminal.TestFlights.*;
+
+import javax.swing.ListModel;
+import javax.swing.SwingUtilities;
+
+//Imports for allowing test and the before each test method
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+
+
+class PublicBoardTest {
+	AircraftManagementDatabase amd;
+
+	/**
+	 * This method runs before each individual test is run
+	 */
+	@BeforeEach
+	void setup() {
+		//Set up a new database to be used so that information is not left over from previous tests
+		amd = new AircraftManagementDatabase();
+	}
+
+	@Test
+	void testPublicBoardWorkedOutOnceForEveryScreen() throws Exception {
+		int landing = amd.radarDetect(flight("BA1", "Stirling"));
+		int arriving = amd.radarDetect(flight("BA2", "Stirling"));//Stays in the landing section
+		PublicBoard board = new PublicBoard(amd);
+		moveTo(amd, landing, ManagementRecord.LANDED);
+		amd.taxiTo(landing, 0);
+		long updates = board.getUpdateCount();
+		ListModel<String> departures = board.getSection(FlightBoard.DEPARTING);
+		moveTo(amd, landing, ManagementRecord.READY_DEPART);
+		assertEquals(updates + 1, board.getUpdateCount(), "The board was not worked out once for the change");
+		amd.addPassenger(landing, new PassengerDetails("Not shown"));
+		SwingUtilities.invokeAndWait(() -> {
+		});//Let the changes reach the lists
+		assertEquals(1, departures.getSize(), "The departures list has the wrong number of rows");
+		assertEquals("Flight Code: BA1     Flight Status: BOARDING COMPLETE     Gate Number: 1", departures.getElementAt(0), "The departures list does not show the flight");
+		assertEquals(landing, board.getSection(FlightBoard.DEPARTING).getmCode(0), "The row does not map back to the flight");
+		assertEquals(1, board.getSection(FlightBoard.LANDING).getSize(), "The flight is still shown landing");
+		assertEquals(arriving, board.getSection(FlightBoard.LANDING).getmCode(0), "The landing list has a row for an aircraft not in it");
+		assertEquals(0, board.getSection(FlightBoard.LANDED).getSize(), "The landed list has rows for aircraft not in it");
+		assertSame(departures, board.getSection(FlightBoard.DEPARTING), "Screens showing the same section do not share its list");
+		updates = board.getUpdateCount();
+		board.close();
+		amd.setStatus(landing, ManagementRecord.AWAITING_TAXI);
+		assertEquals(updates, board.getUpdateCount(), "The board still follows the database once closed");
+	}
+}
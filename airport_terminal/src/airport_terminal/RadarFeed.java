@@ -0,0 +1,59 @@
+package airport_terminal;
+
+/**
+ * A programmatic controller for the AircraftManagementDatabase that does the
+ * job of the RadarTransceiver screen: reporting aircraft entering and leaving
+ * local airspace. Used by the RadarTransceiver itself, and in headless mode
+ * (see AirportServer) by whatever is feeding in radar contacts.
+ *
+ * @stereotype control
+ */
+public class RadarFeed {
+
+	private final AircraftManagementDatabase aircraftManagementDatabase;
+
+	/**
+	 * The constructor for this class.
+	 * @param amd The aircraft database the contacts are reported to
+	 */
+	public RadarFeed(AircraftManagementDatabase amd) {
+		this.aircraftManagementDatabase = amd;
+	}
+
+	/**
+	 * Reports a newly detected aircraft.
+	 * @param fd The aircraft's flight descriptor
+	 * @return The mCode of the record now holding the flight
+	 */
+	public int detect(FlightDescriptor fd) {
+		return aircraftManagementDatabase.radarDetect(fd);
+	}
+
+	/**
+	 * Reports a newly detected aircraft from its details.
+	 * @param flightCode The flight code
+	 * @param from Where the aircraft is coming from
+	 * @param to Where it is going - "Stirling" if it wants to land
+	 * @param next Where it goes after that
+	 * @param passengerNames The names of the passengers on board
+	 * @return The mCode of the record now holding the flight
+	 */
+	public int detect(String flightCode, String from, String to, String next, String... passengerNames) {
+		PassengerList passengers = new PassengerList();
+		for (String name : passengerNames) {//For every passenger on board
+			passengers.addPassenger(new PassengerDetails(name));
+		}
+		return detect(new FlightDescriptor(flightCode, new Itinerary(from, to, next), passengers));
+	}
+
+	/**
+	 * Reports that an aircraft has left local airspace. Only an aircraft that is
+	 * IN_TRANSIT or DEPARTING_THROUGH_LOCAL_AIRSPACE can leave.
+	 * @param mCode The aircraft's mCode
+	 * @return True if its record is now FREE
+	 */
+	public boolean lostContact(int mCode) {
+		aircraftManagementDatabase.radarLostContact(mCode);
+		return aircraftManagementDatabase.getStatus(mCode) == ManagementRecord.FREE;
+	}
+}
@@ -34,6 +34,7 @@ public class RadarTransceiver extends JFrame implements ActionListener, Observer
 	 * @directed
 	 */
 	private AircraftManagementDatabase aircraftManagementDatabase;
+	private RadarFeed radarFeed;//Reports the contacts entered on this screen
 
 	private JTextField flightCodeText; // Create a text field for the flight code to be typed in to
 	private JTextField fromText;// Create a text field for the from option
@@ -43,7 +44,10 @@ public class RadarTransceiver extends JFrame implements ActionListener, Observer
 	private JButton detectFlightButton;//Create a button for detecting flight details
 
 	private JList<String> outputList;//Create a JList to use as the output list
-	private DefaultListModel<String> list;//Create a default list model of type string - also used for output
+	private final FlightListModel list = new FlightListModel(status -> status == ManagementRecord.IN_TRANSIT
+			|| status == ManagementRecord.DEPARTING_THROUGH_LOCAL_AIRSPACE);//One row for each aircraft in transit or departing through local airspace
+	private JComboBox<FlightListModel.SortKey> sortBy;//Chooses what the list is sorted by
+	private final ListModelBridge rows = ListModelBridge.swing();//Applies changes to the list on the Swing event thread, once per frame
 	private JButton leftLocalAirspace;//Create a button for marking a flight as having left airspace 
 
 	private JList<PassengerDetails> passengerList;//Create a new Jlist of passenger details
@@ -58,7 +62,8 @@ public class RadarTransceiver extends JFrame implements ActionListener, Observer
 	 */
 	public RadarTransceiver(AircraftManagementDatabase amd) {
 		this.aircraftManagementDatabase = amd;//Set the database in this class to become equal to the one that is passed into the constructor
-		amd.addObserver(this);//Set this class to observe the database
+		this.radarFeed = new RadarFeed(amd);//Reports the contacts entered on this screen to the database
+		amd.subscribe(this, ManagementRecord.IN_TRANSIT, ManagementRecord.DEPARTING_THROUGH_LOCAL_AIRSPACE);//Set this class to observe the aircraft that are in the air
 
 		passengers = new PassengerList();//Set passengers to become an empty passenger list (instantiates a new passenger list class)
 
@@ -129,14 +134,16 @@ public class RadarTransceiver extends JFrame implements ActionListener, Observer
 		leftLocalAirspace.addActionListener(this);// Add the action listener to respond on click
 		detectedFlights.add(leftLocalAirspace);// Add the button to the JPanel
 
-		list = new DefaultListModel<String>();// Create a new list for the flights to be added to
 		outputList = new JList<>(list);// 'Create a JList based on the list to display the list of flights
+		outputList.setPrototypeCellValue(FlightListModel.PROTOTYPE_ROW);// Every row the same size, so only the rows on screen are looked at
 		outputList.addListSelectionListener(e -> aircraftSelected());// Add an action listener to the output list and call the aircraftSelected method
 		
 		JScrollPane scroll = new JScrollPane(outputList);// Create a new scroll bar for the output list
 		scroll.setPreferredSize(new Dimension(430, 100));// Set the preferred size for the scroll list
 		detectedFlights.add(scroll);// Add the scroll pane to the panel
-		list.setSize(aircraftManagementDatabase.maxMRs);// Set the size of the list to the maximum number of management records, as defined in the aircraft management database
+		sortBy = new JComboBox<>(FlightListModel.SortKey.values());// Create a box to choose what the list of flights is sorted by
+		sortBy.addActionListener(e -> list.sortBy((FlightListModel.SortKey) sortBy.getSelectedItem()));// Re-sort the list when a different order is chosen
+		detectedFlights.add(sortBy);// Add the box to the panel
 
 		JLabel passengersOnboardlbl = new JLabel("Passengers Onboard:");// Create a new label for the passengers on board list:
 		detectedFlights.add(passengersOnboardlbl);// Add the label to the JPanel
@@ -163,22 +170,10 @@ public class RadarTransceiver extends JFrame implements ActionListener, Observer
 
 	/**
 	 * A method that will be called from the update() method when something in the aircraft database changes
+	 * Only the rows of aircraft that have changed since the last time are touched, on the Swing event thread
 	 */
 	private void aircraftListUpdate() {
-		for (int i = 0; i < aircraftManagementDatabase.maxMRs; i++) { // For each record in database
-			ManagementRecord managementRecord = aircraftManagementDatabase.getManagementRecord(i); // Create local instance of that MR
-
-			if (managementRecord == null) {//If the management record is empty THEN
-				list.set(i, null);//Set the list to have an empty position - helps getSelected() to work correctly
-			} else {//Otherwise do this
-				list.set(i, null);
-				if (managementRecord.getStatus() == ManagementRecord.IN_TRANSIT
-						|| managementRecord.getStatus() == ManagementRecord.DEPARTING_THROUGH_LOCAL_AIRSPACE) { // If the status of the aircraft equals in transit or departing through local airspace THEN
-					String record = "Flight Code: " + managementRecord.getFlightCode() + "     " + "Flight Status: " + managementRecord.getStatusString();//Declare a new string to hold the flight code and status
-					list.set(i, record);//add the record to the Jlist - to allow it to be displayed
-				}
-			}
-		}
+		rows.later(list, () -> list.refresh(aircraftManagementDatabase.snapshot()));// The latest state of every record, once per frame
 	}
 
 	/**
@@ -193,7 +188,7 @@ public class RadarTransceiver extends JFrame implements ActionListener, Observer
 				}
 				buttonAvailability();//Call the buttonUpdates method to ensure the buttons are updated to not display
 			} else {//Otherwise do this
-				MRIndex = outputList.getSelectedIndex();//Set the MrIndex using the getSelectedIndex() method called against the JList
+				MRIndex = list.getmCode(outputList.getSelectedIndex());//Set the MrIndex to the mCode of the aircraft in the row selected in the JList
 				passengers = aircraftManagementDatabase.getPassengerList(MRIndex);//Set the passengers list in this class to be the list of passengers for the management record identified using the MRIndex
 				Vector<PassengerDetails> detailsToDisplay = passengers.getPassengerList();//Create a new vector so that the passenger details can be displayed and get the passenger list as above
 				passengerList.setListData(detailsToDisplay);//Set the Jlist to display the vector
@@ -213,7 +208,7 @@ public class RadarTransceiver extends JFrame implements ActionListener, Observer
 		if (!isButtonAvailable) {//If the boolean flag for the button availability is false then
 			leftLocalAirspace.setEnabled(false); // Do not allow the button to be clicked
 		} else {//Otherwise do this
-			MRIndex = outputList.getSelectedIndex();//Set the MRIndex to become equal to the selected index in the JList
+			MRIndex = list.getmCode(outputList.getSelectedIndex());//Set the MRIndex to become equal to the mCode of the aircraft in the selected row
 			String statusAircraft = aircraftManagementDatabase.getStatusString(MRIndex);//Declare a new string to hold the status of the aircraft and get the status using the getStatusString method and the MRIndex
 
 			//If the status of the aircraft id departing through local airspace or in transit THEN
@@ -252,7 +247,7 @@ public class RadarTransceiver extends JFrame implements ActionListener, Observer
 			Itinerary itin = new Itinerary(from, to, next);//Create a new instance of the itinerary class called itin, and pass in the from, to, next variables to the constructor
 			FlightDescriptor fd = new FlightDescriptor(flightCode, itin, passengers);//Create a new instance of the flight descriptor class and pass the flight code, itinerary and passenger list to the constructor
 
-			aircraftManagementDatabase.radarDetect(fd);//Call the radarDetect() method in the aircraft management database and pass in the flight descriptor
+			radarFeed.detect(fd);//Report the new contact to the aircraft management database, passing in the flight descriptor
 			aircraftListUpdate();
 			//JOptionPane.showMessageDialog(this, "Flight " + flightCode + " Detected");//Print a message to say the flight has been detected
 
@@ -263,22 +258,6 @@ public class RadarTransceiver extends JFrame implements ActionListener, Observer
 			fromText.setText("");
 			nextText.setText("");
 			namesText.setText("");
-			
-			//Create a new boolean flag to determine whether the management record array is now full and initialise as false
-			boolean full = false;
-		
-			for (int i = 0; i < aircraftManagementDatabase.maxMRs; i++) {//For every management record in the database
-				if (aircraftManagementDatabase.getStatus(i) == 0) {//If the status of the management record is 0 THEN
-					full = false;//Set full to false
-					break;//Break from the loop - because we have found an empty position
-				}
-				else {//Otherwise
-					full = true;//Set full to true - no empty positions were found
-				}
-			}
-			if (full) {//If the list is full and has no empty management records THEN
-				detectFlightButton.setEnabled(false);//Do not allow the detect flight button to be clicked
-			}
 		}
 	}
 
@@ -290,10 +269,10 @@ public class RadarTransceiver extends JFrame implements ActionListener, Observer
 		if (outputList.getSelectedValue() == null) { // If no aircraft is selected from list
 			MRIndex = -1;//Set the MRIndex to be -1 (highlighting nothing selected)
 		} else {//Otherwise
-			int newMRIndex = outputList.getSelectedIndex();//Set the MRIndex to become equal to the selected index in the JList
+			int newMRIndex = list.getmCode(outputList.getSelectedIndex());//Set the MRIndex to become equal to the mCode of the aircraft in the selected row
 
-			aircraftManagementDatabase.radarLostContact(newMRIndex);//Call the radarLostContact() method in the aircraft database, passing in the index of the management record 
-			list.set(newMRIndex, null);//remove the selected index from the JList
+			radarFeed.lostContact(newMRIndex);//Report the lost contact to the aircraft database, passing in the index of the management record 
+			aircraftListUpdate();//remove the aircraft's row from the JList
 			clearPassengerDisplay();//Clear the list of passengers because the flight has been removed
 		}
 	}
@@ -319,6 +298,6 @@ public class RadarTransceiver extends JFrame implements ActionListener, Observer
 	 * When changes are made to the database - this method will be called by the notifyObersvers() method in the database
 	 */
 	public void update(Observable o, Object arg) {
-		aircraftListUpdate();//Call the aircraftListUpdate() method
+		aircraftListUpdate();//Call the aircraftListUpdate() method - only the rows that changed are updated
 	}
 }
\ No newline at end of file
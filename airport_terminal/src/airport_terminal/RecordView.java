@@ -0,0 +1,209 @@
+package airport_terminal;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Objects;
+
+/**
+ * An unchangeable copy of one ManagementRecord, as it was at a particular
+ * version of the AircraftManagementDatabase. RecordViews are what a
+ * DatabaseSnapshot is made of: every field is copied when the record changes,
+ * so a RecordView can be read from any thread without locking and never
+ * changes underneath the reader.
+ *
+ * The Itinerary and PassengerList returned are new copies each time, so
+ * changing them has no effect on the view or on the database.
+ */
+public final class RecordView {
+
+	private final int mCode;//The position of the management record in the database
+	private final long version;//The database version at which the record last changed
+	private final int status;
+	private final String flightCode;
+	private final int gateNumber;
+	private final String from;//The itinerary, held as Strings because Itinerary can be changed
+	private final String to;
+	private final String next;
+	private final PassengerDetails[] passengers;//The passenger list, held as an array because PassengerList can be changed
+	private final String faultDescription;
+	private String row;//The row shown for the record in the operators' lists, rendered the first time it is asked for
+	private String boardRow;//The row shown for the record on the public board, likewise
+
+	/**
+	 * Copies the given management record.
+	 * @param mCode The position of the management record in the database
+	 * @param version The database version at which the record changed
+	 * @param record The management record to be copied
+	 */
+	RecordView(int mCode, long version, ManagementRecord record) {
+		this.mCode = mCode;
+		this.version = version;
+		this.status = record.getStatus();
+		this.flightCode = record.getFlightCode();
+		this.gateNumber = record.getGateNumber();
+		Itinerary itinerary = record.getItinerary();
+		this.from = itinerary == null ? null : itinerary.getFrom();
+		this.to = itinerary == null ? null : itinerary.getTo();
+		this.next = itinerary == null ? null : itinerary.getNext();
+		PassengerList list = record.getPassengerList();
+		this.passengers = list == null ? null : list.getPassengerList().toArray(new PassengerDetails[0]);
+		this.faultDescription = record.getFaultDescription();
+	}
+
+	/**
+	 * Makes the view of a FREE management record that has never been used.
+	 * @param mCode The position of the management record in the database
+	 */
+	RecordView(int mCode) {
+		this.mCode = mCode;
+		this.version = 0;
+		this.status = ManagementRecord.FREE;
+		this.flightCode = null;
+		this.gateNumber = -1;
+		this.from = null;
+		this.to = null;
+		this.next = null;
+		this.passengers = null;
+		this.faultDescription = null;
+	}
+
+	/** Return the mCode of the record. */
+	public int getmCode() {
+		return mCode;
+	}
+
+	/**
+	 * Return the database version at which the record last changed. A record
+	 * that has not changed keeps its version from one snapshot to the next.
+	 */
+	public long getVersion() {
+		return version;
+	}
+
+	/** Return the status code of the record. */
+	public int getStatus() {
+		return status;
+	}
+
+	/** Return the status of the record as a String. */
+	public String getStatusString() {
+		return ManagementRecord.getStatusString(status);//Use the same names as the record itself
+	}
+
+	/** Return the flight code, or null if the record is FREE. */
+	public String getFlightCode() {
+		return status == ManagementRecord.FREE ? null : flightCode;
+	}
+
+	/**
+	 * Return the row shown for the record in the operators' lists: its flight
+	 * code and status. A view is shared by every snapshot until the record
+	 * changes, so the row is rendered once per version of the record, however
+	 * many screens show it.
+	 */
+	public String getRow() {
+		String rendered = row;
+		if (rendered == null) {
+			rendered = "Flight Code: " + getFlightCode() + "     Flight Status: " + getStatusString();
+			row = rendered;//Another thread may render it at the same time, but the result is the same
+		}
+		return rendered;
+	}
+
+	/**
+	 * Return the row shown for the record on the public board (see FlightBoard),
+	 * or null if it is not on the board. Rendered once per version, like getRow.
+	 */
+	public String getBoardRow() {
+		String rendered = boardRow;
+		if (rendered == null && FlightBoard.section(status) != FlightBoard.NONE) {
+			rendered = FlightBoard.text(this);
+			boardRow = rendered;
+		}
+		return rendered;
+	}
+
+	/** Return the gate number the aircraft is using. */
+	public int getGateNumber() {
+		return gateNumber;
+	}
+
+	/** Return a copy of the aircraft's itinerary, or null if it does not have one. */
+	public Itinerary getItinerary() {
+		return from == null && to == null && next == null ? null : new Itinerary(from, to, next);
+	}
+
+	/** Return a copy of the aircraft's passenger list, or null if it does not have one. */
+	public PassengerList getPassengerList() {
+		if (passengers == null) {
+			return null;
+		}
+		PassengerList list = new PassengerList();
+		for (PassengerDetails details : passengers) {
+			list.addPassenger(details);
+		}
+		return list;
+	}
+
+	/** Return where the aircraft is coming from, or null if it has no itinerary. */
+	String getFrom() {
+		return from;
+	}
+
+	/** Return where the aircraft is, or is going to, or null if it has no itinerary. */
+	String getTo() {
+		return to;
+	}
+
+	/** Return where the aircraft is going next, or null if it has no itinerary. */
+	String getNext() {
+		return next;
+	}
+
+	/**
+	 * Return the passengers on the aircraft's passenger list, or null if it does
+	 * not have one. The array must not be changed.
+	 */
+	PassengerDetails[] getPassengers() {
+		return passengers;
+	}
+
+	/** Return the number of passengers on the aircraft's passenger list. */
+	public int getPassengerCount() {
+		return passengers == null ? 0 : passengers.length;
+	}
+
+	/** Return the description of the faults found, or null if none have been. */
+	public String getFaultDescription() {
+		return faultDescription;
+	}
+
+	/**
+	 * Returns the fields that are different in the given later view of the same
+	 * record.
+	 * @param later The later view
+	 * @return The fields that differ - empty if the record has not changed
+	 */
+	EnumSet<ChangeEvent.Field> differences(RecordView later) {
+		EnumSet<ChangeEvent.Field> fields = EnumSet.noneOf(ChangeEvent.Field.class);
+		if (status != later.status) {
+			fields.add(ChangeEvent.Field.STATUS);
+		}
+		if (!Objects.equals(flightCode, later.flightCode)) {
+			fields.add(ChangeEvent.Field.FLIGHT_CODE);
+		}
+		if (gateNumber != later.gateNumber) {
+			fields.add(ChangeEvent.Field.GATE);
+		}
+		if (!Objects.equals(from, later.from) || !Objects.equals(to, later.to) || !Objects.equals(next, later.next)) {
+			fields.add(ChangeEvent.Field.ITINERARY);
+		}
+		if (!Arrays.equals(passengers, later.passengers)) {
+			fields.add(ChangeEvent.Field.PASSENGERS);
+		}
+		if (!Objects.equals(faultDescription, later.faultDescription)) {
+			fields.add(ChangeEvent.Field.FAULTS);
+		}
+		return fields;
+	}
+}
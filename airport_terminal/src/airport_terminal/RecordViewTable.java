@@ -0,0 +1,86 @@
+package airport_terminal;
+
+import java.util.Arrays;
+
+/**
+ * The latest RecordView of every ManagementRecord, from which the
+ * AircraftManagementDatabase takes its snapshots.
+ *
+ * The views are held in chunks of CHUNK_SIZE records. Taking a snapshot only
+ * copies the (short) array of chunks and starts a new epoch; the chunks
+ * themselves become shared with the snapshot. The first change to a chunk in
+ * a new epoch copies that chunk before changing it ("copy on write"), so
+ * snapshots never see later changes and each change copies at most one chunk.
+ * When no snapshot has been taken since a chunk was copied it is changed in
+ * place.
+ *
+ * Not thread safe - the database guards it with the same lock as the status index.
+ */
+class RecordViewTable {
+
+	static final int CHUNK_BITS = 6;//Each chunk holds 2^CHUNK_BITS records
+	static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+	static final int CHUNK_MASK = CHUNK_SIZE - 1;//The position of an mCode within its chunk
+
+	private RecordView[][] chunks = new RecordView[0][];//The views, CHUNK_SIZE at a time
+	private int[] chunkEpoch = new int[0];//For each chunk, the epoch it was last copied in - it is only private to the table if this is the current epoch
+	private int epoch;//Increased every time a snapshot is taken
+	private int size;//The number of mCodes in the table
+
+	/**
+	 * Makes room for mCodes up to (but not including) capacity. New mCodes have
+	 * the view of a FREE record.
+	 * @param capacity The new number of mCodes
+	 */
+	void grow(int capacity) {
+		int oldChunks = chunks.length;
+		int newChunks = (capacity + CHUNK_MASK) >> CHUNK_BITS;//Round up to whole chunks
+		if (newChunks > oldChunks) {//If more chunks are needed THEN
+			chunks = Arrays.copyOf(chunks, newChunks);
+			chunkEpoch = Arrays.copyOf(chunkEpoch, newChunks);
+			for (int c = oldChunks; c < newChunks; c++) {//For every new chunk
+				chunks[c] = new RecordView[CHUNK_SIZE];
+				chunkEpoch[c] = epoch;//A new chunk is private until the next snapshot
+			}
+		}
+		for (int mCode = size; mCode < capacity; mCode++) {//For every new mCode
+			set(mCode, new RecordView(mCode));//It starts off FREE
+		}
+		size = Math.max(size, capacity);
+	}
+
+	/**
+	 * Replaces the view of the record with the given mCode, copying its chunk
+	 * first if the chunk is shared with a snapshot.
+	 * @param mCode The position of the record
+	 * @param view The new view of the record
+	 */
+	void set(int mCode, RecordView view) {
+		int c = mCode >> CHUNK_BITS;//The chunk holding the mCode
+		if (chunkEpoch[c] != epoch) {//If the chunk is shared with a snapshot THEN
+			chunks[c] = chunks[c].clone();//Copy it, so the snapshot does not change
+			chunkEpoch[c] = epoch;
+		}
+		chunks[c][mCode & CHUNK_MASK] = view;
+	}
+
+	/**
+	 * Return the current view of the record with the given mCode.
+	 * @param mCode The position of the record
+	 * @return The view
+	 */
+	RecordView get(int mCode) {
+		return chunks[mCode >> CHUNK_BITS][mCode & CHUNK_MASK];
+	}
+
+	/**
+	 * Takes a snapshot of every view in the table. Every chunk becomes shared
+	 * with the snapshot, so it will be copied the next time it changes.
+	 * @param version The version of the database the snapshot is taken at
+	 * @return The snapshot
+	 */
+	DatabaseSnapshot snapshot(long version) {
+		epoch++;//Every chunk now belongs to the snapshot as well
+		return new DatabaseSnapshot(version, size, chunks.clone());
+	}
+}
@@ -0,0 +1,38 @@
+package airport_terminal;
+
+//Allow assertions to be used
+import static org.junit.jupiter.api.Assertions.*;
+import static airport_terminal.TestFlights.*;
+
+//Imports for allowing test and the before each test method
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+
+
+class RecordViewTest {
+	AircraftManagementDatabase amd;
+
+	/**
+	 * This method runs before each individual test is run
+	 */
+	@BeforeEach
+	void setup() {
+		//Set up a new database to be used so that information is not left over from previous tests
+		amd = new AircraftManagementDatabase();
+	}
+
+	@Test
+	void testRowsRenderedOncePerVersion() {
+		int mCode = amd.radarDetect(flight("BA1", "Stirling"));
+		int other = amd.radarDetect(flight("BA2", "Stirling"));
+		String row = amd.snapshot().getRecord(mCode).getRow();
+		assertEquals("Flight Code: BA1     Flight Status: WANTING_TO_LAND", row, "The row has the wrong text");
+		moveTo(amd, other, ManagementRecord.LANDING);//A change to another record
+		assertSame(row, amd.snapshot().getRecord(mCode).getRow(), "An unchanged record's row was rendered again");
+		assertSame(amd.snapshot().getRecord(mCode).getBoardRow(), amd.snapshot().getRecord(mCode).getBoardRow(), "The board row was rendered again");
+		amd.setStatus(mCode, ManagementRecord.GROUND_CLEARANCE_GRANTED);
+		assertEquals("Flight Code: BA1     Flight Status: GROUND_CLEARANCE_GRANTED", amd.snapshot().getRecord(mCode).getRow(), "A changed record's row was not rendered again");
+		moveTo(amd, mCode, ManagementRecord.READY_FOR_CLEAN_MAINT);
+		assertNull(amd.snapshot().getRecord(mCode).getBoardRow(), "A record not on the board has a board row");
+	}
+}
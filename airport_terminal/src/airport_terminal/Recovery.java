@@ -0,0 +1,179 @@
+package airport_terminal;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Puts the databases back as they were before the application stopped: loads
+ * the newest SnapshotFile, then replays the journal entries made after it.
+ *
+ * Records are independent of each other, so the records are split into
+ * partitions by mCode and each partition is put back on its own thread, in
+ * order of version. The gates are put back afterwards on the calling thread.
+ * The result reports how long recovery took and how much was replayed.
+ */
+public final class Recovery {
+
+	private final File snapshot;//The snapshot loaded, or null if there was none
+	private final int snapshotRecords;//The number of records put back from the snapshot
+	private final int replayed;//The number of journal entries replayed
+	private final int skipped;//The number of journal entries already held in the snapshot
+	private final int partitions;
+	private final long snapshotNanos;//How long loading the snapshot took
+	private final long totalNanos;//How long the whole recovery took
+
+	private Recovery(File snapshot, int snapshotRecords, int replayed, int skipped, int partitions, long snapshotNanos, long totalNanos) {
+		this.snapshot = snapshot;
+		this.snapshotRecords = snapshotRecords;
+		this.replayed = replayed;
+		this.skipped = skipped;
+		this.partitions = partitions;
+		this.snapshotNanos = snapshotNanos;
+		this.totalNanos = totalNanos;
+	}
+
+	/**
+	 * Recovers the databases from the newest snapshot in one directory and the
+	 * journal in another. Should be called before anything else uses the
+	 * databases, and before they are given an EventRing, so that the replayed
+	 * changes are not journalled again.
+	 * @param snapshotDirectory Where the snapshots are kept
+	 * @param journalDirectory Where the journal segments are kept
+	 * @param amd The aircraft database, as newly created
+	 * @param gid The gate database, as newly created
+	 * @param threads The number of threads to replay the records on
+	 * @return What was recovered
+	 * @throws IOException If the journal cannot be read
+	 */
+	public static Recovery recover(File snapshotDirectory, File journalDirectory, AircraftManagementDatabase amd, GateInfoDatabase gid, int threads)
+			throws IOException {
+		long start = System.nanoTime();
+		int partitions = Math.max(1, threads);
+		List<List<JournalEntry>> records = new ArrayList<List<JournalEntry>>();
+		for (int i = 0; i < partitions; i++) {
+			records.add(new ArrayList<JournalEntry>());
+		}
+		List<JournalEntry> gates = new ArrayList<JournalEntry>();
+
+		SnapshotFile loaded = SnapshotFile.readNewest(snapshotDirectory);
+		long aircraftVersion = 0;//Journal entries at or before these versions are already in the snapshot
+		long gateVersion = 0;
+		int size = 0;
+		if (loaded != null) {//If there is a snapshot THEN
+			aircraftVersion = loaded.getAircraftVersion();
+			gateVersion = loaded.getGateVersion();
+			size = loaded.size();
+			for (JournalEntry record : loaded.getRecords()) {
+				records.get(record.getCode() % partitions).add(record);
+			}
+			gates.addAll(loaded.getGates());
+		}
+		long snapshotNanos = System.nanoTime() - start;
+
+		int replayed = 0;
+		int skipped = 0;
+		long lastAircraftVersion = aircraftVersion;
+		long lastGateVersion = gateVersion;
+		for (JournalEntry entry : Journal.read(journalDirectory)) {//Sort the journal into partitions
+			if (entry.getSource() == ChangeEvent.Source.AIRCRAFT) {
+				if (entry.getVersion() <= aircraftVersion) {//If the snapshot already holds it THEN
+					skipped++;
+					continue;
+				}
+				records.get(entry.getCode() % partitions).add(entry);
+				size = Math.max(size, entry.getCode() + 1);
+				lastAircraftVersion = Math.max(lastAircraftVersion, entry.getVersion());
+			} else {
+				if (entry.getVersion() <= gateVersion) {
+					skipped++;
+					continue;
+				}
+				gates.add(entry);
+				lastGateVersion = Math.max(lastGateVersion, entry.getVersion());
+			}
+			replayed++;
+		}
+
+		amd.ensureCapacity(size);//Grow once, rather than on every thread
+		ExecutorService pool = Executors.newFixedThreadPool(partitions);
+		try {
+			List<Callable<Void>> work = new ArrayList<Callable<Void>>();
+			for (List<JournalEntry> partition : records) {
+				work.add(() -> {
+					partition.sort(Comparator.comparingLong(JournalEntry::getVersion));//A record's changes must be put back in order - the snapshot entry first
+					for (JournalEntry entry : partition) {
+						amd.restore(entry);
+					}
+					return null;
+				});
+			}
+			for (Future<Void> done : pool.invokeAll(work)) {
+				done.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Recovery was interrupted", e);
+		} catch (ExecutionException e) {
+			throw new IOException("Recovery failed", e.getCause());
+		} finally {
+			pool.shutdown();
+		}
+		gates.sort(Comparator.comparingLong(JournalEntry::getVersion));
+		for (JournalEntry gate : gates) {
+			gid.restore(gate);
+		}
+		amd.finishRestore(lastAircraftVersion);
+		gid.finishRestore(lastGateVersion);
+		return new Recovery(loaded == null ? null : loaded.getFile(), loaded == null ? 0 : loaded.getRecords().size(), replayed, skipped, partitions,
+				snapshotNanos, System.nanoTime() - start);
+	}
+
+	/** Return the snapshot file loaded, or null if there was none. */
+	public File getSnapshot() {
+		return snapshot;
+	}
+
+	/** Return the number of records put back from the snapshot. */
+	public int getSnapshotRecords() {
+		return snapshotRecords;
+	}
+
+	/** Return the number of journal entries replayed after the snapshot. */
+	public int getReplayedCount() {
+		return replayed;
+	}
+
+	/** Return the number of journal entries skipped because the snapshot already held them. */
+	public int getSkippedCount() {
+		return skipped;
+	}
+
+	/** Return the number of partitions the records were replayed in. */
+	public int getPartitions() {
+		return partitions;
+	}
+
+	/** Return how long loading the snapshot took, in milliseconds. */
+	public double getSnapshotMillis() {
+		return snapshotNanos / 1e6;
+	}
+
+	/** Return how long the whole recovery took, in milliseconds. */
+	public double getRecoveryMillis() {
+		return totalNanos / 1e6;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("Recovered in %.1f ms: %d records from %s (%.1f ms), %d journal entries replayed in %d partitions, %d skipped",
+				getRecoveryMillis(), snapshotRecords, snapshot == null ? "no snapshot" : snapshot.getName(), getSnapshotMillis(), replayed, partitions, skipped);
+	}
+}
@@ -0,0 +1,82 @@
+package airport_terminal;
+
+//Allow assertions to be used
+import static org.junit.jupiter.api.Assertions.*;
+import static airport_terminal.TestFlights.*;
+
+import java.io.File;
+import java.nio.file.Files;
+
+//Imports for allowing test and the before each test method
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+
+
+class RecoveryTest {
+	AircraftManagementDatabase amd;
+
+	/**
+	 * This method runs before each individual test is run
+	 */
+	@BeforeEach
+	void setup() {
+		//Set up a new database to be used so that information is not left over from previous tests
+		amd = new AircraftManagementDatabase();
+	}
+
+	/**
+	 * Tests that recovery from a snapshot and the journal after it puts back every record and gate
+	 */
+	@Test
+	void testRecoveryFromSnapshotAndJournal() throws Exception {
+		File directory = Files.createTempDirectory("recovery").toFile();
+		File snapshots = new File(directory, "snapshots");
+		File journalled = new File(directory, "journal");
+		EventRing ring = new EventRing(64);
+		GateInfoDatabase gid = new GateInfoDatabase();
+		amd.setEventRing(ring, EventRing.WaitStrategy.BLOCKING);
+		gid.setEventRing(ring, EventRing.WaitStrategy.BLOCKING);
+		Journal journal = new Journal(journalled, 4096, false);
+		EventRing.Consumer consumer = ring.addConsumer("Journal", journal, EventRing.WaitStrategy.BLOCKING);
+
+		int[] mCodes = new int[12];//More than fit in a new database, so recovery has to grow it
+		for (int i = 0; i < mCodes.length; i++) {
+			mCodes[i] = amd.radarDetect(flight("BA" + i, "Stirling"));
+		}
+		moveTo(amd, mCodes[0], ManagementRecord.LANDED);
+		amd.taxiTo(mCodes[0], 1);
+		gid.allocate(1, mCodes[0]);
+		while (consumer.getSequence() < ring.getCursor()) {
+			Thread.sleep(5);
+		}
+		new SnapshotWriter(amd, gid, snapshots, journal, 1).writeNow();
+		gid.docked(1);//Changes after the snapshot, only in the journal
+		amd.setStatus(mCodes[0], ManagementRecord.UNLOADING);
+		amd.setStatus(mCodes[5], ManagementRecord.GROUND_CLEARANCE_GRANTED);
+		amd.setItinerary(mCodes[5], "Glasgow", "Stirling", "Rome");
+		while (consumer.getSequence() < ring.getCursor()) {
+			Thread.sleep(5);
+		}
+		journal.close();
+
+		AircraftManagementDatabase recovered = new AircraftManagementDatabase();
+		GateInfoDatabase recoveredGates = new GateInfoDatabase();
+		Recovery recovery = Recovery.recover(snapshots, journalled, recovered, recoveredGates, 3);
+		assertEquals(mCodes.length, recovery.getSnapshotRecords(), "The snapshot records were not put back");
+		assertEquals(4, recovery.getReplayedCount(), "The journal after the snapshot was not replayed");
+		assertEquals(amd.maxMRs, recovered.maxMRs, "The recovered database is the wrong size");
+		for (int mCode = 0; mCode < amd.maxMRs; mCode++) {
+			assertEquals(amd.getStatus(mCode), recovered.getStatus(mCode), "The wrong status was recovered");
+			assertEquals(amd.getFlightCode(mCode), recovered.getFlightCode(mCode), "The wrong flight code was recovered");
+		}
+		assertEquals(1, recovered.getGateNumber(mCodes[0]), "The wrong gate was recovered");
+		assertEquals("Rome", recovered.getItinerary(mCodes[5]).getNext(), "The itinerary was not recovered");
+		assertEquals(1, recovered.getPassengerList(mCodes[3]).getPassengerList().size(), "The passenger list was not recovered");
+		assertEquals(Gate.OCCUPIED, recoveredGates.getStatus(1), "The gate status was not recovered");
+		assertEquals(mCodes[0], recoveredGates.getmCode(1), "The aircraft at the gate was not recovered");
+		assertTrue(recovered.getVersion() >= amd.getVersion(), "The recovered version is older than the journal");
+		assertEquals(mCodes[7], recovered.getmCode("BA7"), "The flight codes were not indexed");
+		int next = recovered.radarDetect(flight("BA99", "Stirling"));
+		assertEquals(ManagementRecord.FREE, amd.getStatus(next), "A record in use was reused after recovery");
+	}
+}
@@ -39,6 +39,7 @@ public class RefuellingSupervisor extends JFrame implements ActionListener, Obse
 																	// called aircraftManagementDB
 
 	private DefaultListModel<String> list; // The list of items that will be displayed to the refuelling
+	private final ListModelBridge rows = ListModelBridge.swing(); // Applies changes to the list on the Swing event thread, once per frame
 														// supervisors window.
 
 	private JButton refuelledButton; // The button that will allow the supervisor to mark an aircraft as being
@@ -46,11 +47,12 @@ public class RefuellingSupervisor extends JFrame implements ActionListener, Obse
 
 	private JPanel panel;
 	private JList<String> outputList;
+	private ArrayList<Integer> shown = new ArrayList<Integer>(); // The mCodes currently displayed in the list, so only those have to be cleared
 
 	public RefuellingSupervisor(AircraftManagementDatabase amd) {
 		this.aircraftManagementDatabase = amd; // Set the instance of the aircraft management database in the current
 												// object to be the one that is passed into the above parameters
-		amd.addObserver(this);
+		amd.subscribe(this, ManagementRecord.READY_REFUEL); // Only be told about aircraft waiting to be refuelled
 
 		
 		// Code to initialise the GUI
@@ -87,28 +89,47 @@ public class RefuellingSupervisor extends JFrame implements ActionListener, Obse
 	 * Method to update the list of aircrafts
 	 * 
 	 * Setting a list item as null if the corresponding aircraft index is empty, this keeps indexing the same for 
-	 * both an aircraft list and the management record database
+	 * both an aircraft list and the management record database. Only the records with a matching status are
+	 * looked at, using getWithStatus, rather than every record in the database
 	 */
 	private void aircraftListUpdate() {
-		for (int i = 0; i < aircraftManagementDatabase.maxMRs; i++) { // For each record in database
-			ManagementRecord managementRecord = aircraftManagementDatabase.getManagementRecord(i); // Create local instance of that MR
+		rows.setSize(list, aircraftManagementDatabase.maxMRs); // Grow the list in line with the database so every mCode is a valid index
+		for (int mCode : shown) { // For each record that was displayed last time
+			rows.set(list, mCode, null); // Set the same position in list to be empty
+		}
+		shown.clear();
+		for (int mCode : aircraftManagementDatabase.getWithStatus(ManagementRecord.READY_REFUEL)) { // For each record that is READY_REFUEL
+			rows.set(list, mCode, flightRecord(aircraftManagementDatabase.snapshot().getRecord(mCode))); // Add to list of aircrafts waiting to be refuelled
+			shown.add(mCode); // Remember that this position is in use
+		}
+	}
 
-			if (managementRecord == null) {// If record is empty
-				list.set(i, null);// Set the same position (i) in list to be empty
-			}
-			else { // If record is NOT empty
-				list.set(i, null);// Set the same position (i) in list to be empty
-				if (managementRecord.getStatus() == 13) { // Is status 13 "READY_REFUEL
-					// Create String record and assign it with the flight code and flight status from the current record
-					String record = "Flight Code: " + managementRecord.getFlightCode() + "     " + "Flight Status: "
-							+ managementRecord.getStatusString();
-					
-					list.set(i, record); // Add to list of landing aircrafts
+	/*
+	 * Method to update just the aircrafts that have changed
+	 */
+	private void aircraftListUpdate(ChangeSet changes) {
+		DatabaseSnapshot snapshot = aircraftManagementDatabase.snapshot(); // The latest state of the changed records
+		rows.setSize(list, snapshot.size()); // Grow the list in line with the database so every mCode is a valid index
+		for (int mCode : changes.getmCodes()) { // For each record that has changed
+			RecordView aircraft = snapshot.getRecord(mCode);
+			if (aircraft.getStatus() == ManagementRecord.READY_REFUEL) { // If the record is READY_REFUEL
+				rows.set(list, mCode, flightRecord(aircraft)); // Add to list of aircrafts waiting to be refuelled
+				if (!shown.contains(mCode)) {
+					shown.add(mCode); // Remember that this position is in use
 				}
+			} else if (shown.remove(Integer.valueOf(mCode))) { // If the record was displayed but no longer should be
+				rows.set(list, mCode, null); // Set the same position in list to be empty
 			}
 		}
 	}
 
+	/*
+	 * Returns the text shown in the list for the given record: its flight code and status, rendered once for this version and shared by every screen
+	 */
+	private String flightRecord(RecordView aircraft) {
+		return aircraft.getRow();
+	}
+
 	/*
 	 * Method to change view depending if an aircraft has been selected
 	 */
@@ -153,7 +174,7 @@ public class RefuellingSupervisor extends JFrame implements ActionListener, Obse
 
 		// If refuelled button is clicked
 		if (e.getSource() == refuelledButton) {
-			aircraftManagementDatabase.setStatus(MRIndex, 14); // Change status
+			aircraftManagementDatabase.transition(MRIndex, ManagementRecord.READY_REFUEL, ManagementRecord.READY_PASSENGERS); // Change status, unless another operator already has
 			aircraftListUpdate(); // Update list
 			aircraftSelected();
 		}
@@ -163,8 +184,12 @@ public class RefuellingSupervisor extends JFrame implements ActionListener, Obse
 	@Override
 	public void update(Observable arg0, Object arg1) {
 
-		aircraftSelected();//Call the aircraftSelected method
-		aircraftListUpdate();//Call the aircraftListUpdate to update the displayed list
+		rows.later(this, this::aircraftSelected);//Call the aircraftSelected method on the Swing event thread
+		if (arg1 instanceof ChangeSet) {//If the database says what has changed THEN
+			aircraftListUpdate((ChangeSet) arg1);//Only update those rows
+		} else {
+			aircraftListUpdate();//Call the aircraftListUpdate to update the displayed list
+		}
 	}
 
 }
@@ -0,0 +1,259 @@
+package airport_terminal;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A hot standby: a follower's copy of the AircraftManagementDatabase and the
+ * GateInfoDatabase, kept up to date from the changes a ReplicationSource on
+ * the primary streams to it over a loopback socket.
+ *
+ * The follower's databases are given the snapshot and then every change, in
+ * order, on the replica's own thread. They notify their observers as usual,
+ * so read-only views such as PublicInfo can be shown on the follower. Nothing
+ * else should change them until the replica is promoted: promote disconnects
+ * from the primary and makes the databases ready to be changed, so the
+ * follower can take over as primary.
+ *
+ * Changes can arrive out of order of version, as they can reach the
+ * primary's ring out of order, but each holds the whole record or gate. The
+ * replica remembers the version it holds of each record and gate, and drops
+ * any change that is not newer.
+ *
+ * Replication lag is reported both as the number of versions the follower is
+ * behind the primary, and as the time between the primary sending the last
+ * change and the follower applying it.
+ */
+public class Replica implements Closeable {
+
+	private final AircraftManagementDatabase amd;
+	private final GateInfoDatabase gid;
+	private SocketChannel channel;
+	private Thread receiver;
+	private final CountDownLatch disconnected = new CountDownLatch(1);
+	private volatile boolean promoted;
+	private volatile long baselineAircraftVersion = -1;//The versions of the snapshot - changes at or before them are already held
+	private volatile long baselineGateVersion = -1;
+	private volatile long appliedAircraftVersion;//The primary's version of the last change applied
+	private volatile long appliedGateVersion;
+	private volatile long primaryAircraftVersion;//The primary's versions when it sent the last frame
+	private volatile long primaryGateVersion;
+	private volatile long lagMillis;//From the primary sending the last change to it being applied
+	private final AtomicLong applied = new AtomicLong();//The number of changes and snapshot entries applied
+	private final AtomicLong skipped = new AtomicLong();//The number of changes already held in the snapshot, or older than the record or gate held
+	private long[] recordVersions = new long[0];//The version of each record held - only used by the receiver
+	private long[] gateVersions = new long[0];//The version of each gate held - only used by the receiver
+
+	/**
+	 * The constructor for this class.
+	 * @param amd The follower's aircraft database, as newly created
+	 * @param gid The follower's gate database, as newly created
+	 */
+	public Replica(AircraftManagementDatabase amd, GateInfoDatabase gid) {
+		this.amd = amd;
+		this.gid = gid;
+	}
+
+	/**
+	 * Connects to the primary on the loopback address and starts applying its
+	 * changes. A replica can only be connected once.
+	 * @param port The port the primary's ReplicationSource listens on
+	 * @throws IOException If the primary cannot be reached
+	 */
+	public synchronized void connect(int port) throws IOException {
+		if (channel != null || promoted) {
+			throw new IllegalStateException("The replica has already been connected");
+		}
+		channel = SocketChannel.open(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+		receiver = new Thread(this::receive, "Replica");
+		receiver.setDaemon(true);//Do not keep the application running
+		receiver.start();
+	}
+
+	/**
+	 * Applies frames from the primary until it disconnects.
+	 */
+	private void receive() {
+		ByteBuffer length = ByteBuffer.allocate(4);
+		ByteBuffer frame = ByteBuffer.allocate(4096);
+		try {
+			while (true) {
+				length.clear();
+				readFully(length);
+				int size = length.getInt(0);
+				if (frame.capacity() < size) {
+					frame = ByteBuffer.allocate(Math.max(size, frame.capacity() * 2));
+				}
+				frame.clear();
+				frame.limit(size);
+				readFully(frame);
+				frame.flip();
+				apply(frame);
+			}
+		} catch (IOException e) {
+			//The primary has gone, or the replica has been promoted
+		} finally {
+			disconnected.countDown();
+		}
+	}
+
+	private void readFully(ByteBuffer into) throws IOException {
+		while (into.hasRemaining()) {
+			if (channel.read(into) < 0) {
+				throw new EOFException("The primary disconnected");
+			}
+		}
+	}
+
+	/**
+	 * Applies one frame.
+	 */
+	private void apply(ByteBuffer frame) {
+		byte kind = frame.get();
+		long sent = frame.getLong();
+		primaryAircraftVersion = frame.getLong();
+		primaryGateVersion = frame.getLong();
+		if (kind == ReplicationSource.BEGIN) {
+			baselineAircraftVersion = primaryAircraftVersion;
+			baselineGateVersion = primaryGateVersion;
+			appliedAircraftVersion = primaryAircraftVersion;
+			appliedGateVersion = primaryGateVersion;
+			return;
+		}
+		JournalEntry entry = JournalEntry.decode(frame);
+		if (entry.getSource() == ChangeEvent.Source.AIRCRAFT) {
+			if (kind == ReplicationSource.ENTRY && entry.getVersion() <= baselineAircraftVersion //If the snapshot already held it
+					|| !newer(recordVersions = held(recordVersions, entry.getCode()), entry)) {//Or a newer change to the record has already been applied THEN
+				skipped.incrementAndGet();
+				return;
+			}
+			amd.restore(entry);
+			appliedAircraftVersion = Math.max(appliedAircraftVersion, entry.getVersion());
+		} else {
+			if (kind == ReplicationSource.ENTRY && entry.getVersion() <= baselineGateVersion
+					|| !newer(gateVersions = held(gateVersions, entry.getCode()), entry)) {
+				skipped.incrementAndGet();
+				return;
+			}
+			gid.restore(entry);
+			appliedGateVersion = Math.max(appliedGateVersion, entry.getVersion());
+		}
+		applied.incrementAndGet();
+		lagMillis = System.currentTimeMillis() - sent;
+	}
+
+	/**
+	 * Returns the versions held, grown to include the given record or gate.
+	 */
+	private static long[] held(long[] versions, int code) {
+		return code < versions.length ? versions : Arrays.copyOf(versions, Math.max(code + 1, versions.length * 2));
+	}
+
+	/**
+	 * Returns true if the entry is newer than the version held of its record or
+	 * gate, and if so holds its version from now on.
+	 */
+	private static boolean newer(long[] versions, JournalEntry entry) {
+		if (entry.getVersion() <= versions[entry.getCode()]) {
+			return false;
+		}
+		versions[entry.getCode()] = entry.getVersion();
+		return true;
+	}
+
+	/**
+	 * Disconnects from the primary, once every change received has been
+	 * applied, and makes the databases ready to be changed, so the follower can
+	 * take over as primary. Does nothing the second time.
+	 * @throws InterruptedException If interrupted while waiting for the last change to be applied
+	 */
+	public synchronized void promote() throws InterruptedException {
+		if (promoted) {
+			return;
+		}
+		close();
+		disconnected.await();//The receiver has stopped
+		amd.finishRestore(appliedAircraftVersion);//Rebuild the free-list and flight codes, and carry on from the primary's versions
+		gid.finishRestore(appliedGateVersion);
+		promoted = true;
+	}
+
+	/**
+	 * Waits for the primary to disconnect.
+	 * @param timeoutMillis The longest to wait
+	 * @return True if it has disconnected
+	 * @throws InterruptedException If interrupted while waiting
+	 */
+	public boolean awaitDisconnect(long timeoutMillis) throws InterruptedException {
+		return disconnected.await(timeoutMillis, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Disconnects from the primary without promoting the replica.
+	 */
+	@Override
+	public synchronized void close() {
+		if (channel == null) {
+			disconnected.countDown();//There is no receiver to wait for
+			return;
+		}
+		try {
+			channel.close();
+		} catch (IOException e) {
+			//Already closed
+		}
+	}
+
+	/** Return true if the replica has been promoted. */
+	public boolean isPromoted() {
+		return promoted;
+	}
+
+	/** Return the primary's version of the aircraft database up to which every change has been applied. */
+	public long getAppliedAircraftVersion() {
+		return appliedAircraftVersion;
+	}
+
+	/** Return the primary's version of the gate database up to which every change has been applied. */
+	public long getAppliedGateVersion() {
+		return appliedGateVersion;
+	}
+
+	/**
+	 * Return the number of versions the follower is behind the primary, as of
+	 * the last frame received.
+	 */
+	public long getVersionsBehind() {
+		return Math.max(0, primaryAircraftVersion - appliedAircraftVersion) + Math.max(0, primaryGateVersion - appliedGateVersion);
+	}
+
+	/** Return the time from the primary sending the last change to it being applied, in milliseconds. */
+	public long getLagMillis() {
+		return lagMillis;
+	}
+
+	/** Return the number of snapshot entries and changes applied. */
+	public long getAppliedCount() {
+		return applied.get();
+	}
+
+	/** Return the number of changes skipped because the snapshot, or a newer change, already held them. */
+	public long getSkippedCount() {
+		return skipped.get();
+	}
+
+	@Override
+	public String toString() {
+		return String.format("Replica %s: %d applied, %d versions behind, lag %d ms", promoted ? "promoted" : "following", getAppliedCount(),
+				getVersionsBehind(), lagMillis);
+	}
+}
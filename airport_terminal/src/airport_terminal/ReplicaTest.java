@@ -0,0 +1,119 @@
+package airport_terminal;
+
+//Allow assertions to be used
+import static org.junit.jupiter.api.Assertions.*;
+import static airport_terminal.TestFlights.*;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+
+//Imports for allowing test and the before each test method
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+
+
+class ReplicaTest {
+	AircraftManagementDatabase amd;
+
+	/**
+	 * This method runs before each individual test is run
+	 */
+	@BeforeEach
+	void setup() {
+		//Set up a new database to be used so that information is not left over from previous tests
+		amd = new AircraftManagementDatabase();
+	}
+
+	@Test
+	void testReplicaFollowsAndIsPromoted() throws Exception {
+		AirportServer primary = new AirportServer(null, null, false);
+		AircraftManagementDatabase amd = primary.getAircraftDatabase();
+		GateInfoDatabase gid = primary.getGateDatabase();
+		ReplicationSource source = primary.startReplication(0);
+		int[] mCodes = new int[6];
+		for (int i = 0; i < 3; i++) {//Before the follower connects - sent in the snapshot
+			mCodes[i] = amd.radarDetect(flight("BA" + i, "Stirling"));
+		}
+		moveTo(amd, mCodes[0], ManagementRecord.LANDED);
+		gid.allocate(0, mCodes[0]);
+		amd.taxiTo(mCodes[0], 0);
+
+		AircraftManagementDatabase followerAmd = new AircraftManagementDatabase();
+		GateInfoDatabase followerGid = new GateInfoDatabase();
+		Replica replica = new Replica(followerAmd, followerGid);
+		replica.connect(source.getPort());
+		long deadline = System.currentTimeMillis() + 5000;
+		while (source.getFollowerCount() == 0 && System.currentTimeMillis() < deadline) {
+			Thread.sleep(5);
+		}
+		for (int i = 3; i < mCodes.length; i++) {//After it connects - streamed
+			mCodes[i] = amd.radarDetect(flight("BA" + i, "Glasgow"));
+		}
+		gid.docked(0);
+		amd.setStatus(mCodes[0], ManagementRecord.UNLOADING);
+		amd.radarLostContact(mCodes[4]);
+		while ((replica.getAppliedAircraftVersion() < amd.getVersion() || replica.getAppliedGateVersion() < gid.getVersion())
+				&& System.currentTimeMillis() < deadline) {
+			Thread.sleep(5);
+		}
+		assertEquals(amd.getVersion(), replica.getAppliedAircraftVersion(), "The follower did not catch up with the records");
+		assertEquals(gid.getVersion(), replica.getAppliedGateVersion(), "The follower did not catch up with the gates");
+		for (int mCode = 0; mCode < amd.maxMRs; mCode++) {
+			assertEquals(amd.getStatus(mCode), followerAmd.getStatus(mCode), "The follower has the wrong status");
+			if (amd.getStatus(mCode) != ManagementRecord.FREE) {//A FREE record's details are not replicated
+				assertEquals(amd.getFlightCode(mCode), followerAmd.getFlightCode(mCode), "The follower has the wrong flight code");
+			}
+		}
+		assertEquals(Gate.OCCUPIED, followerGid.getStatus(0), "The follower has the wrong gate status");
+		assertEquals(mCodes[0], followerGid.getmCode(0), "The follower has the wrong aircraft at the gate");
+		assertTrue(replica.getLagMillis() >= 0, "The lag was not measured");
+
+		primary.shutdown();//The primary stops
+		assertTrue(replica.awaitDisconnect(5000), "The follower did not notice the primary stopping");
+		replica.promote();
+		assertTrue(replica.isPromoted(), "The follower was not promoted");
+		assertEquals(mCodes[3], followerAmd.getmCode("BA3"), "The promoted follower cannot find flights");
+		int next = followerAmd.radarDetect(flight("BA99", "Stirling"));
+		assertEquals(ManagementRecord.FREE, amd.getStatus(next), "The promoted follower reused a record in use");
+		assertTrue(followerAmd.getVersion() > amd.getVersion(), "The promoted follower did not carry on from the primary's version");
+	}
+
+	@Test
+	void testReplicaIgnoresChangesOutOfOrder() throws Exception {
+		int mCode = amd.radarDetect(flight("BA1", "Stirling"));
+		RecordView older = amd.snapshot().getRecord(mCode);//WANTING_TO_LAND
+		amd.setStatus(mCode, ManagementRecord.GROUND_CLEARANCE_GRANTED);
+		RecordView newer = amd.snapshot().getRecord(mCode);
+		try (ServerSocketChannel primary = ServerSocketChannel.open()) {
+			primary.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+			AircraftManagementDatabase followerAmd = new AircraftManagementDatabase();
+			Replica replica = new Replica(followerAmd, new GateInfoDatabase());
+			replica.connect(primary.socket().getLocalPort());
+			try (SocketChannel follower = primary.accept()) {
+				ByteBuffer out = ByteBuffer.allocate(4096);
+				long now = System.currentTimeMillis();
+				ReplicationSource.frame(out, ReplicationSource.BEGIN, now, 0, 0, body -> {
+				});
+				for (RecordView record : new RecordView[] { newer, older }) {//The newer change reached the ring first
+					ReplicationSource.frame(out, ReplicationSource.ENTRY, now, newer.getVersion(), 0,
+							body -> JournalEntry.encodeRecord(record, SnapshotFile.RECORD_FIELDS, body));
+				}
+				out.flip();
+				while (out.hasRemaining()) {
+					follower.write(out);
+				}
+				long deadline = System.currentTimeMillis() + 5000;
+				while (replica.getAppliedCount() + replica.getSkippedCount() < 2 && System.currentTimeMillis() < deadline) {
+					Thread.sleep(5);
+				}
+			}
+			assertTrue(replica.awaitDisconnect(5000), "The replica did not notice the primary going");
+			assertEquals(1, replica.getSkippedCount(), "The older change was not skipped");
+			assertEquals(ManagementRecord.GROUND_CLEARANCE_GRANTED, followerAmd.getStatus(mCode), "The follower went back to the older status");
+			assertEquals("BA1", followerAmd.getFlightCode(mCode), "The follower does not hold the whole record");
+		}
+	}
+}
@@ -0,0 +1,213 @@
+package airport_terminal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * The primary's side of replication: streams every change to the
+ * AircraftManagementDatabase and the GateInfoDatabase, in order, to any number
+ * of Replica followers connected over a loopback socket.
+ *
+ * Like the Journal it is an EventRing consumer, and it sends a JournalEntry
+ * for each change. Changes made on different threads can reach the ring out
+ * of order of version, so each entry holds the whole record (or gate) as of
+ * its version, not just the fields that changed: the follower can then drop
+ * any entry older than what it already holds, and still end up with the
+ * latest state. Each entry is sent as a frame: its length, its kind, the time
+ * it was sent, the primary's current versions of the two databases, then the
+ * entry.
+ *
+ * The frames for a whole batch taken from the ring are encoded once, into one
+ * buffer, which a Broadcaster sends to every follower. A follower that falls
+ * more than maxBacklog bytes behind is dropped, so it can never hold up the
+ * ring, and through it the database writers on the primary.
+ *
+ * A follower that connects is first sent a BEGIN frame with the versions of a
+ * snapshot of both databases, then a SNAPSHOT frame for every record in use
+ * and every gate, then the changes from then on as ENTRY frames. Any ENTRY
+ * already held in the snapshot is skipped by the follower. A follower that
+ * cannot be written to is dropped.
+ */
+public class ReplicationSource implements EventRing.Handler, Closeable {
+
+	static final byte BEGIN = 0;//The versions of the snapshot that follows
+	static final byte SNAPSHOT = 1;//A record or gate in the snapshot
+	static final byte ENTRY = 2;//A change made after the snapshot
+
+	/** The most bytes that can be waiting for one follower if no other limit is given. */
+	public static final long DEFAULT_MAX_BACKLOG = 64L << 20;
+
+	private final AircraftManagementDatabase amd;
+	private final GateInfoDatabase gid;
+	private final Broadcaster followers;
+	private ByteBuffer batch = ByteBuffer.allocate(64 * 1024);//The frames of the batch being taken from the ring
+	private final AtomicLong frames = new AtomicLong();//The number of ENTRY frames encoded
+
+	/**
+	 * The constructor for this class. Starts accepting followers on the
+	 * loopback address, dropping any that fall DEFAULT_MAX_BACKLOG bytes behind.
+	 * The source must also be added to the EventRing the databases publish on.
+	 * @param amd The aircraft database
+	 * @param gid The gate database
+	 * @param port The port to listen on, or 0 for any free port
+	 * @throws IOException If the port cannot be listened on
+	 */
+	public ReplicationSource(AircraftManagementDatabase amd, GateInfoDatabase gid, int port) throws IOException {
+		this(amd, gid, port, DEFAULT_MAX_BACKLOG);
+	}
+
+	/**
+	 * The constructor for this class. Starts accepting followers on the
+	 * loopback address. The source must also be added to the EventRing the
+	 * databases publish on.
+	 * @param amd The aircraft database
+	 * @param gid The gate database
+	 * @param port The port to listen on, or 0 for any free port
+	 * @param maxBacklog The most bytes that can be waiting for one follower before it is dropped
+	 * @throws IOException If the port cannot be listened on
+	 */
+	public ReplicationSource(AircraftManagementDatabase amd, GateInfoDatabase gid, int port, long maxBacklog) throws IOException {
+		this.amd = amd;
+		this.gid = gid;
+		this.followers = new Broadcaster("ReplicationSource", new InetSocketAddress(InetAddress.getLoopbackAddress(), port), maxBacklog, this::snapshot);
+	}
+
+	/**
+	 * Encodes a snapshot of both databases, for a follower that has just
+	 * connected. The follower is counted before the snapshot is taken, so any
+	 * change missing from the snapshot is encoded for it; any change sent that
+	 * the snapshot already holds is skipped by the follower. Nothing here holds
+	 * up the ring.
+	 */
+	private ByteBuffer snapshot() {
+		int[] gateStatuses = new int[gid.maxGateNumber];
+		int[] gatemCodes = new int[gid.maxGateNumber];
+		long gateVersion = gid.copyGates(gateStatuses, gatemCodes);
+		DatabaseSnapshot records = amd.snapshot();
+		ByteBuffer out = ByteBuffer.allocate(4096);
+		while (true) {//Until the snapshot fits in the buffer
+			try {
+				out.clear();
+				long now = System.currentTimeMillis();
+				frame(out, BEGIN, now, records.getVersion(), gateVersion, body -> {
+				});
+				for (int mCode = 0; mCode < records.size(); mCode++) {
+					RecordView record = records.getRecord(mCode);
+					if (record.getStatus() != ManagementRecord.FREE) {//The follower starts with every record FREE
+						frame(out, SNAPSHOT, now, records.getVersion(), gateVersion, body -> JournalEntry.encodeRecord(record, SnapshotFile.RECORD_FIELDS, body));
+					}
+				}
+				for (int gate = 0; gate < gateStatuses.length; gate++) {
+					int number = gate;
+					frame(out, SNAPSHOT, now, records.getVersion(), gateVersion,
+							body -> JournalEntry.encodeGate(number, gateVersion, SnapshotFile.GATE_FIELDS, gateStatuses[number], gatemCodes[number], body));
+				}
+				break;
+			} catch (BufferOverflowException e) {
+				out = ByteBuffer.allocate(out.capacity() * 2);
+			}
+		}
+		out.flip();
+		return out;
+	}
+
+	/**
+	 * Writes one frame into the buffer.
+	 * @throws BufferOverflowException If there is not enough room - the buffer's position is then undefined
+	 */
+	static void frame(ByteBuffer out, byte kind, long sent, long aircraftVersion, long gateVersion, Consumer<ByteBuffer> entry) {
+		int start = out.position();
+		out.putInt(0);//The length, filled in below
+		out.put(kind);
+		out.putLong(sent);
+		out.putLong(aircraftVersion);
+		out.putLong(gateVersion);
+		entry.accept(out);
+		out.putInt(start, out.position() - start - 4);
+	}
+
+	/**
+	 * Writes a change as an entry holding the whole record, or the gate.
+	 */
+	private static void encode(ChangeEvent event, ByteBuffer out) {
+		if (event.getSource() == ChangeEvent.Source.AIRCRAFT) {
+			JournalEntry.encodeRecord(event.getRecord(), SnapshotFile.RECORD_FIELDS, out);//Every field, as of the change's version
+		} else {
+			JournalEntry.encode(event, out);//A gate entry always holds the whole gate
+		}
+	}
+
+	@Override
+	public void onEvent(ChangeEvent event, long sequence, boolean endOfBatch) {
+		if (followers.getClientCount() > 0) {//No need to encode anything if there is nobody to send it to
+			long aircraftVersion = amd.getVersion();
+			long gateVersion = gid.getVersion();
+			while (true) {//Until the frame fits in the batch
+				int start = batch.position();
+				try {
+					frame(batch, ENTRY, System.currentTimeMillis(), aircraftVersion, gateVersion, body -> encode(event, body));
+					frames.incrementAndGet();
+					break;
+				} catch (BufferOverflowException e) {
+					batch.position(start);
+					if (start > 0) {//If there are other frames waiting THEN
+						hand();//Send them, to make room
+					} else {
+						batch = ByteBuffer.allocate(batch.capacity() * 2);
+					}
+				}
+			}
+		}
+		if (endOfBatch) {//If no more changes are waiting THEN
+			hand();//Send the whole batch at once
+		}
+	}
+
+	/**
+	 * Hands the frames encoded so far to the followers, as one buffer.
+	 */
+	private void hand() {
+		batch.flip();
+		followers.send(batch);
+		batch.clear();
+	}
+
+	/**
+	 * Stops accepting followers and disconnects those connected.
+	 */
+	@Override
+	public void close() {
+		followers.close();
+	}
+
+	/** Return the port followers connect to. */
+	public int getPort() {
+		return followers.getPort();
+	}
+
+	/** Return the number of followers connected. */
+	public int getFollowerCount() {
+		return followers.getClientCount();
+	}
+
+	/** Return the number of changes sent. */
+	public long getFrameCount() {
+		return frames.get();
+	}
+
+	/** Return the number of bytes sent to all followers, including snapshots. */
+	public long getBytesSent() {
+		return followers.getBytesWritten();
+	}
+
+	/** Return the number of followers dropped because they could not be written to or fell too far behind. */
+	public long getDroppedCount() {
+		return followers.getSlowCount() + followers.getFailedCount();
+	}
+}
@@ -0,0 +1,59 @@
+package airport_terminal;
+
+//Allow assertions to be used
+import static org.junit.jupiter.api.Assertions.*;
+import static airport_terminal.TestFlights.*;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+
+//Imports for allowing test and the before each test method
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+
+
+class ReplicationSourceTest {
+	AircraftManagementDatabase amd;
+
+	/**
+	 * This method runs before each individual test is run
+	 */
+	@BeforeEach
+	void setup() {
+		//Set up a new database to be used so that information is not left over from previous tests
+		amd = new AircraftManagementDatabase();
+	}
+
+	@Test
+	void testReplicationDropsFollowerThatStopsReading() throws Exception {
+		EventRing ring = new EventRing(64);
+		GateInfoDatabase gid = new GateInfoDatabase();
+		amd.setEventRing(ring, EventRing.WaitStrategy.BLOCKING);
+		gid.setEventRing(ring, EventRing.WaitStrategy.BLOCKING);
+		ReplicationSource source = new ReplicationSource(amd, gid, 0, 16 * 1024);
+		EventRing.Consumer consumer = ring.addConsumer("ReplicationSource", source, EventRing.WaitStrategy.BLOCKING);
+		try (Socket stuck = new Socket()) {
+			stuck.setReceiveBufferSize(1024);
+			stuck.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), source.getPort()));//Never reads
+			long deadline = System.currentTimeMillis() + 5000;
+			while (source.getFollowerCount() == 0 && System.currentTimeMillis() < deadline) {
+				Thread.sleep(5);
+			}
+			deadline = System.currentTimeMillis() + 10000;
+			for (int i = 0; source.getDroppedCount() == 0 && System.currentTimeMillis() < deadline; i++) {//The writers are never held up by the follower
+				int mCode = amd.radarDetect(flight("BA" + i, "Paris"));
+				amd.radarLostContact(mCode);
+			}
+			assertEquals(1, source.getDroppedCount(), "The follower that stopped reading was not dropped");
+			deadline = System.currentTimeMillis() + 5000;
+			while (source.getFollowerCount() > 0 && System.currentTimeMillis() < deadline) {
+				Thread.sleep(5);
+			}
+			assertEquals(0, source.getFollowerCount(), "The dropped follower is still connected");
+		} finally {
+			source.close();
+			consumer.halt();
+		}
+	}
+}
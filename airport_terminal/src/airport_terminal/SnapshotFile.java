@@ -0,0 +1,267 @@
+package airport_terminal;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * A point-in-time copy of every ManagementRecord in use, with its Itinerary
+ * and PassengerList, and of every Gate, written to a file so that a restart
+ * only has to replay the journal from the snapshot onwards.
+ *
+ * The file holds a header - a magic number, the versions of the two databases
+ * the snapshot was taken at, the number of mCodes and the number of gates -
+ * then one JournalEntry for every record that is not FREE, with every field,
+ * and one for every gate, each preceded by its length. It ends with a CRC32 of
+ * everything before it. FREE records are left out, so the size of a snapshot
+ * depends on the number of aircraft being managed, not on maxMRs.
+ *
+ * Files are named snapshot-NNNNNNNN.snap and are written to a temporary file
+ * first, then renamed, so a snapshot file is either complete or missing.
+ */
+public final class SnapshotFile {
+
+	static final String PREFIX = "snapshot-";
+	static final String SUFFIX = ".snap";
+	private static final int MAGIC = 0x53414153;//"SAAS"
+
+	static final EnumSet<ChangeEvent.Field> RECORD_FIELDS = EnumSet.complementOf(EnumSet.of(ChangeEvent.Field.AIRCRAFT));
+	static final EnumSet<ChangeEvent.Field> GATE_FIELDS = EnumSet.of(ChangeEvent.Field.STATUS, ChangeEvent.Field.AIRCRAFT);
+
+	private final File file;
+	private final long aircraftVersion;
+	private final long gateVersion;
+	private final int size;//The number of mCodes
+	private final List<JournalEntry> records;
+	private final List<JournalEntry> gates;
+
+	private SnapshotFile(File file, long aircraftVersion, long gateVersion, int size, List<JournalEntry> records, List<JournalEntry> gates) {
+		this.file = file;
+		this.aircraftVersion = aircraftVersion;
+		this.gateVersion = gateVersion;
+		this.size = size;
+		this.records = Collections.unmodifiableList(records);
+		this.gates = Collections.unmodifiableList(gates);
+	}
+
+	/**
+	 * Writes a snapshot of the records and gates to a new file in the given
+	 * directory.
+	 * @param directory Where snapshots are kept - created if needed
+	 * @param snapshot The records, at one version
+	 * @param gateVersion The version the gates were copied at
+	 * @param gateStatuses The status of every gate
+	 * @param gatemCodes The aircraft using every gate, or -1
+	 * @return The new file
+	 * @throws IOException If the file cannot be written
+	 */
+	static File write(File directory, DatabaseSnapshot snapshot, long gateVersion, int[] gateStatuses, int[] gatemCodes) throws IOException {
+		if (!directory.isDirectory() && !directory.mkdirs()) {
+			throw new IOException("Cannot create snapshot directory " + directory);
+		}
+		ByteBuffer out = ByteBuffer.allocate(4096);
+		while (true) {//Until the snapshot fits in the buffer
+			try {
+				encode(out, snapshot, gateVersion, gateStatuses, gatemCodes);
+				break;
+			} catch (BufferOverflowException e) {
+				out = ByteBuffer.allocate(out.capacity() * 2);
+			}
+		}
+		out.flip();
+		int[] existing = numbers(directory);
+		File target = file(directory, existing.length == 0 ? 1 : existing[existing.length - 1] + 1);
+		File temporary = new File(directory, target.getName() + ".tmp");
+		try (RandomAccessFile raf = new RandomAccessFile(temporary, "rw")) {
+			FileChannel channel = raf.getChannel();
+			channel.truncate(0);
+			while (out.hasRemaining()) {
+				channel.write(out);
+			}
+			channel.force(true);
+		}
+		Files.move(temporary.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE);
+		return target;
+	}
+
+	/**
+	 * Writes the whole snapshot, including the CRC, into the buffer.
+	 */
+	private static void encode(ByteBuffer out, DatabaseSnapshot snapshot, long gateVersion, int[] gateStatuses, int[] gatemCodes) {
+		out.clear();
+		out.putInt(MAGIC);
+		out.putLong(snapshot.getVersion());
+		out.putLong(gateVersion);
+		out.putInt(snapshot.size());
+		out.putInt(gateStatuses.length);
+		int countAt = out.position();
+		out.putInt(0);//The number of records, filled in below
+		int count = 0;
+		for (int mCode = 0; mCode < snapshot.size(); mCode++) {
+			RecordView record = snapshot.getRecord(mCode);
+			if (record.getStatus() == ManagementRecord.FREE) {//FREE records are left out
+				continue;
+			}
+			int lengthAt = out.position();
+			out.putInt(0);
+			JournalEntry.encodeRecord(record, RECORD_FIELDS, out);
+			out.putInt(lengthAt, out.position() - lengthAt - 4);
+			count++;
+		}
+		out.putInt(countAt, count);
+		for (int gate = 0; gate < gateStatuses.length; gate++) {
+			int lengthAt = out.position();
+			out.putInt(0);
+			JournalEntry.encodeGate(gate, gateVersion, GATE_FIELDS, gateStatuses[gate], gatemCodes[gate], out);
+			out.putInt(lengthAt, out.position() - lengthAt - 4);
+		}
+		CRC32 crc = new CRC32();
+		crc.update(out.array(), 0, out.position());
+		out.putInt((int) crc.getValue());
+	}
+
+	/**
+	 * Reads a snapshot file.
+	 * @param file The file
+	 * @return The snapshot
+	 * @throws IOException If the file cannot be read, or is damaged
+	 */
+	public static SnapshotFile read(File file) throws IOException {
+		byte[] bytes = Files.readAllBytes(file.toPath());
+		if (bytes.length < 4) {
+			throw new IOException("Snapshot " + file + " is empty");
+		}
+		CRC32 crc = new CRC32();
+		crc.update(bytes, 0, bytes.length - 4);
+		ByteBuffer in = ByteBuffer.wrap(bytes);
+		if (in.getInt(bytes.length - 4) != (int) crc.getValue() || in.getInt() != MAGIC) {
+			throw new IOException("Snapshot " + file + " is damaged");
+		}
+		try {
+			long aircraftVersion = in.getLong();
+			long gateVersion = in.getLong();
+			int size = in.getInt();
+			int gateCount = in.getInt();
+			int recordCount = in.getInt();
+			List<JournalEntry> records = new ArrayList<JournalEntry>(recordCount);
+			for (int i = 0; i < recordCount; i++) {
+				records.add(entry(in));
+			}
+			List<JournalEntry> gates = new ArrayList<JournalEntry>(gateCount);
+			for (int i = 0; i < gateCount; i++) {
+				gates.add(entry(in));
+			}
+			return new SnapshotFile(file, aircraftVersion, gateVersion, size, records, gates);
+		} catch (BufferUnderflowException | IllegalArgumentException e) {
+			throw new IOException("Snapshot " + file + " is damaged", e);
+		}
+	}
+
+	/**
+	 * Reads one length-prefixed entry.
+	 */
+	private static JournalEntry entry(ByteBuffer in) {
+		int length = in.getInt();
+		ByteBuffer body = in.slice();
+		body.limit(length);
+		in.position(in.position() + length);
+		return JournalEntry.decode(body);
+	}
+
+	/**
+	 * Reads the newest snapshot in the given directory that can be read.
+	 * @param directory Where snapshots are kept
+	 * @return The snapshot, or null if there is none
+	 */
+	public static SnapshotFile readNewest(File directory) {
+		int[] existing = numbers(directory);
+		for (int i = existing.length - 1; i >= 0; i--) {//Newest first
+			try {
+				return read(file(directory, existing[i]));
+			} catch (IOException e) {
+				//Fall back to the one before
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Deletes all but the newest few snapshots in the given directory.
+	 * @param directory Where snapshots are kept
+	 * @param keep How many to keep
+	 * @return The number deleted
+	 */
+	static int deleteOld(File directory, int keep) {
+		int[] existing = numbers(directory);
+		int deleted = 0;
+		for (int i = 0; i < existing.length - keep; i++) {
+			if (file(directory, existing[i]).delete()) {
+				deleted++;
+			}
+		}
+		return deleted;
+	}
+
+	/**
+	 * Return the numbers of the snapshot files in the given directory, in order.
+	 */
+	static int[] numbers(File directory) {
+		String[] names = directory.list();
+		if (names == null) {
+			return new int[0];
+		}
+		return Arrays.stream(names)
+				.filter(name -> name.matches(PREFIX + "\\d+" + "\\" + SUFFIX))
+				.mapToInt(name -> Integer.parseInt(name.substring(PREFIX.length(), name.length() - SUFFIX.length())))
+				.sorted().toArray();
+	}
+
+	/**
+	 * Return the file for the given snapshot number.
+	 */
+	static File file(File directory, int number) {
+		return new File(directory, String.format("%s%08d%s", PREFIX, number, SUFFIX));
+	}
+
+	/** Return the file the snapshot was read from. */
+	public File getFile() {
+		return file;
+	}
+
+	/** Return the version of the AircraftManagementDatabase the snapshot was taken at. */
+	public long getAircraftVersion() {
+		return aircraftVersion;
+	}
+
+	/** Return the version of the GateInfoDatabase the snapshot was taken at. */
+	public long getGateVersion() {
+		return gateVersion;
+	}
+
+	/** Return the number of mCodes the database had - its maxMRs. */
+	public int size() {
+		return size;
+	}
+
+	/** Return an entry for every record that was not FREE, with every field, in order of mCode. */
+	public List<JournalEntry> getRecords() {
+		return records;
+	}
+
+	/** Return an entry for every gate, in order of gate number. */
+	public List<JournalEntry> getGates() {
+		return gates;
+	}
+}
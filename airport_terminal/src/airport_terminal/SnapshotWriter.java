@@ -0,0 +1,128 @@
+package airport_terminal;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes a SnapshotFile of the databases every so often on a background
+ * thread, then deletes the journal segments the snapshot makes unnecessary.
+ *
+ * The records are taken from AircraftManagementDatabase.snapshot, which is
+ * copy on write, and the gates are copied under the gate database's lock in
+ * one short step, so taking a snapshot never stops the databases being
+ * changed. Writing the file happens afterwards, without any lock.
+ */
+public class SnapshotWriter {
+
+	private final AircraftManagementDatabase amd;
+	private final GateInfoDatabase gid;
+	private final File directory;//Where the snapshots are written
+	private final Journal journal;//Truncated after each snapshot, or null
+	private final int keep;//The number of snapshots kept - older ones are deleted
+	private ScheduledExecutorService scheduler;
+	private final AtomicLong written = new AtomicLong();//The number of snapshots written
+	private final AtomicLong failures = new AtomicLong();//The number of snapshots that could not be written
+	private final AtomicLong segmentsDeleted = new AtomicLong();
+	private volatile long lastBytes;//The size of the most recent snapshot file
+	private volatile long lastNanos;//How long the most recent snapshot took to write
+
+	/**
+	 * The constructor for this class.
+	 * @param amd The aircraft database
+	 * @param gid The gate database
+	 * @param directory Where the snapshots are written
+	 * @param journal The journal to truncate after each snapshot, or null
+	 * @param keep How many snapshots to keep - at least one
+	 */
+	public SnapshotWriter(AircraftManagementDatabase amd, GateInfoDatabase gid, File directory, Journal journal, int keep) {
+		this.amd = amd;
+		this.gid = gid;
+		this.directory = directory;
+		this.journal = journal;
+		this.keep = Math.max(1, keep);
+	}
+
+	/**
+	 * Starts writing a snapshot every period on a background thread.
+	 * @param periodMillis The time between snapshots
+	 */
+	public synchronized void start(long periodMillis) {
+		if (scheduler != null) {
+			return;
+		}
+		scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+			Thread thread = new Thread(task, "SnapshotWriter");
+			thread.setDaemon(true);//Do not keep the application running
+			return thread;
+		});
+		scheduler.scheduleWithFixedDelay(() -> {
+			try {
+				writeNow();
+			} catch (IOException e) {
+				failures.incrementAndGet();//Try again next time - the journal still has everything
+			}
+		}, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Stops writing snapshots in the background.
+	 */
+	public synchronized void stop() {
+		if (scheduler != null) {
+			scheduler.shutdown();
+			scheduler = null;
+		}
+	}
+
+	/**
+	 * Writes a snapshot on the current thread, then deletes the journal segments
+	 * and older snapshots it makes unnecessary.
+	 * @return The snapshot file written
+	 * @throws IOException If the snapshot cannot be written
+	 */
+	public synchronized File writeNow() throws IOException {
+		long start = System.nanoTime();
+		int[] gateStatuses = new int[gid.maxGateNumber];
+		int[] gatemCodes = new int[gid.maxGateNumber];
+		long gateVersion = gid.copyGates(gateStatuses, gatemCodes);//The gates at one version
+		DatabaseSnapshot records = amd.snapshot();//The records at one version - copy on write, so writers carry on
+		File file = SnapshotFile.write(directory, records, gateVersion, gateStatuses, gatemCodes);
+		lastNanos = System.nanoTime() - start;
+		lastBytes = file.length();
+		written.incrementAndGet();
+		if (journal != null) {//If the journal can be cut short THEN
+			segmentsDeleted.addAndGet(journal.truncate(records.getVersion(), gateVersion));
+		}
+		SnapshotFile.deleteOld(directory, keep);
+		return file;
+	}
+
+	/** Return the number of snapshots written. */
+	public long getSnapshotCount() {
+		return written.get();
+	}
+
+	/** Return the number of background snapshots that could not be written. */
+	public long getFailureCount() {
+		return failures.get();
+	}
+
+	/** Return the number of journal segments deleted after snapshots. */
+	public long getSegmentsDeleted() {
+		return segmentsDeleted.get();
+	}
+
+	/** Return the size of the most recent snapshot file, in bytes. */
+	public long getLastSnapshotBytes() {
+		return lastBytes;
+	}
+
+	/** Return how long the most recent snapshot took to take and write, in milliseconds. */
+	public double getLastSnapshotMillis() {
+		return lastNanos / 1e6;
+	}
+}
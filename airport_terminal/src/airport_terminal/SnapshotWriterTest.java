@@ -0,0 +1,68 @@
+package airport_terminal;
+
+//Allow assertions to be used
+import static org.junit.jupiter.api.Assertions.*;
+import static airport_terminal.TestFlights.*;
+
+import java.io.File;
+import java.nio.file.Files;
+
+//Imports for allowing test and the before each test method
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+
+
+class SnapshotWriterTest {
+	AircraftManagementDatabase amd;
+
+	/**
+	 * This method runs before each individual test is run
+	 */
+	@BeforeEach
+	void setup() {
+		//Set up a new database to be used so that information is not left over from previous tests
+		amd = new AircraftManagementDatabase();
+	}
+
+	/**
+	 * Tests that a snapshot holds every record and gate, and that the journal segments it covers are deleted
+	 */
+	@Test
+	void testSnapshotTruncatesJournal() throws Exception {
+		File directory = Files.createTempDirectory("snapshot").toFile();
+		EventRing ring = new EventRing(64);
+		GateInfoDatabase gid = new GateInfoDatabase();
+		amd.setEventRing(ring, EventRing.WaitStrategy.BLOCKING);
+		gid.setEventRing(ring, EventRing.WaitStrategy.BLOCKING);
+		Journal journal = new Journal(new File(directory, "journal"), 128, false);
+		EventRing.Consumer consumer = ring.addConsumer("Journal", journal, EventRing.WaitStrategy.BLOCKING);
+
+		int landed = amd.radarDetect(flight("BA1", "Stirling"));
+		moveTo(amd, landed, ManagementRecord.LANDED);
+		amd.taxiTo(landed, 1);
+		gid.allocate(1, landed);
+		int passing = amd.radarDetect(flight("BA2", "Paris"));
+		amd.setItinerary(passing, "Glasgow", "Paris", "Rome");
+		long deadline = System.currentTimeMillis() + 5000;
+		while (consumer.getSequence() < ring.getCursor() && System.currentTimeMillis() < deadline) {
+			Thread.sleep(5);
+		}
+		int segments = Journal.segmentNumbers(journal.getDirectory()).length;
+
+		SnapshotWriter writer = new SnapshotWriter(amd, gid, new File(directory, "snapshots"), journal, 1);
+		writer.writeNow();
+		SnapshotFile snapshot = SnapshotFile.readNewest(new File(directory, "snapshots"));
+		assertEquals(amd.getVersion(), snapshot.getAircraftVersion(), "The snapshot is not at the database's version");
+		assertEquals(amd.maxMRs, snapshot.size(), "The snapshot did not record the number of mCodes");
+		assertEquals(2, snapshot.getRecords().size(), "The snapshot did not hold just the records in use");
+		JournalEntry record = snapshot.getRecords().get(landed < passing ? 0 : 1);
+		assertEquals(ManagementRecord.TAXIING, record.getStatus(), "The snapshot holds the wrong status");
+		assertEquals(1, record.getGateNumber(), "The snapshot holds the wrong gate");
+		assertEquals("Passenger on BA1", record.getPassengerList().getPassengerList().get(0).getName(), "The snapshot holds the wrong passengers");
+		assertEquals(Gate.RESERVED, snapshot.getGates().get(1).getStatus(), "The snapshot holds the wrong gate status");
+		assertEquals(landed, snapshot.getGates().get(1).getmCode(), "The snapshot holds the wrong aircraft at the gate");
+		assertTrue(writer.getSegmentsDeleted() > 0, "No journal segments were deleted");
+		assertEquals(segments - writer.getSegmentsDeleted(), Journal.segmentNumbers(journal.getDirectory()).length, "The wrong number of segments is left");
+		consumer.halt();
+	}
+}
@@ -0,0 +1,110 @@
+package airport_terminal;
+
+import java.util.Arrays;
+
+/**
+ * An index from ManagementRecord status codes to the mCodes currently holding
+ * that status. Used by the AircraftManagementDatabase so that getWithStatus
+ * does not have to look at every ManagementRecord.
+ *
+ * Each status has a compact array of mCodes. The position of every mCode
+ * within its array is remembered, so moving an mCode from one status to another
+ * is O(1): it is swapped with the last member of its old array and appended to
+ * the new one. Queries copy just the matching mCodes.
+ *
+ * Status codes outside 0..DEPARTING_THROUGH_LOCAL_AIRSPACE are not indexed.
+ */
+class StatusIndex {
+
+	/**
+	 * The number of status codes that are indexed: 0 (FREE) up to
+	 * DEPARTING_THROUGH_LOCAL_AIRSPACE.
+	 */
+	static final int STATUS_COUNT = 19;
+
+	private int[][] members;//For each status, the mCodes that have that status - only the first sizes[status] entries are in use
+	private int[] sizes;//For each status, the number of mCodes that have that status
+	private int[] statusOf;//For each mCode, the status it is currently indexed under, or -1 if it is not indexed
+	private int[] position;//For each mCode, where it is held in members[statusOf[mCode]]
+
+	/**
+	 * The constructor for this class. Every mCode starts off unindexed.
+	 * @param capacity The number of mCodes to make room for
+	 */
+	StatusIndex(int capacity) {
+		members = new int[STATUS_COUNT][];//One array of mCodes per status
+		for (int i = 0; i < STATUS_COUNT; i++) {//For every status
+			members[i] = new int[4];//Start small - each array grows when it is full
+		}
+		sizes = new int[STATUS_COUNT];
+		statusOf = new int[0];
+		position = new int[0];
+		grow(capacity);//Make room for the initial mCodes
+	}
+
+	/**
+	 * Makes room for mCodes up to (but not including) capacity. New mCodes start
+	 * off unindexed.
+	 * @param capacity The new number of mCodes
+	 */
+	void grow(int capacity) {
+		int oldCapacity = statusOf.length;//Remember where the new mCodes start
+		if (capacity <= oldCapacity) {//If there is already room THEN
+			return;//Nothing to do
+		}
+		statusOf = Arrays.copyOf(statusOf, capacity);
+		position = Arrays.copyOf(position, capacity);
+		Arrays.fill(statusOf, oldCapacity, capacity, -1);//The new mCodes are not indexed yet
+	}
+
+	/**
+	 * Records that the given mCode now has the given status, moving it out of
+	 * whichever status it was indexed under before. Does nothing if the status has
+	 * not changed.
+	 * @param mCode The mCode whose status has changed
+	 * @param status The new status of the mCode
+	 */
+	void update(int mCode, int status) {
+		int newStatus = (status >= 0 && status < STATUS_COUNT) ? status : -1;//Statuses that are out of range are not indexed
+		int oldStatus = statusOf[mCode];//The status the mCode is currently indexed under
+		if (oldStatus == newStatus) {//If the status has not changed THEN
+			return;//Nothing to do
+		}
+		if (oldStatus >= 0) {//If the mCode was indexed THEN
+			int last = members[oldStatus][--sizes[oldStatus]];//Take the last mCode in the old status
+			int pos = position[mCode];//Where the mCode being moved was held
+			members[oldStatus][pos] = last;//Fill the gap with the last mCode
+			position[last] = pos;//Remember where the last mCode has moved to
+		}
+		if (newStatus >= 0) {//If the new status is indexed THEN
+			if (sizes[newStatus] == members[newStatus].length) {//If the array for the new status is full THEN
+				members[newStatus] = Arrays.copyOf(members[newStatus], members[newStatus].length * 2);//Double its size
+			}
+			position[mCode] = sizes[newStatus];//The mCode goes on the end
+			members[newStatus][sizes[newStatus]++] = mCode;
+		}
+		statusOf[mCode] = newStatus;//Remember which status the mCode is indexed under
+	}
+
+	/**
+	 * Returns a new array holding the mCodes that currently have the given status.
+	 * The array belongs to the caller. The order of the mCodes is not significant.
+	 * @param status The status code to look up
+	 * @return The mCodes with that status - an empty array if there are none
+	 */
+	int[] get(int status) {
+		if (status < 0 || status >= STATUS_COUNT) {//If the status is not indexed THEN
+			return new int[0];//Nothing can have it
+		}
+		return Arrays.copyOf(members[status], sizes[status]);//Copy just the matching mCodes
+	}
+
+	/**
+	 * Returns the number of mCodes that currently have the given status.
+	 * @param status The status code to count
+	 * @return The number of mCodes with that status
+	 */
+	int count(int status) {
+		return (status >= 0 && status < STATUS_COUNT) ? sizes[status] : 0;
+	}
+}
@@ -0,0 +1,14 @@
+package airport_terminal;
+
+/**
+ * A subscription to the changes made to the AircraftManagementDatabase,
+ * returned by its subscribe methods.
+ */
+public interface Subscription {
+
+	/**
+	 * Stops the subscriber being told about any more changes. Does nothing if the
+	 * subscription has already been cancelled.
+	 */
+	void cancel();
+}
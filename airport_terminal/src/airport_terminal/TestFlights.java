@@ -0,0 +1,64 @@
+package airport_terminal;
+
+//Allow assertions to be used
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.LinkedList;
+import java.util.Map;
+
+/**
+ * Helpers shared by the tests that need aircraft in the database.
+ */
+final class TestFlights {
+
+	private TestFlights() {
+	}
+
+	/**
+	 * A helper that builds a flight descriptor for a flight with the given code and destination
+	 * @param flightCode The flight code for the new flight
+	 * @param to Where the flight is going - "Stirling" means it wants to land
+	 * @return The new flight descriptor
+	 */
+	static FlightDescriptor flight(String flightCode, String to) {
+		PassengerList passengers = new PassengerList();
+		passengers.addPassenger(new PassengerDetails("Passenger on " + flightCode));
+		return new FlightDescriptor(flightCode, new Itinerary("Glasgow", to, "London"), passengers);
+	}
+
+	/**
+	 * Moves an aircraft to the given status the shortest legal way through the
+	 * MRState diagram, as one batch so observers are told about it as one change
+	 * @param db The database holding the aircraft
+	 * @param mCode The aircraft's mCode
+	 * @param status The status it should end up with
+	 */
+	static void moveTo(AircraftManagementDatabase db, int mCode, int status) {
+		ManagementRecord.Status start = ManagementRecord.Status.of(db.getStatus(mCode));
+		ManagementRecord.Status target = ManagementRecord.Status.of(status);
+		Map<ManagementRecord.Status, ManagementRecord.Status> previous = new EnumMap<ManagementRecord.Status, ManagementRecord.Status>(ManagementRecord.Status.class);
+		ArrayDeque<ManagementRecord.Status> queue = new ArrayDeque<ManagementRecord.Status>();
+		previous.put(start, start);
+		queue.add(start);
+		while (!queue.isEmpty() && !previous.containsKey(target)) {//Breadth first, so the path is the shortest
+			ManagementRecord.Status from = queue.poll();
+			for (ManagementRecord.Status next : from.getNext()) {
+				if (next != ManagementRecord.Status.FREE && previous.putIfAbsent(next, from) == null) {
+					queue.add(next);
+				}
+			}
+		}
+		assertTrue(previous.containsKey(target), "There is no legal way from " + start + " to " + target);
+		LinkedList<ManagementRecord.Status> path = new LinkedList<ManagementRecord.Status>();
+		for (ManagementRecord.Status step = target; step != start; step = previous.get(step)) {
+			path.addFirst(step);
+		}
+		db.batch(b -> {
+			for (ManagementRecord.Status step : path) {
+				b.setStatus(mCode, step.getCode());
+			}
+		});
+	}
+}